@@ -0,0 +1,45 @@
+package com.dokany.java.benchmark;
+
+import java.io.File;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import lombok.val;
+
+/**
+ * Runs the selected benchmarks once per thread count with {@link GCProfiler} so allocation rate is reported next to throughput.
+ *
+ * System properties:
+ * <ul>
+ * <li>jmh.include: benchmark regex, defaults to every benchmark in this package</li>
+ * <li>jmh.threads: comma separated thread counts, defaults to 1,2,4,8,16</li>
+ * <li>jmh.resultDir: where results-&lt;threads&gt;.json is written, defaults to build/reports/jmh</li>
+ * </ul>
+ */
+public final class BenchmarkRunner {
+	private BenchmarkRunner() {
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		val include = System.getProperty("jmh.include", BenchmarkRunner.class.getPackage().getName() + ".*");
+		val threadCounts = System.getProperty("jmh.threads", "1,2,4,8,16").split(",");
+		val resultDir = new File(System.getProperty("jmh.resultDir", "build/reports/jmh"));
+		resultDir.mkdirs();
+
+		for (val threadCount : threadCounts) {
+			val threads = Integer.parseInt(threadCount.trim());
+			val options = new OptionsBuilder()
+			        .include(include)
+			        .threads(threads)
+			        .addProfiler(GCProfiler.class)
+			        .resultFormat(ResultFormatType.JSON)
+			        .result(new File(resultDir, "results-" + threads + ".json").getPath())
+			        .build();
+			new Runner(options).run();
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dokany.java.DokanyFileSystem;
+import com.dokany.java.SimulatedDokany;
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.CreationDisposition;
+import com.dokany.java.structure.ByHandleFileInfo;
+import com.dokany.java.structure.DeviceOptions;
+import com.dokany.java.structure.DokanyFileInfo;
+import com.sun.jna.Memory;
+
+import lombok.val;
+
+/**
+ * ReadFile, WriteFile, GetFileInformation and FindFilesWithPattern through {@link com.dokany.java.DokanyOperationsProxy}, driven by {@link SimulatedDokany}. Subclasses supply
+ * the file system and its fixtures.
+ *
+ * Thread counts are not a parameter here; {@link BenchmarkRunner} runs every benchmark once per thread count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class CallbackBenchmark {
+	static final int FILE_SIZE = 8 * 1024 * 1024;
+	static final int DIRECTORY_SIZE = 256;
+
+	static final String READ_FILE = "/read.bin";
+	static final String DIRECTORY = "/dir";
+
+	@Param({ "4096", "65536", "1048576" })
+	int bufferSize;
+
+	SimulatedDokany dokany;
+
+	AtomicInteger threadIds = new AtomicInteger();
+
+	/**
+	 *
+	 * @return file system to benchmark, rooted wherever the subclass likes
+	 */
+	protected abstract DokanyFileSystem createFileSystem(DeviceOptions deviceOptions) throws IOException;
+
+	/**
+	 * Creates an empty file at path, bypassing the proxy.
+	 */
+	protected abstract void createFile(String path) throws IOException;
+
+	/**
+	 * Creates an empty directory at path, bypassing the proxy.
+	 */
+	protected abstract void createDirectory(String path) throws IOException;
+
+	/**
+	 * Releases whatever {@link #createFileSystem} allocated.
+	 */
+	protected void dispose() throws IOException {
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		val deviceOptions = TestVolumes.deviceOptions();
+		dokany = new SimulatedDokany(deviceOptions, createFileSystem(deviceOptions));
+
+		createFile(READ_FILE);
+		fill(READ_FILE, FILE_SIZE);
+
+		createDirectory(DIRECTORY);
+		for (int i = 0; i < DIRECTORY_SIZE; i++) {
+			createFile(DIRECTORY + "/entry-" + i + ".txt");
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		dispose();
+	}
+
+	private void fill(final String path, final int size) {
+		val chunk = 1024 * 1024;
+		val buffer = new Memory(chunk);
+		buffer.clear(chunk);
+
+		val handle = dokany.open(path, CreationDisposition.OPEN_EXISTING, false);
+		for (long offset = 0; offset < size; offset += chunk) {
+			dokany.write(path, offset, buffer, chunk, handle);
+		}
+		dokany.flush(path, handle);
+		dokany.close(path, handle);
+	}
+
+	/**
+	 * Per thread handles and buffer, so threads only share the file system. Opened on first use because JMH cannot hand the abstract benchmark state to a setup method.
+	 */
+	@State(Scope.Thread)
+	public static class Handles {
+		CallbackBenchmark benchmark;
+		Memory buffer;
+		String writePath;
+		DokanyFileInfo readHandle;
+		DokanyFileInfo writeHandle;
+		DokanyFileInfo directoryHandle;
+		long position;
+
+		void open(final CallbackBenchmark benchmark) throws IOException {
+			this.benchmark = benchmark;
+			buffer = new Memory(benchmark.bufferSize);
+			buffer.clear(benchmark.bufferSize);
+
+			writePath = "/write-" + benchmark.threadIds.getAndIncrement() + ".bin";
+			benchmark.createFile(writePath);
+
+			val dokany = benchmark.dokany;
+			readHandle = dokany.open(READ_FILE, CreationDisposition.OPEN_EXISTING, false);
+			writeHandle = dokany.open(writePath, CreationDisposition.OPEN_EXISTING, false);
+			directoryHandle = dokany.open(DIRECTORY, CreationDisposition.OPEN_EXISTING, true);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			if (benchmark == null) {
+				return;
+			}
+			val dokany = benchmark.dokany;
+			dokany.close(READ_FILE, readHandle);
+			dokany.close(writePath, writeHandle);
+			dokany.close(DIRECTORY, directoryHandle);
+		}
+
+		/**
+		 * Walks the file in bufferSize steps, wrapping at {@link CallbackBenchmark#FILE_SIZE}.
+		 */
+		long nextPosition(final int bufferSize) {
+			val current = position;
+			position = (current + bufferSize) % FILE_SIZE;
+			return current;
+		}
+	}
+
+	private Handles opened(final Handles handles) throws IOException {
+		if (handles.benchmark == null) {
+			handles.open(this);
+		}
+		return handles;
+	}
+
+	@Benchmark
+	public int readFile(final Handles handles) throws IOException {
+		val opened = opened(handles);
+		return dokany.read(READ_FILE, opened.nextPosition(bufferSize), opened.buffer, bufferSize, opened.readHandle);
+	}
+
+	@Benchmark
+	public int writeFile(final Handles handles) throws IOException {
+		val opened = opened(handles);
+		return dokany.write(opened.writePath, opened.nextPosition(bufferSize), opened.buffer, bufferSize, opened.writeHandle);
+	}
+
+	@Benchmark
+	public ByHandleFileInfo getFileInformation(final Handles handles) throws IOException {
+		return dokany.getFileInformation(READ_FILE, opened(handles).readHandle);
+	}
+
+	@Benchmark
+	public int findFilesWithPattern(final Handles handles) throws IOException {
+		return dokany.findFiles(DIRECTORY, "*.txt", opened(handles).directoryHandle);
+	}
+}
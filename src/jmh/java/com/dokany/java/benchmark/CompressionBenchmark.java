@@ -0,0 +1,136 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.examples.memoryfs.Compression;
+import com.dokany.java.examples.memoryfs.ContentLayout;
+import com.dokany.java.examples.memoryfs.Durability;
+import com.dokany.java.examples.memoryfs.MemoryFS;
+
+import lombok.val;
+
+/**
+ * Writes and random reads of a 16 MB {@link MemoryFS} file with {@link ContentLayout#BLOCKS}, per {@link Compression} and corpus: generated log lines, which compress well, or
+ * random bytes, which do not compress at all. Writes rewrite 1 MB of the file in 64 KB requests, so MB/s of writeRegion is its ops/s.
+ *
+ * The stored size and the compression ratio and time per MB are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+	static final String PATH = "/corpus.bin";
+	static final int FILE_SIZE = 16 * 1024 * 1024;
+	static final int REGION_SIZE = 1024 * 1024;
+	static final int REQUEST_SIZE = 64 * 1024;
+	static final int READ_SIZE = 4096;
+
+	static final String[] LEVELS = { "INFO", "INFO", "INFO", "DEBUG", "WARN", "ERROR" };
+	static final String[] LOGGERS = { "com.dokany.java.DokanyDriver", "com.dokany.java.DokanyOperationsProxy", "com.dokany.java.examples.memoryfs.MemoryFS" };
+	static final String[] MESSAGES = { "Opened {\"path\":\"/docs/report-%d.txt\",\"handle\":%d}", "Read %d bytes at offset %d", "Flushed %d pending writes in %d ms" };
+
+	public enum Corpus {
+		TEXT,
+		RANDOM;
+	}
+
+	@Param({ "NONE", "LZ4" })
+	Compression compression;
+
+	@Param({ "TEXT", "RANDOM" })
+	Corpus corpus;
+
+	MemoryFS memoryFS;
+	byte[] contents;
+	int nextRegion;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		val random = new Random(42);
+		contents = (corpus == Corpus.TEXT) ? generateLog(random) : new byte[FILE_SIZE];
+		if (corpus == Corpus.RANDOM) {
+			random.nextBytes(contents);
+		}
+
+		memoryFS = TestVolumes.memoryFS(TestVolumes.deviceOptions(), Durability.WRITE_BACK, ContentLayout.BLOCKS, compression);
+		memoryFS.createEmptyFile(PATH, 0, TestVolumes.attributes(FileAttribute.NORMAL));
+		for (int offset = 0; offset < FILE_SIZE; offset += REGION_SIZE) {
+			write(offset);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		val content = memoryFS.getContentStats();
+		val stats = memoryFS.getCompressionStats();
+		System.out.printf("%n%s %s: %d logical bytes, %d stored bytes, %d compressed and %d raw blocks, ratio %.2f, %.0f ns/MB compressing, %.0f ns/MB decompressing%n",
+		        compression, corpus, content.getLogicalBytes(), content.getStoredBytes(), stats.getCompressedBlocks(), stats.getRawBlocks(), stats.getRatio(),
+		        stats.getCompressNanosPerMB(), stats.getDecompressNanosPerMB());
+	}
+
+	/**
+	 * Lines in the format of the default logback pattern, with JSON in some messages, cut to exactly {@link #FILE_SIZE}.
+	 */
+	private static byte[] generateLog(final Random random) {
+		val log = new StringBuilder(FILE_SIZE + 256);
+		long millis = 0;
+		while (log.length() < FILE_SIZE) {
+			millis += random.nextInt(50);
+			log.append(String.format("%02d:%02d:%02d.%03d [dokany-%d] %-5s %s - ", millis / 3600000 % 24, millis / 60000 % 60, millis / 1000 % 60, millis % 1000,
+			        random.nextInt(8), LEVELS[random.nextInt(LEVELS.length)], LOGGERS[random.nextInt(LOGGERS.length)]));
+			log.append(String.format(MESSAGES[random.nextInt(MESSAGES.length)], random.nextInt(100000), random.nextInt(1000)));
+			log.append('\n');
+		}
+		log.setLength(FILE_SIZE);
+		return log.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private void write(final int regionOffset) throws IOException {
+		for (int offset = regionOffset; offset < (regionOffset + REGION_SIZE); offset += REQUEST_SIZE) {
+			val request = new byte[REQUEST_SIZE];
+			System.arraycopy(contents, offset, request, 0, REQUEST_SIZE);
+			memoryFS.write(PATH, offset, request, REQUEST_SIZE);
+		}
+		memoryFS.flushFileBuffers(PATH);
+	}
+
+	/**
+	 * Rewrites the next 1 MB region with its own contents.
+	 */
+	@Benchmark
+	public int writeRegion() throws IOException {
+		val offset = nextRegion;
+		nextRegion = (nextRegion + REGION_SIZE) % FILE_SIZE;
+		write(offset);
+		return offset;
+	}
+
+	@Benchmark
+	public int randomRead() throws IOException {
+		val offset = ThreadLocalRandom.current().nextLong(FILE_SIZE / READ_SIZE) * READ_SIZE;
+		return memoryFS.read(PATH, offset, READ_SIZE).getLength();
+	}
+}
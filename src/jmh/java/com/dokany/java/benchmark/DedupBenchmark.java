@@ -0,0 +1,139 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.examples.memoryfs.ContentLayout;
+import com.dokany.java.examples.memoryfs.Durability;
+import com.dokany.java.examples.memoryfs.MemoryFS;
+
+import lombok.val;
+
+/**
+ * Writes and reads of synthetic jars: {@link #JAR_COUNT} variants of one random 4 MB base, each with a few small insertions and overwrites, as successive builds of an artifact
+ * would be. Every operation is one whole jar in 64 KB requests, so MB/s is ops/s times 4.
+ *
+ * The ratio of logical to stored bytes is printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DedupBenchmark {
+	static final int JAR_SIZE = 4 * 1024 * 1024;
+	static final int JAR_COUNT = 16;
+	static final int EDITS_PER_JAR = 8;
+	static final int REQUEST_SIZE = 64 * 1024;
+
+	@Param({ "BLOCKS", "DEDUP" })
+	ContentLayout contentLayout;
+
+	MemoryFS memoryFS;
+	byte[][] jars = new byte[JAR_COUNT][];
+	int next;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		val random = new Random(42);
+		val base = new byte[JAR_SIZE];
+		random.nextBytes(base);
+		for (int i = 0; i < JAR_COUNT; i++) {
+			jars[i] = edit(base, random);
+		}
+
+		memoryFS = TestVolumes.memoryFS(TestVolumes.deviceOptions(), Durability.WRITE_BACK, contentLayout);
+		val attributes = TestVolumes.attributes(FileAttribute.NORMAL);
+		for (int i = 0; i < JAR_COUNT; i++) {
+			memoryFS.createEmptyFile(path(i), 0, attributes);
+			write(i);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		val stats = memoryFS.getContentStats();
+		System.out.printf("%n%s: %d logical bytes, %d stored bytes, ratio %.2f%n", contentLayout, stats.getLogicalBytes(), stats.getStoredBytes(), stats.getRatio());
+	}
+
+	/**
+	 * Inserts a few random bytes and overwrites a few random ranges of a copy of base.
+	 */
+	private static byte[] edit(final byte[] base, final Random random) {
+		byte[] jar = base.clone();
+		for (int i = 0; i < EDITS_PER_JAR; i++) {
+			val position = random.nextInt(jar.length - 1024);
+			if ((i % 2) == 0) {
+				val inserted = new byte[1 + random.nextInt(64)];
+				random.nextBytes(inserted);
+				val edited = new byte[jar.length + inserted.length];
+				System.arraycopy(jar, 0, edited, 0, position);
+				System.arraycopy(inserted, 0, edited, position, inserted.length);
+				System.arraycopy(jar, position, edited, position + inserted.length, jar.length - position);
+				jar = edited;
+			} else {
+				val overwritten = new byte[1024];
+				random.nextBytes(overwritten);
+				System.arraycopy(overwritten, 0, jar, position, overwritten.length);
+			}
+		}
+		return jar;
+	}
+
+	private static String path(final int index) {
+		return "/build-" + index + ".jar";
+	}
+
+	private void write(final int index) throws IOException {
+		val jar = jars[index];
+		val path = path(index);
+		for (int offset = 0; offset < jar.length; offset += REQUEST_SIZE) {
+			val chunk = new byte[Math.min(REQUEST_SIZE, jar.length - offset)];
+			System.arraycopy(jar, offset, chunk, 0, chunk.length);
+			memoryFS.write(path, offset, chunk, chunk.length);
+		}
+		memoryFS.flushFileBuffers(path);
+	}
+
+	/**
+	 * Rewrites the next jar with its own contents.
+	 */
+	@Benchmark
+	public int writeJar() throws IOException {
+		val index = next;
+		next = (next + 1) % JAR_COUNT;
+		write(index);
+		return index;
+	}
+
+	@Benchmark
+	public long readJar() throws IOException {
+		val index = next;
+		next = (next + 1) % JAR_COUNT;
+
+		long total = 0;
+		val path = path(index);
+		for (long offset = 0; offset < jars[index].length; offset += REQUEST_SIZE) {
+			total += memoryFS.read(path, offset, REQUEST_SIZE).getLength();
+		}
+		return total;
+	}
+}
@@ -0,0 +1,91 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dokany.java.SimulatedDokany;
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.CreationDisposition;
+import com.dokany.java.examples.mirrorfs.ListingMode;
+import com.dokany.java.examples.mirrorfs.MirrorFS;
+import com.dokany.java.examples.mirrorfs.ReadMode;
+import com.dokany.java.structure.DokanyFileInfo;
+
+import lombok.val;
+
+/**
+ * FindFiles and FindFilesWithPattern on a {@link MirrorFS} directory of 10k and 100k files, per {@link ListingMode} and listing pool size.
+ *
+ * {@link ListingMode#PER_ENTRY} goes through kernel32, so it only runs on Windows. Creating the 100k directory takes a while; it is created once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DirectoryListingBenchmark {
+	static final String DIRECTORY = "/large";
+
+	@Param({ "10000", "100000" })
+	int entryCount;
+
+	@Param({ "PER_ENTRY", "BULK" })
+	ListingMode listingMode;
+
+	@Param({ "0", "4" })
+	int listingParallelism;
+
+	Path root;
+	MirrorFS mirrorFS;
+	SimulatedDokany dokany;
+	DokanyFileInfo directoryHandle;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("dokany-java-jmh_");
+		val directory = Files.createDirectory(root.resolve(DIRECTORY.substring(1)));
+		for (int i = 0; i < entryCount; i++) {
+			Files.createFile(directory.resolve("entry-" + i + ((i % 2) == 0 ? ".txt" : ".bin")));
+		}
+
+		val deviceOptions = TestVolumes.deviceOptions();
+		mirrorFS = TestVolumes.mirrorFS(deviceOptions, root, ReadMode.CHANNEL, listingMode, listingParallelism);
+		dokany = new SimulatedDokany(deviceOptions, mirrorFS);
+		directoryHandle = dokany.open(DIRECTORY, CreationDisposition.OPEN_EXISTING, true);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		dokany.close(DIRECTORY, directoryHandle);
+		mirrorFS.unmounted();
+		FileUtils.deleteDirectory(root.toFile());
+	}
+
+	@Benchmark
+	public int findFiles() {
+		return dokany.findFiles(DIRECTORY, null, directoryHandle);
+	}
+
+	@Benchmark
+	public int findFilesWithPattern() {
+		return dokany.findFiles(DIRECTORY, "*.txt", directoryHandle);
+	}
+}
@@ -0,0 +1,99 @@
+package com.dokany.java.benchmark;
+
+import java.io.FileNotFoundException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.structure.EnumIntegerSet;
+import com.dokany.java.structure.FullFileInfo;
+import com.dokany.java.structure.FullFileInfoCodec;
+
+import jetbrains.exodus.ByteIterable;
+import lombok.val;
+
+/**
+ * Encoding and decoding one file info record with {@link FullFileInfoCodec} against the variable-length layout of {@link FullFileInfo#toByteIterable()} it replaced. Run with
+ * -prof gc to compare allocation. The bytes per record of both layouts are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings("deprecation")
+public class FileInfoCodecBenchmark {
+	static final String PATH = "/Documents/Projects/dokany-java/build.gradle";
+
+	FullFileInfo info;
+	ByteIterable legacyRecord;
+	ByteIterable record;
+
+	@State(Scope.Thread)
+	public static class Reused {
+		FullFileInfo info;
+
+		@Setup(Level.Trial)
+		public void setUp() throws FileNotFoundException {
+			info = new FullFileInfo(PATH, 0, null, 0);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws FileNotFoundException {
+		val attributes = new EnumIntegerSet<>(FileAttribute.class);
+		attributes.add(FileAttribute.ARCHIVE);
+		info = new FullFileInfo(PATH, 42, attributes, 0x12345678);
+		info.setSize(5L * 1024L * 1024L * 1024L + 123);
+
+		legacyRecord = info.toByteIterable();
+		record = FullFileInfoCodec.encode(info);
+		System.out.printf("%nlegacy: %d bytes per record, v%d: %d bytes per record%n", legacyRecord.getLength(), FullFileInfoCodec.VERSION, record.getLength());
+	}
+
+	@Benchmark
+	public ByteIterable encodeLegacy() {
+		return info.toByteIterable();
+	}
+
+	@Benchmark
+	public ByteIterable encode() {
+		return FullFileInfoCodec.encode(info);
+	}
+
+	@Benchmark
+	public FullFileInfo decodeLegacy() throws FileNotFoundException {
+		return new FullFileInfo(PATH, legacyRecord);
+	}
+
+	@Benchmark
+	public FullFileInfo decode() {
+		return FullFileInfoCodec.decode(PATH, record);
+	}
+
+	@Benchmark
+	public FullFileInfo decodeInto(final Reused reused) {
+		FullFileInfoCodec.decodeInto(PATH, record, reused.info);
+		return reused.info;
+	}
+
+	/**
+	 * Reading one field, as setting the end of a file does.
+	 */
+	@Benchmark
+	public long getSize() {
+		return FullFileInfoCodec.getSize(record);
+	}
+}
@@ -0,0 +1,42 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Param;
+import org.slf4j.LoggerFactory;
+
+import com.dokany.java.DokanyFileSystem;
+import com.dokany.java.structure.DeviceOptions;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * {@link MemoryFSBenchmark} with the com.dokany.java loggers off or at DEBUG, to show what proxy logging costs per callback. Events go to whichever logback configuration is on
+ * the classpath; pass -Dlogback.configurationFile=logback-production.xml to measure the async appender.
+ */
+public class LoggingBenchmark extends MemoryFSBenchmark {
+	@Param({ "OFF", "DEBUG" })
+	String logLevel;
+
+	Level previousLevel;
+
+	@Override
+	protected DokanyFileSystem createFileSystem(final DeviceOptions deviceOptions) throws IOException {
+		// before the proxy is created, since it reads the level once
+		final Logger logger = dokanyLogger();
+		previousLevel = logger.getLevel();
+		logger.setLevel(Level.toLevel(logLevel));
+		return super.createFileSystem(deviceOptions);
+	}
+
+	@Override
+	protected void dispose() throws IOException {
+		dokanyLogger().setLevel(previousLevel);
+		super.dispose();
+	}
+
+	private static Logger dokanyLogger() {
+		return (Logger) LoggerFactory.getLogger("com.dokany.java");
+	}
+}
@@ -0,0 +1,110 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dokany.java.SimulatedDokany;
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.CreationDisposition;
+import com.dokany.java.examples.mirrorfs.MirrorFS;
+import com.dokany.java.examples.mirrorfs.ReadMode;
+import com.dokany.java.structure.DokanyFileInfo;
+import com.sun.jna.Memory;
+
+import lombok.val;
+
+/**
+ * Random and sequential ReadFile calls through an open {@link MirrorFS} handle, {@link ReadMode#MEMORY_MAPPED} against {@link ReadMode#CHANNEL}, on files of 1 MB, 64 MB and 1 GB.
+ *
+ * The 1 GB file is larger than {@link MirrorFS#DEFAULT_MAP_WINDOW_SIZE} times {@link MirrorFS#DEFAULT_MAX_MAPPED_WINDOWS}, so random reads there also measure remapping evicted
+ * windows. Files are written in full during setup and served from the page cache once warm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappedReadBenchmark {
+	static final String PATH = "/mapped.bin";
+
+	@Param({ "CHANNEL", "MEMORY_MAPPED" })
+	ReadMode readMode;
+
+	@Param({ "1048576", "67108864", "1073741824" })
+	int fileSize;
+
+	@Param({ "4096", "65536" })
+	int bufferSize;
+
+	Path root;
+	SimulatedDokany dokany;
+
+	@State(Scope.Thread)
+	public static class Handle {
+		MappedReadBenchmark benchmark;
+		DokanyFileInfo handle;
+		Memory buffer;
+		long position;
+
+		@Setup(Level.Trial)
+		public void setUp(final MappedReadBenchmark benchmark) {
+			this.benchmark = benchmark;
+			handle = benchmark.dokany.open(PATH, CreationDisposition.OPEN_EXISTING, false);
+			buffer = new Memory(benchmark.bufferSize);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			benchmark.dokany.close(PATH, handle);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("dokany-java-jmh_");
+		MirrorFSRandomAccessBenchmark.fill(root.resolve(PATH.substring(1)), fileSize);
+
+		val deviceOptions = TestVolumes.deviceOptions();
+		dokany = new SimulatedDokany(deviceOptions, TestVolumes.mirrorFS(deviceOptions, root, readMode));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(root.toFile());
+	}
+
+	@Benchmark
+	public int randomRead(final Handle handle) {
+		val offset = ThreadLocalRandom.current().nextInt(fileSize / bufferSize) * (long) bufferSize;
+		return dokany.read(PATH, offset, handle.buffer, bufferSize, handle.handle);
+	}
+
+	/**
+	 * Walks the file in bufferSize steps, wrapping at its end.
+	 */
+	@Benchmark
+	public int sequentialRead(final Handle handle) {
+		val offset = handle.position;
+		handle.position = (offset + bufferSize) % fileSize;
+		return dokany.read(PATH, offset, handle.buffer, bufferSize, handle.handle);
+	}
+}
@@ -0,0 +1,34 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+
+import com.dokany.java.DokanyFileSystem;
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.examples.memoryfs.ContentLayout;
+import com.dokany.java.examples.memoryfs.Durability;
+import com.dokany.java.examples.memoryfs.MemoryFS;
+import com.dokany.java.structure.DeviceOptions;
+
+/**
+ * {@link CallbackBenchmark} against {@link MemoryFS} with {@link Durability#WRITE_BACK}.
+ */
+public class MemoryFSBenchmark extends CallbackBenchmark {
+	MemoryFS memoryFS;
+
+	@Override
+	protected DokanyFileSystem createFileSystem(final DeviceOptions deviceOptions) throws IOException {
+		memoryFS = TestVolumes.memoryFS(deviceOptions, Durability.WRITE_BACK, ContentLayout.BLOCKS);
+		return memoryFS;
+	}
+
+	@Override
+	protected void createFile(final String path) throws IOException {
+		memoryFS.createEmptyFile(path, 0, TestVolumes.attributes(FileAttribute.NORMAL));
+	}
+
+	@Override
+	protected void createDirectory(final String path) throws IOException {
+		memoryFS.createEmptyDirectory(path, 0, TestVolumes.attributes(FileAttribute.DIRECTORY));
+	}
+}
@@ -0,0 +1,90 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dokany.java.SimulatedDokany;
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.CreationDisposition;
+import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.examples.memoryfs.MemoryFS;
+import com.dokany.java.structure.DokanyFileInfo;
+
+import lombok.val;
+
+/**
+ * FindFiles on a {@link MemoryFS} volume of 10k, 100k and 1M files, all but {@link #SMALL_DIRECTORY_SIZE} of them in one directory.
+ *
+ * Listings walk the directory index, so listing the small directory should cost the same at every volume size and listing the large one should grow with its size. Creating the
+ * 1M file volume takes a while; it is created once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemoryFSListingBenchmark {
+	static final String LARGE_DIRECTORY = "/large";
+	static final String SMALL_DIRECTORY = "/small";
+	static final int SMALL_DIRECTORY_SIZE = 100;
+
+	@Param({ "10000", "100000", "1000000" })
+	int fileCount;
+
+	SimulatedDokany dokany;
+	DokanyFileInfo largeHandle;
+	DokanyFileInfo smallHandle;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		val deviceOptions = TestVolumes.deviceOptions();
+		val memoryFS = TestVolumes.memoryFS(deviceOptions);
+		dokany = new SimulatedDokany(deviceOptions, memoryFS);
+
+		val directoryAttributes = TestVolumes.attributes(FileAttribute.DIRECTORY);
+		val attributes = TestVolumes.attributes(FileAttribute.NORMAL);
+
+		memoryFS.createEmptyDirectory(LARGE_DIRECTORY, 0, directoryAttributes);
+		memoryFS.createEmptyDirectory(SMALL_DIRECTORY, 0, directoryAttributes);
+		for (int i = 0; i < (fileCount - SMALL_DIRECTORY_SIZE); i++) {
+			memoryFS.createEmptyFile(LARGE_DIRECTORY + "/entry-" + i + ".txt", 0, attributes);
+		}
+		for (int i = 0; i < SMALL_DIRECTORY_SIZE; i++) {
+			memoryFS.createEmptyFile(SMALL_DIRECTORY + "/entry-" + i + ".txt", 0, attributes);
+		}
+
+		largeHandle = dokany.open(LARGE_DIRECTORY, CreationDisposition.OPEN_EXISTING, true);
+		smallHandle = dokany.open(SMALL_DIRECTORY, CreationDisposition.OPEN_EXISTING, true);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		dokany.close(LARGE_DIRECTORY, largeHandle);
+		dokany.close(SMALL_DIRECTORY, smallHandle);
+	}
+
+	@Benchmark
+	public int findFilesInSmallDirectory() {
+		return dokany.findFiles(SMALL_DIRECTORY, null, smallHandle);
+	}
+
+	@Benchmark
+	public int findFilesInLargeDirectory() {
+		return dokany.findFiles(LARGE_DIRECTORY, null, largeHandle);
+	}
+}
@@ -0,0 +1,131 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dokany.java.SimulatedDokany;
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.CreationDisposition;
+import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.examples.memoryfs.ContentLayout;
+import com.dokany.java.examples.memoryfs.Durability;
+import com.dokany.java.examples.memoryfs.MemoryFS;
+import com.dokany.java.structure.DokanyFileInfo;
+import com.sun.jna.Memory;
+
+import lombok.val;
+
+/**
+ * Concurrent random ReadFile calls on a 64 MB {@link MemoryFS} file, per {@link ContentLayout}. Reads run in read-only transactions, so readers should scale with threads and
+ * not slow down while another thread writes.
+ *
+ * randomRead runs on 4 threads unless {@link BenchmarkRunner} sets the thread count. readWhileWriting runs 3 readers next to 1 thread doing {@link Durability#WRITE_THROUGH} writes
+ * to another file, each holding the Xodus writer for its commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemoryFSReadBenchmark {
+	static final String READ_FILE = "/read.bin";
+	static final int FILE_SIZE = 64 * 1024 * 1024;
+
+	@Param({ "STREAM", "BLOCKS" })
+	ContentLayout contentLayout;
+
+	@Param({ "4096", "65536" })
+	int bufferSize;
+
+	MemoryFS memoryFS;
+	SimulatedDokany dokany;
+
+	AtomicInteger threadIds = new AtomicInteger();
+
+	@State(Scope.Thread)
+	public static class Handles {
+		MemoryFSReadBenchmark benchmark;
+		Memory buffer;
+		String writePath;
+		DokanyFileInfo readHandle;
+		DokanyFileInfo writeHandle;
+
+		@Setup(Level.Trial)
+		public void setUp(final MemoryFSReadBenchmark benchmark) throws IOException {
+			this.benchmark = benchmark;
+			buffer = new Memory(benchmark.bufferSize);
+			buffer.clear(benchmark.bufferSize);
+
+			writePath = "/write-" + benchmark.threadIds.getAndIncrement() + ".bin";
+			benchmark.memoryFS.createEmptyFile(writePath, 0, TestVolumes.attributes(FileAttribute.NORMAL));
+			readHandle = benchmark.dokany.open(READ_FILE, CreationDisposition.OPEN_EXISTING, false);
+			writeHandle = benchmark.dokany.open(writePath, CreationDisposition.OPEN_EXISTING, false);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			benchmark.dokany.close(READ_FILE, readHandle);
+			benchmark.dokany.close(writePath, writeHandle);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		val deviceOptions = TestVolumes.deviceOptions();
+		memoryFS = TestVolumes.memoryFS(deviceOptions, Durability.WRITE_THROUGH, contentLayout);
+		dokany = new SimulatedDokany(deviceOptions, memoryFS);
+
+		memoryFS.createEmptyFile(READ_FILE, 0, TestVolumes.attributes(FileAttribute.NORMAL));
+		val chunk = new byte[1024 * 1024];
+		for (int offset = 0; offset < FILE_SIZE; offset += chunk.length) {
+			ThreadLocalRandom.current().nextBytes(chunk);
+			memoryFS.write(READ_FILE, offset, chunk, chunk.length);
+		}
+	}
+
+	private int read(final Handles handles) {
+		val offset = ThreadLocalRandom.current().nextInt(FILE_SIZE / bufferSize) * (long) bufferSize;
+		return dokany.read(READ_FILE, offset, handles.buffer, bufferSize, handles.readHandle);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public int randomRead(final Handles handles) {
+		return read(handles);
+	}
+
+	@Benchmark
+	@Group("readWhileWriting")
+	@GroupThreads(3)
+	public int reader(final Handles handles) {
+		return read(handles);
+	}
+
+	@Benchmark
+	@Group("readWhileWriting")
+	@GroupThreads(1)
+	public int writer(final Handles handles) {
+		val offset = ThreadLocalRandom.current().nextInt(FILE_SIZE / bufferSize) * (long) bufferSize;
+		return dokany.write(handles.writePath, offset, handles.buffer, bufferSize, handles.writeHandle);
+	}
+}
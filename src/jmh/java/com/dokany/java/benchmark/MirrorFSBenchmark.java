@@ -0,0 +1,47 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Param;
+
+import com.dokany.java.DokanyFileSystem;
+import com.dokany.java.TestVolumes;
+import com.dokany.java.examples.mirrorfs.MirrorFS;
+import com.dokany.java.examples.mirrorfs.ReadMode;
+import com.dokany.java.structure.DeviceOptions;
+
+/**
+ * {@link CallbackBenchmark} against {@link MirrorFS} mirroring a fresh temporary directory.
+ *
+ * GetFileInformation goes through kernel32 in MirrorFS, so that benchmark only runs on Windows.
+ */
+public class MirrorFSBenchmark extends CallbackBenchmark {
+	@Param({ "CHANNEL", "MEMORY_MAPPED" })
+	ReadMode readMode;
+
+	Path root;
+
+	@Override
+	protected DokanyFileSystem createFileSystem(final DeviceOptions deviceOptions) throws IOException {
+		root = Files.createTempDirectory("dokany-java-jmh_");
+		return TestVolumes.mirrorFS(deviceOptions, root, readMode);
+	}
+
+	@Override
+	protected void createFile(final String path) throws IOException {
+		Files.createFile(root.resolve(path.substring(1)));
+	}
+
+	@Override
+	protected void createDirectory(final String path) throws IOException {
+		Files.createDirectories(root.resolve(path.substring(1)));
+	}
+
+	@Override
+	protected void dispose() throws IOException {
+		FileUtils.deleteDirectory(root.toFile());
+	}
+}
@@ -0,0 +1,132 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dokany.java.SimulatedDokany;
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.CreationDisposition;
+import com.dokany.java.examples.mirrorfs.MirrorFS;
+import com.dokany.java.examples.mirrorfs.ReadMode;
+import com.dokany.java.structure.DokanyFileInfo;
+import com.sun.jna.Memory;
+
+import lombok.Cleanup;
+import lombok.val;
+
+/**
+ * Random ReadFile and WriteFile calls at aligned offsets of a 256 MB file in a local temporary directory mirrored by {@link MirrorFS} with {@link ReadMode#CHANNEL}.
+ *
+ * channels HANDLE goes through an opened handle, so every call uses the channels cached for it; PER_CALL passes a handle MirrorFS does not know, so every call opens and closes a
+ * channel. Thread counts come from {@link BenchmarkRunner}; each thread has its own handle on the shared file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MirrorFSRandomAccessBenchmark {
+	static final String PATH = "/random.bin";
+	static final int FILE_SIZE = 256 * 1024 * 1024;
+
+	public enum Channels {
+		HANDLE, PER_CALL
+	}
+
+	@Param({ "HANDLE", "PER_CALL" })
+	Channels channels;
+
+	@Param({ "4096", "65536" })
+	int bufferSize;
+
+	Path root;
+	SimulatedDokany dokany;
+
+	@State(Scope.Thread)
+	public static class Handle {
+		MirrorFSRandomAccessBenchmark benchmark;
+		DokanyFileInfo handle;
+		Memory buffer;
+
+		@Setup(Level.Trial)
+		public void setUp(final MirrorFSRandomAccessBenchmark benchmark) {
+			this.benchmark = benchmark;
+			handle = (benchmark.channels == Channels.HANDLE) ? benchmark.dokany.open(PATH, CreationDisposition.OPEN_EXISTING, false) : new DokanyFileInfo();
+			buffer = new Memory(benchmark.bufferSize);
+			buffer.clear(benchmark.bufferSize);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			if (benchmark.channels == Channels.HANDLE) {
+				benchmark.dokany.close(PATH, handle);
+			}
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("dokany-java-jmh_");
+		fill(root.resolve(PATH.substring(1)), FILE_SIZE);
+
+		val deviceOptions = TestVolumes.deviceOptions();
+		dokany = new SimulatedDokany(deviceOptions, TestVolumes.mirrorFS(deviceOptions, root, ReadMode.CHANNEL));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(root.toFile());
+	}
+
+	/**
+	 * Writes size random bytes, so reads hit allocated blocks rather than holes.
+	 */
+	static void fill(final Path file, final long size) throws IOException {
+		@Cleanup
+		val channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		val chunk = new byte[1024 * 1024];
+		for (long offset = 0; offset < size; offset += chunk.length) {
+			ThreadLocalRandom.current().nextBytes(chunk);
+			val buffer = ByteBuffer.wrap(chunk, 0, (int) Math.min(chunk.length, size - offset));
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	private long randomOffset() {
+		return ThreadLocalRandom.current().nextInt(FILE_SIZE / bufferSize) * (long) bufferSize;
+	}
+
+	@Benchmark
+	public int randomRead(final Handle handle) {
+		return dokany.read(PATH, randomOffset(), handle.buffer, bufferSize, handle.handle);
+	}
+
+	@Benchmark
+	public int randomWrite(final Handle handle) {
+		return dokany.write(PATH, randomOffset(), handle.buffer, bufferSize, handle.handle);
+	}
+}
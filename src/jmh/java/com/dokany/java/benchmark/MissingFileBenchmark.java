@@ -0,0 +1,89 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dokany.java.DokanyException;
+import com.dokany.java.SimulatedDokany;
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.CreationDisposition;
+import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.examples.memoryfs.MemoryFS;
+
+import lombok.val;
+
+/**
+ * Probe opens as issued by Explorer: ZwCreateFile, GetFileInformation and Cleanup/CloseFile against {@link MemoryFS}, where 19 out of 20 paths do not exist.
+ *
+ * negativeCacheSize 0 makes every miss reach the file system; with the default, repeated misses are answered by the proxy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MissingFileBenchmark {
+	static final int PATH_COUNT = 20;
+
+	@Param({ "0", "1024" })
+	int negativeCacheSize;
+
+	String[] paths = new String[PATH_COUNT];
+
+	SimulatedDokany dokany;
+
+	@State(Scope.Thread)
+	public static class Cursor {
+		int next;
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		val deviceOptions = TestVolumes.deviceOptions();
+		deviceOptions.setNegativeCacheSize(negativeCacheSize);
+		val memoryFS = TestVolumes.memoryFS(deviceOptions);
+		dokany = new SimulatedDokany(deviceOptions, memoryFS);
+
+		paths[0] = "/present.txt";
+		memoryFS.createEmptyFile(paths[0], 0, TestVolumes.attributes(FileAttribute.NORMAL));
+		for (int i = 1; i < PATH_COUNT; i++) {
+			paths[i] = "/missing-" + i + ".txt";
+		}
+	}
+
+	/**
+	 *
+	 * @return status of GetFileInformation
+	 */
+	@Benchmark
+	public long probeOpen(final Cursor cursor) {
+		val path = paths[cursor.next];
+		cursor.next = (cursor.next + 1) % PATH_COUNT;
+
+		try {
+			val handle = dokany.open(path, CreationDisposition.OPEN_EXISTING, false);
+			try {
+				dokany.getFileInformation(path, handle);
+				return 0;
+			} finally {
+				dokany.close(path, handle);
+			}
+		} catch (final DokanyException e) {
+			return e.getValue();
+		}
+	}
+}
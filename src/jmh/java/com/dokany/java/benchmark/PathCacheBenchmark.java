@@ -0,0 +1,121 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dokany.java.DokanyUtils;
+import com.dokany.java.PathCache;
+import com.dokany.java.SimulatedDokany;
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.CreationDisposition;
+import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.examples.memoryfs.MemoryFS;
+import com.dokany.java.structure.ByHandleFileInfo;
+import com.dokany.java.structure.DokanyFileInfo;
+import com.sun.jna.WString;
+
+import lombok.val;
+
+/**
+ * Path normalization per callback, before and after {@link PathCache}:
+ * <ul>
+ * <li>normalizeWithStat: {@link DokanyUtils#normalize(WString)}, which stats the path on the host to decide on a tail separator, as every callback used to</li>
+ * <li>normalize: {@link PathCache#normalize(WString)}; pathCacheSize 0 is the string-only normalizer, otherwise repeated paths are cache hits</li>
+ * <li>getFileInformation: the whole GetFileInformation callback against {@link MemoryFS}, so the normalization is seen next to the rest of the callback</li>
+ * </ul>
+ * The paths are in the Windows form Dokany passes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathCacheBenchmark {
+	static final int PATH_COUNT = 64;
+
+	WString[] paths = new WString[PATH_COUNT];
+
+	@State(Scope.Thread)
+	public static class Cursor {
+		int next;
+
+		int next() {
+			val current = next;
+			next = (current + 1) % PATH_COUNT;
+			return current;
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Callbacks {
+		@Param({ "0", "4096" })
+		int pathCacheSize;
+
+		PathCache pathCache;
+		SimulatedDokany dokany;
+		String[] paths = new String[PATH_COUNT];
+		DokanyFileInfo[] handles = new DokanyFileInfo[PATH_COUNT];
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			pathCache = new PathCache(pathCacheSize);
+
+			val deviceOptions = TestVolumes.deviceOptions();
+			deviceOptions.setPathCacheSize(pathCacheSize);
+			val memoryFS = TestVolumes.memoryFS(deviceOptions);
+			dokany = new SimulatedDokany(deviceOptions, memoryFS);
+
+			val attributes = TestVolumes.attributes(FileAttribute.NORMAL);
+			for (int i = 0; i < PATH_COUNT; i++) {
+				paths[i] = "\\file-" + i + ".txt";
+				memoryFS.createEmptyFile("/file-" + i + ".txt", 0, attributes);
+				handles[i] = dokany.open(paths[i], CreationDisposition.OPEN_EXISTING, false);
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			for (int i = 0; i < PATH_COUNT; i++) {
+				dokany.close(paths[i], handles[i]);
+			}
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		for (int i = 0; i < PATH_COUNT; i++) {
+			paths[i] = new WString("\\projects\\dokany-java\\src\\file-" + i + ".txt");
+		}
+	}
+
+	@Benchmark
+	public String normalizeWithStat(final Cursor cursor) {
+		return DokanyUtils.normalize(paths[cursor.next()]);
+	}
+
+	@Benchmark
+	public String normalize(final Callbacks callbacks, final Cursor cursor) {
+		return callbacks.pathCache.normalize(paths[cursor.next()]);
+	}
+
+	@Benchmark
+	public ByHandleFileInfo getFileInformation(final Callbacks callbacks, final Cursor cursor) {
+		val i = cursor.next();
+		return callbacks.dokany.getFileInformation(callbacks.paths[i], callbacks.handles[i]);
+	}
+}
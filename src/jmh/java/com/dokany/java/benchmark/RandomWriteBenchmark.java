@@ -0,0 +1,72 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.examples.memoryfs.ContentLayout;
+import com.dokany.java.examples.memoryfs.Durability;
+import com.dokany.java.examples.memoryfs.MemoryFS;
+
+import lombok.val;
+
+/**
+ * Random 4 KB writes into a 1 GB {@link MemoryFS} file, each committed on its own ({@link Durability#WRITE_THROUGH}), per {@link ContentLayout}.
+ *
+ * The file is sized with SetEndOfFile, which is sparse with {@link ContentLayout#BLOCKS} but writes 1 GB of zeros with {@link ContentLayout#STREAM}, so setup of the latter takes
+ * a while and needs the disk space.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RandomWriteBenchmark {
+	static final String PATH = "/big.bin";
+	static final long FILE_SIZE = 1024L * 1024L * 1024L;
+	static final int WRITE_SIZE = 4096;
+
+	@Param({ "STREAM", "BLOCKS" })
+	ContentLayout contentLayout;
+
+	MemoryFS memoryFS;
+
+	@State(Scope.Thread)
+	public static class Data {
+		byte[] bytes = new byte[WRITE_SIZE];
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			ThreadLocalRandom.current().nextBytes(bytes);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		memoryFS = TestVolumes.memoryFS(TestVolumes.deviceOptions(), Durability.WRITE_THROUGH, contentLayout);
+		memoryFS.createEmptyFile(PATH, 0, TestVolumes.attributes(FileAttribute.NORMAL));
+		memoryFS.setEndOfFile(PATH, FILE_SIZE);
+	}
+
+	@Benchmark
+	public int randomWrite(final Data data) throws IOException {
+		val offset = ThreadLocalRandom.current().nextLong(FILE_SIZE / WRITE_SIZE) * WRITE_SIZE;
+		return memoryFS.write(PATH, offset, data.bytes, WRITE_SIZE);
+	}
+}
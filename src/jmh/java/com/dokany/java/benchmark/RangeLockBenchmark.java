@@ -0,0 +1,99 @@
+package com.dokany.java.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dokany.java.RangeLockManager;
+
+/**
+ * Lock and unlock of small ranges as issued by database-style clients, in files already holding heldRanges locked ranges.
+ *
+ * privateFile gives every thread its own file, which is the uncontended case; sharedFile has all threads lock disjoint ranges of one file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RangeLockBenchmark {
+	static final String SHARED_PATH = "/shared.db";
+	static final long RANGE_LENGTH = 16;
+	static final int CYCLE = 1024;
+
+	@Param({ "0", "10000" })
+	int heldRanges;
+
+	RangeLockManager rangeLocks = new RangeLockManager();
+
+	AtomicInteger threadIds = new AtomicInteger();
+
+	/**
+	 * Each thread owns one handle on its own file and one on the shared file, and uses its own slice of offsets beyond the held ranges.
+	 */
+	@State(Scope.Thread)
+	public static class Client {
+		RangeLockBenchmark benchmark;
+		String privatePath;
+		long owner;
+		long base;
+		int next;
+
+		long nextOffset() {
+			return base + ((next++ % CYCLE) * RANGE_LENGTH);
+		}
+	}
+
+	private Client ready(final Client client) {
+		if (client.benchmark == null) {
+			final int id = threadIds.incrementAndGet();
+			client.benchmark = this;
+			client.owner = id;
+			client.privatePath = "/private-" + id + ".db";
+			synchronized (this) {
+				if (id == 1) {
+					hold(SHARED_PATH);
+				}
+				hold(client.privatePath);
+			}
+			client.base = (heldRanges + (id * (long) CYCLE)) * RANGE_LENGTH;
+		}
+		return client;
+	}
+
+	/**
+	 * Locks heldRanges ranges at the start of path for an owner no client uses.
+	 */
+	private void hold(final String path) {
+		for (int i = 0; i < heldRanges; i++) {
+			rangeLocks.lock(path, i * RANGE_LENGTH, RANGE_LENGTH, 0);
+		}
+	}
+
+	@Benchmark
+	public void privateFile(final Client client) {
+		final Client ready = ready(client);
+		final long offset = ready.nextOffset();
+		rangeLocks.lock(ready.privatePath, offset, RANGE_LENGTH, ready.owner);
+		rangeLocks.unlock(ready.privatePath, offset, RANGE_LENGTH, ready.owner);
+	}
+
+	@Benchmark
+	public void sharedFile(final Client client) {
+		final Client ready = ready(client);
+		final long offset = ready.nextOffset();
+		rangeLocks.lock(SHARED_PATH, offset, RANGE_LENGTH, ready.owner);
+		rangeLocks.unlock(SHARED_PATH, offset, RANGE_LENGTH, ready.owner);
+	}
+}
@@ -0,0 +1,55 @@
+package com.dokany.java.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dokany.java.SkipFileMatcher;
+import com.sun.jna.WString;
+
+/**
+ * {@link SkipFileMatcher} against the lower case and endsWith check it replaced, over a mix of skipped and ordinary paths. Run with -prof gc to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SkipFileMatcherBenchmark {
+	SkipFileMatcher matcher = new SkipFileMatcher(SkipFileMatcher.DEFAULT_SKIP_FILE_NAMES);
+
+	WString[] paths = {
+	        new WString("\\Documents\\Projects\\dokany-java\\src\\main\\java\\Desktop.ini"),
+	        new WString("\\Documents\\Projects\\dokany-java\\src\\main\\java\\DokanyDriver.java"),
+	        new WString("\\Music\\Album\\Folder.jpg"),
+	        new WString("\\Music\\Album\\01 - Track.mp3"),
+	        new WString("\\autorun.inf"),
+	        new WString("\\"),
+	        new WString("\\Pictures\\2017\\IMG_0001.JPG"),
+	        new WString("\\Pictures\\2017\\my_desktop.ini.bak") };
+
+	@Benchmark
+	public void trie(final Blackhole blackhole) {
+		for (final WString path : paths) {
+			blackhole.consume(matcher.matches(path));
+		}
+	}
+
+	@Benchmark
+	public void lowerCaseEndsWith(final Blackhole blackhole) {
+		for (final WString path : paths) {
+			final String lower = path.toString().toLowerCase();
+			blackhole.consume(lower.endsWith("desktop.ini") || lower.endsWith("autorun.inf") || lower.endsWith("folder.jpg") || lower.endsWith("folder.gif"));
+		}
+	}
+}
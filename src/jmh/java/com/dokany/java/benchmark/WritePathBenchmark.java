@@ -0,0 +1,129 @@
+package com.dokany.java.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dokany.java.SimulatedDokany;
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.CreationDisposition;
+import com.dokany.java.examples.mirrorfs.MirrorFS;
+import com.dokany.java.examples.mirrorfs.ReadMode;
+import com.dokany.java.structure.DeviceOptions;
+import com.dokany.java.structure.DokanyFileInfo;
+import com.sun.jna.Memory;
+
+import lombok.val;
+
+/**
+ * WriteFile into a {@link MirrorFS} file through {@link com.dokany.java.DokanyOperationsProxy}, with the Dokany buffer handed to the file channel as a direct view (DIRECT) or first
+ * copied into a new byte[] as the proxy used to (COPY). Both write through the channel cached for the handle, so the difference is the allocation and the copies; the heap buffer
+ * is copied once more by {@link java.nio.channels.FileChannel} into a temporary direct buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WritePathBenchmark {
+	static final int FILE_SIZE = 64 * 1024 * 1024;
+
+	public enum WritePath {
+		COPY, DIRECT
+	}
+
+	@Param({ "COPY", "DIRECT" })
+	WritePath writePath;
+
+	@Param({ "4096", "65536", "1048576" })
+	int bufferSize;
+
+	Path root;
+	SimulatedDokany dokany;
+
+	AtomicInteger threadIds = new AtomicInteger();
+
+	/**
+	 * Restores the former WriteFile path on top of the handle channels of {@link MirrorFS}.
+	 */
+	static final class CopyingMirrorFS extends MirrorFS {
+		CopyingMirrorFS(final DeviceOptions deviceOptions, final Path root) throws IOException {
+			super(deviceOptions, TestVolumes.volumeInfo(), TestVolumes.freeSpace(), new Date(), root.toString(), ReadMode.CHANNEL, DEFAULT_MAP_WINDOW_SIZE,
+			        DEFAULT_MAX_MAPPED_WINDOWS);
+		}
+
+		@Override
+		public int write(final String path, final long offset, final ByteBuffer src, final DokanyFileInfo dokanyFileInfo) throws IOException {
+			val data = new byte[src.remaining()];
+			src.get(data);
+			return super.write(path, offset, ByteBuffer.wrap(data), dokanyFileInfo);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Handle {
+		WritePathBenchmark benchmark;
+		String path;
+		DokanyFileInfo handle;
+		Memory buffer;
+		long position;
+
+		@Setup(Level.Trial)
+		public void setUp(final WritePathBenchmark benchmark) throws IOException {
+			this.benchmark = benchmark;
+			path = "/write-" + benchmark.threadIds.getAndIncrement() + ".bin";
+			Files.createFile(benchmark.root.resolve(path.substring(1)));
+			handle = benchmark.dokany.open(path, CreationDisposition.OPEN_EXISTING, false);
+			buffer = new Memory(benchmark.bufferSize);
+			buffer.clear(benchmark.bufferSize);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			benchmark.dokany.close(path, handle);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("dokany-java-jmh_");
+		val deviceOptions = TestVolumes.deviceOptions();
+		val mirrorFS = (writePath == WritePath.COPY) ? new CopyingMirrorFS(deviceOptions, root) : TestVolumes.mirrorFS(deviceOptions, root, ReadMode.CHANNEL);
+		dokany = new SimulatedDokany(deviceOptions, mirrorFS);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(root.toFile());
+	}
+
+	/**
+	 * Walks the file of the thread in bufferSize steps, wrapping at {@link #FILE_SIZE}.
+	 */
+	@Benchmark
+	public int writeFile(final Handle handle) {
+		val offset = handle.position;
+		handle.position = (offset + bufferSize) % FILE_SIZE;
+		return dokany.write(handle.path, offset, handle.buffer, bufferSize, handle.handle);
+	}
+}
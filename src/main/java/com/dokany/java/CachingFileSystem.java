@@ -0,0 +1,498 @@
+package com.dokany.java;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.structure.DeviceOptions;
+import com.dokany.java.structure.DokanyFileInfo;
+import com.dokany.java.structure.EnumIntegerSet;
+import com.dokany.java.structure.FileData;
+import com.dokany.java.structure.FullFileInfo;
+import com.sun.jna.platform.win32.WinBase.FILETIME;
+import com.sun.jna.platform.win32.WinBase.WIN32_FIND_DATA;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Decorator for any {@link DokanyFileSystem} which caches {@link #getInfo(String)} per path, so the frequent GetFileInformation callbacks skip the backing store.
+ *
+ * Entries expire after a fixed time to live and the least recently used entry is evicted once the cache is full. Every operation going through this decorator which can change
+ * the information of a path invalidates it; changes made to the backing store behind its back are only seen once the entry expires.
+ *
+ * Each invalidation bumps a generation, striped by path, and a lookup only caches what the delegate returned if the generation of its path did not change meanwhile, so
+ * information read before a change cannot be cached after the change invalidated it. The cache keeps its own copy of each info and hands out copies.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class CachingFileSystem extends DokanyFileSystem {
+	public static final int DEFAULT_MAX_SIZE = 4096;
+	public static final long DEFAULT_TTL_MILLIS = 1000;
+
+	private static final int GENERATION_STRIPES = 64;
+
+	@Getter
+	DokanyFileSystem delegate;
+
+	@Getter
+	int maxSize;
+
+	long ttlNanos;
+
+	Map<String, CachedInfo> infos;
+
+	/**
+	 * Invalidations per stripe of paths; only changed while holding the lock of {@link #infos}.
+	 */
+	AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+	LongAdder hits = new LongAdder();
+	LongAdder misses = new LongAdder();
+
+	@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+	private static final class CachedInfo {
+		FullFileInfo info;
+		long expiresAt;
+
+		CachedInfo(final FullFileInfo info, final long expiresAt) {
+			this.info = info;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	public CachingFileSystem(@NonNull final DeviceOptions deviceOptions, @NonNull final DokanyFileSystem delegate) {
+		this(deviceOptions, delegate, DEFAULT_MAX_SIZE, DEFAULT_TTL_MILLIS);
+	}
+
+	/**
+	 *
+	 * @param deviceOptions
+	 * @param delegate file system to cache
+	 * @param maxSize maximum number of cached paths
+	 * @param ttlMillis how long cached information is used
+	 */
+	public CachingFileSystem(@NonNull final DeviceOptions deviceOptions, @NonNull final DokanyFileSystem delegate, final int maxSize, final long ttlMillis) {
+		super(deviceOptions, delegate.getVolumeInfo(), delegate.getFreeSpace(), delegate.getRootCreationDate(), delegate.getRoot());
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+		}
+		this.delegate = delegate;
+		this.maxSize = maxSize;
+		ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		infos = new LinkedHashMap<String, CachedInfo>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, CachedInfo> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Handles are shared with the delegate so attachments it makes are seen by both.
+	 */
+	@Override
+	public FileHandleRegistry getHandles() {
+		return delegate.getHandles();
+	}
+
+	/**
+	 * Range locks are shared with the delegate, as the proxy releases them on Cleanup.
+	 */
+	@Override
+	public RangeLockManager getRangeLocks() {
+		return delegate.getRangeLocks();
+	}
+
+	/**
+	 *
+	 * @return copy of the cached info of path, so callers may change it
+	 */
+	@Override
+	public FullFileInfo getInfo(@NonNull final String path) throws IOException {
+		val now = System.nanoTime();
+		CachedInfo cached;
+		synchronized (infos) {
+			cached = infos.get(path);
+		}
+		if (Objects.nonNull(cached) && ((cached.expiresAt - now) > 0)) {
+			hits.increment();
+			return cached.info.copy();
+		}
+
+		misses.increment();
+		val stripe = stripe(path);
+		val generation = generations.get(stripe);
+		val info = delegate.getInfo(path);
+		if (Objects.nonNull(info)) {
+			val copy = info.copy();
+			synchronized (infos) {
+				// an invalidation since the lookup started means info may predate it
+				if (generations.get(stripe) == generation) {
+					infos.put(path, new CachedInfo(copy, now + ttlNanos));
+				}
+			}
+		}
+		return info;
+	}
+
+	private static int stripe(final String path) {
+		return path.hashCode() & (GENERATION_STRIPES - 1);
+	}
+
+	/**
+	 * Removes path from the cache.
+	 *
+	 * @param path
+	 */
+	public void invalidate(@NonNull final String path) {
+		synchronized (infos) {
+			infos.remove(path);
+			generations.incrementAndGet(stripe(path));
+		}
+	}
+
+	/**
+	 * Removes path and everything below it from the cache.
+	 *
+	 * @param path
+	 */
+	public void invalidateTree(@NonNull final String path) {
+		val prefix = DokanyUtils.trimTailSeparator(path) + DokanyUtils.UNIX_SEPARATOR;
+		synchronized (infos) {
+			infos.remove(path);
+			infos.keySet().removeIf(key -> key.startsWith(prefix));
+			invalidateGenerations();
+		}
+	}
+
+	/**
+	 * Empties the cache.
+	 */
+	public void invalidateAll() {
+		synchronized (infos) {
+			infos.clear();
+			invalidateGenerations();
+		}
+	}
+
+	/**
+	 * Paths below a tree can be in any stripe. Caller must hold the lock of {@link #infos}.
+	 */
+	private void invalidateGenerations() {
+		for (int i = 0; i < GENERATION_STRIPES; i++) {
+			generations.incrementAndGet(i);
+		}
+	}
+
+	/**
+	 *
+	 * @return number of cached paths, including expired ones not evicted yet
+	 */
+	public int size() {
+		synchronized (infos) {
+			return infos.size();
+		}
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 *
+	 * @return hits / (hits + misses) or 0 if nothing was looked up yet
+	 */
+	public double getHitRate() {
+		val hitCount = hits.sum();
+		val total = hitCount + misses.sum();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+
+	@Override
+	public void mounted() throws IOException {
+		delegate.mounted();
+	}
+
+	@Override
+	public void unmounted() throws IOException {
+		invalidateAll();
+		delegate.unmounted();
+	}
+
+	@Override
+	public boolean doesPathExist(@NonNull final String path) throws IOException {
+		synchronized (infos) {
+			val cached = infos.get(path);
+			if (Objects.nonNull(cached) && ((cached.expiresAt - System.nanoTime()) > 0)) {
+				return true;
+			}
+		}
+		return delegate.doesPathExist(path);
+	}
+
+	@Override
+	public Set<WIN32_FIND_DATA> findFilesWithPattern(@NonNull final String pathToSearch, @NonNull final DokanyFileInfo dokanyFileInfo, final String pattern) throws IOException {
+		return delegate.findFilesWithPattern(pathToSearch, dokanyFileInfo, pattern);
+	}
+
+	@Override
+	public void findFilesWithPattern(@NonNull final String pathToSearch, @NonNull final DokanyFileInfo dokanyFileInfo, final String pattern, @NonNull final FindDataSink sink)
+	        throws IOException {
+		delegate.findFilesWithPattern(pathToSearch, dokanyFileInfo, pattern, sink);
+	}
+
+	@Override
+	public Set<Win32FindStreamData> findStreams(@NonNull final String pathToSearch) throws IOException {
+		return delegate.findStreams(pathToSearch);
+	}
+
+	@Override
+	public void unlock(@NonNull final String path, final int offset, final int length) throws IOException {
+		delegate.unlock(path, offset, length);
+	}
+
+	@Override
+	public void unlock(@NonNull final String path, final long offset, final long length) throws IOException {
+		delegate.unlock(path, offset, length);
+	}
+
+	@Override
+	public void unlock(@NonNull final String path, final long offset, final long length, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		delegate.unlock(path, offset, length, dokanyFileInfo);
+	}
+
+	@Override
+	public void lock(@NonNull final String path, final int offset, final int length) throws IOException {
+		delegate.lock(path, offset, length);
+	}
+
+	@Override
+	public void lock(@NonNull final String path, final long offset, final long length) throws IOException {
+		delegate.lock(path, offset, length);
+	}
+
+	@Override
+	public void lock(@NonNull final String path, final long offset, final long length, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		delegate.lock(path, offset, length, dokanyFileInfo);
+	}
+
+	@Override
+	public void move(@NonNull final String oldPath, @NonNull final String newPath, final boolean replaceIfExisting) throws IOException {
+		try {
+			delegate.move(oldPath, newPath, replaceIfExisting);
+		} finally {
+			invalidateTree(oldPath);
+			invalidateTree(newPath);
+		}
+	}
+
+	@Override
+	public void deleteFile(@NonNull final String path, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		try {
+			delegate.deleteFile(path, dokanyFileInfo);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public void deleteDirectory(@NonNull final String path, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		try {
+			delegate.deleteDirectory(path, dokanyFileInfo);
+		} finally {
+			invalidateTree(path);
+		}
+	}
+
+	@Override
+	public FileData read(@NonNull final String path, final int offset, final int readLength) throws IOException {
+		return delegate.read(path, offset, readLength);
+	}
+
+	@Override
+	public FileData read(@NonNull final String path, final long offset, final int readLength) throws IOException {
+		return delegate.read(path, offset, readLength);
+	}
+
+	@Override
+	public int read(@NonNull final String path, final long offset, @NonNull final ByteBuffer dst, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		return delegate.read(path, offset, dst, dokanyFileInfo);
+	}
+
+	@Override
+	public int write(@NonNull final String path, final int offset, final byte[] data, final int writeLength) throws IOException {
+		try {
+			return delegate.write(path, offset, data, writeLength);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public int write(@NonNull final String path, final long offset, final byte[] data, final int writeLength) throws IOException {
+		try {
+			return delegate.write(path, offset, data, writeLength);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public int write(@NonNull final String path, final long offset, @NonNull final ByteBuffer src, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		try {
+			return delegate.write(path, offset, src, dokanyFileInfo);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public void createEmptyFile(final String path, final long options, final EnumIntegerSet<FileAttribute> attributes) throws IOException {
+		try {
+			delegate.createEmptyFile(path, options, attributes);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public void createEmptyDirectory(@NonNull final String path, final long options, @NonNull final EnumIntegerSet<FileAttribute> attributes) throws IOException {
+		try {
+			delegate.createEmptyDirectory(path, options, attributes);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public void flushFileBuffers(@NonNull final String path) throws IOException {
+		delegate.flushFileBuffers(path);
+	}
+
+	/**
+	 * Invalidates path, since file systems may delete it here if it was opened with delete on close.
+	 */
+	@Override
+	public void cleanup(@NonNull final String path, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		try {
+			delegate.cleanup(path, dokanyFileInfo);
+		} finally {
+			if (dokanyFileInfo.deleteOnClose()) {
+				invalidateTree(path);
+			}
+		}
+	}
+
+	@Override
+	public void close(@NonNull final String path, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		delegate.close(path, dokanyFileInfo);
+	}
+
+	@Override
+	public int getSecurity(@NonNull final String path, final int kind, @NonNull final byte[] out) throws IOException {
+		return delegate.getSecurity(path, kind, out);
+	}
+
+	@Override
+	public void setSecurity(@NonNull final String path, final int kind, @NonNull final byte[] data) throws IOException {
+		delegate.setSecurity(path, kind, data);
+	}
+
+	@Override
+	public long truncate(@NonNull final String path) throws IOException {
+		try {
+			return delegate.truncate(path);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public void setAllocationSize(@NonNull final String path, final int length) throws IOException {
+		try {
+			delegate.setAllocationSize(path, length);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public void setAllocationSize(@NonNull final String path, final long length) throws IOException {
+		try {
+			delegate.setAllocationSize(path, length);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public void setAllocationSize(@NonNull final String path, final long length, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		try {
+			delegate.setAllocationSize(path, length, dokanyFileInfo);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public void setEndOfFile(@NonNull final String path, final int offset) throws IOException {
+		try {
+			delegate.setEndOfFile(path, offset);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public void setEndOfFile(@NonNull final String path, final long offset) throws IOException {
+		try {
+			delegate.setEndOfFile(path, offset);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public void setEndOfFile(@NonNull final String path, final long offset, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		try {
+			delegate.setEndOfFile(path, offset, dokanyFileInfo);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public void setAttributes(@NonNull final String path, final EnumIntegerSet<FileAttribute> attributes) throws IOException {
+		try {
+			delegate.setAttributes(path, attributes);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public void setTime(@NonNull final String path, @NonNull final FILETIME creation, @NonNull final FILETIME lastAccess, @NonNull final FILETIME lastModification)
+	        throws IOException {
+		try {
+			delegate.setTime(path, creation, lastAccess, lastModification);
+		} finally {
+			invalidate(path);
+		}
+	}
+}
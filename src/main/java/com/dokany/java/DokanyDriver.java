@@ -21,11 +21,14 @@ public final class DokanyDriver {
 	DeviceOptions deviceOptions;
 	@NonNull
 	DokanyFileSystem fileSystem;
+	@NonNull
+	DokanyOperationsProxy operations;
 
 	public DokanyDriver(@NonNull final DeviceOptions deviceOptions, @NonNull final DokanyFileSystem fileSystem) {
 
 		this.deviceOptions = deviceOptions;
 		this.fileSystem = fileSystem;
+		operations = new DokanyOperationsProxy(deviceOptions, fileSystem);
 
 		log.info("Dokany version: {}", getVersion());
 		log.info("Dokany driver version: {}", getDriverVersion());
@@ -62,12 +65,32 @@ public final class DokanyDriver {
 		return fileSystem;
 	}
 
+	/**
+	 * Get cache of normalized paths used by the callbacks, for example to read its hit rate.
+	 *
+	 * @return
+	 */
+	@NonNull
+	public PathCache getPathCache() {
+		return operations.getPathCache();
+	}
+
+	/**
+	 * Get cache of paths recently reported as not found, for example to read how many probes it answered.
+	 *
+	 * @return
+	 */
+	@NonNull
+	public NegativeLookupCache getNegativeLookupCache() {
+		return operations.getNegativeLookups();
+	}
+
 	/**
 	 * Calls {@link com.dokany.java.NativeMethods#DokanMain(DeviceOptions, Operations)}. Has {@link java.lang.Runtime#addShutdownHook(Thread)} which calls {@link #shutdown()}
 	 */
 	public void start() {
 		try {
-			val mountStatus = NativeMethods.DokanMain(deviceOptions, new DokanyOperationsProxy(fileSystem));
+			val mountStatus = NativeMethods.DokanMain(deviceOptions, operations);
 
 			if (mountStatus < 0) {
 				throw new IllegalStateException(MountError.fromInt(mountStatus).getDescription());
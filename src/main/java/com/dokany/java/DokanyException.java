@@ -3,6 +3,7 @@ package com.dokany.java;
 import java.io.IOException;
 
 import com.dokany.java.constants.ErrorCode;
+import com.dokany.java.constants.NtStatus;
 import com.dokany.java.constants.WinError;
 
 import lombok.AccessLevel;
@@ -15,6 +16,21 @@ import lombok.experimental.FieldDefaults;
 public final class DokanyException extends RuntimeException {
 	long serialVersionUID = -862591089502909563L;
 
+	/**
+	 * Shared {@link ErrorCode#ERROR_FILE_NOT_FOUND} without stack trace, for file systems to throw on the routine misses of probing opens.
+	 */
+	public static final DokanyException FILE_NOT_FOUND = withoutStackTrace(ErrorCode.ERROR_FILE_NOT_FOUND.getMask());
+
+	/**
+	 * Shared {@link ErrorCode#ERROR_ALREADY_EXISTS} without stack trace.
+	 */
+	public static final DokanyException ALREADY_EXISTS = withoutStackTrace(ErrorCode.ERROR_ALREADY_EXISTS.getMask());
+
+	/**
+	 * Shared {@link NtStatus#DIRECTORY_NOT_EMPTY} without stack trace.
+	 */
+	public static final DokanyException DIRECTORY_NOT_EMPTY = withoutStackTrace(NtStatus.DIRECTORY_NOT_EMPTY.getMask());
+
 	int value;
 
 	public DokanyException(final long errorCode, final IOException exception) {
@@ -24,6 +40,22 @@ public final class DokanyException extends RuntimeException {
 		value = (int) errorCode;
 	}
 
+	private DokanyException(final int value, final boolean writableStackTrace) {
+		super(null, null, false, writableStackTrace);
+		this.value = value;
+	}
+
+	/**
+	 * Creates an exception which only carries status. No stack trace is captured and suppression is disabled, so it is cheap to create and instances can be shared between
+	 * threads.
+	 *
+	 * @param status NTSTATUS or error code; only the low 32 bits are kept, so NTSTATUS values stored as negative ints are accepted
+	 * @return exception for status
+	 */
+	public static DokanyException withoutStackTrace(final long status) {
+		return new DokanyException((int) status, false);
+	}
+
 	public DokanyException(final WinError errorCode, final IOException exception) {
 		this(errorCode.getMask(), exception);
 	}
@@ -1,11 +1,13 @@
 package com.dokany.java;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Date;
 import java.util.Set;
 
 import com.dokany.java.constants.FileAttribute;
 import com.dokany.java.constants.MountOption;
+import com.dokany.java.structure.ByHandleFileInfo;
 import com.dokany.java.structure.DeviceOptions;
 import com.dokany.java.structure.DokanyFileInfo;
 import com.dokany.java.structure.EnumIntegerSet;
@@ -19,6 +21,7 @@ import com.sun.jna.platform.win32.WinBase.WIN32_FIND_DATA;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NonNull;
+import lombok.val;
 import lombok.experimental.FieldDefaults;
 
 /**
@@ -41,6 +44,10 @@ public abstract class DokanyFileSystem {
 	String root;
 	boolean isDebug;
 	boolean isDebugStdErr;
+	@NonNull
+	FileHandleRegistry handles = new FileHandleRegistry();
+	@NonNull
+	RangeLockManager rangeLocks = new RangeLockManager();
 
 	public DokanyFileSystem(
 	        @NonNull final DeviceOptions deviceOptions,
@@ -70,6 +77,25 @@ public abstract class DokanyFileSystem {
 
 	public abstract Set<WIN32_FIND_DATA> findFilesWithPattern(@NonNull final String pathToSearch, @NonNull DokanyFileInfo dokanyFileInfo, final String pattern) throws IOException;
 
+	/**
+	 * Pushes every entry of pathToSearch matching pattern into sink as it is found, so large directories are listed with constant memory.
+	 *
+	 * Default implementation calls {@link #findFilesWithPattern(String, DokanyFileInfo, String)} and pushes the returned set.
+	 *
+	 * @param pathToSearch
+	 * @param dokanyFileInfo
+	 * @param pattern may be null
+	 * @param sink
+	 * @throws IOException
+	 */
+	public void findFilesWithPattern(
+	        @NonNull final String pathToSearch,
+	        @NonNull final DokanyFileInfo dokanyFileInfo,
+	        final String pattern,
+	        @NonNull final FindDataSink sink) throws IOException {
+		findFilesWithPattern(pathToSearch, dokanyFileInfo, pattern).forEach(sink::accept);
+	}
+
 	public abstract Set<Win32FindStreamData> findStreams(@NonNull final String pathToSearch) throws IOException;
 
 	/**
@@ -77,11 +103,40 @@ public abstract class DokanyFileSystem {
 	 */
 	public abstract void unlock(@NonNull final String path, final int offset, final int length) throws IOException;
 
+	/**
+	 * Only used if dokan option UserModeLock is enabled. Default implementation calls {@link #unlock(String, int, int)} if the range fits in an int.
+	 */
+	public void unlock(@NonNull final String path, final long offset, final long length) throws IOException {
+		unlock(path, Math.toIntExact(offset), Math.toIntExact(length));
+	}
+
+	/**
+	 * Only used if dokan option UserModeLock is enabled. Default implementation calls {@link #unlock(String, long, long)}.
+	 */
+	public void unlock(@NonNull final String path, final long offset, final long length, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		unlock(path, offset, length);
+	}
+
 	/**
 	 * Only used if dokan option UserModeLock is enabled
 	 */
 	public abstract void lock(@NonNull final String path, final int offset, final int length) throws IOException;
 
+	/**
+	 * Only used if dokan option UserModeLock is enabled. Default implementation calls {@link #lock(String, int, int)} if the range fits in an int.
+	 */
+	public void lock(@NonNull final String path, final long offset, final long length) throws IOException {
+		lock(path, Math.toIntExact(offset), Math.toIntExact(length));
+	}
+
+	/**
+	 * Only used if dokan option UserModeLock is enabled. Default implementation calls {@link #lock(String, long, long)}; file systems can instead lock the range in
+	 * {@link #getRangeLocks()} for the handle of dokanyFileInfo, whose ranges are then released on Cleanup.
+	 */
+	public void lock(@NonNull final String path, final long offset, final long length, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		lock(path, offset, length);
+	}
+
 	public abstract void move(@NonNull final String oldPath, @NonNull final String newPath, final boolean replaceIfExisting) throws IOException;
 
 	public abstract void deleteFile(@NonNull final String path, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException;
@@ -90,8 +145,76 @@ public abstract class DokanyFileSystem {
 
 	public abstract FileData read(@NonNull final String path, final int offset, final int readLength) throws IOException;
 
+	/**
+	 * Reads from a 64-bit offset. Default implementation calls {@link #read(String, int, int)} if offset fits in an int and fails otherwise instead of reading from the wrong
+	 * position; file systems supporting files larger than 2 GB should override it.
+	 *
+	 * @param path
+	 * @param offset
+	 * @param readLength
+	 * @return data read
+	 * @throws IOException
+	 */
+	public FileData read(@NonNull final String path, final long offset, final int readLength) throws IOException {
+		return read(path, Math.toIntExact(offset), readLength);
+	}
+
+	/**
+	 * Reads file contents straight into dst, which is a direct view of the Dokany buffer. At most dst.remaining() bytes are read.
+	 *
+	 * Default implementation adapts {@link #read(String, int, int)} so existing file systems keep working; override it to avoid the intermediate byte[] and copy.
+	 *
+	 * @param path
+	 * @param offset position in the file to start reading from
+	 * @param dst buffer to fill starting at its current position
+	 * @param dokanyFileInfo
+	 * @return number of bytes read
+	 * @throws IOException
+	 */
+	public int read(@NonNull final String path, final long offset, @NonNull final ByteBuffer dst, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		val data = read(path, offset, dst.remaining());
+		val numRead = Math.max(0, data.getLength());
+		dst.put(data.getBytes(), 0, numRead);
+		return numRead;
+	}
+
 	public abstract int write(@NonNull final String path, final int offset, final byte[] data, final int writeLength) throws IOException;
 
+	/**
+	 * Writes at a 64-bit offset. Default implementation calls {@link #write(String, int, byte[], int)} if offset fits in an int and fails otherwise instead of writing to the wrong
+	 * position; file systems supporting files larger than 2 GB should override it.
+	 *
+	 * @param path
+	 * @param offset
+	 * @param data
+	 * @param writeLength
+	 * @return number of bytes written
+	 * @throws IOException
+	 */
+	public int write(@NonNull final String path, final long offset, final byte[] data, final int writeLength) throws IOException {
+		return write(path, Math.toIntExact(offset), data, writeLength);
+	}
+
+	/**
+	 * Writes file contents straight from src, which is a read-only direct view of the Dokany buffer. NIO based file systems can hand it to
+	 * {@link java.nio.channels.FileChannel#write(ByteBuffer, long)} as is.
+	 *
+	 * Default implementation copies src into a byte[] and calls {@link #write(String, int, byte[], int)} so existing file systems keep working.
+	 *
+	 * @param path
+	 * @param offset position in the file to start writing at
+	 * @param src bytes to write, from its current position to its limit
+	 * @param dokanyFileInfo
+	 * @return number of bytes written
+	 * @throws IOException
+	 */
+	public int write(@NonNull final String path, final long offset, @NonNull final ByteBuffer src, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		val writeLength = src.remaining();
+		val data = new byte[writeLength];
+		src.get(data);
+		return write(path, offset, data, writeLength);
+	}
+
 	// TODO: Add SecurityContext and ShareAccess and DesiredAccess
 	public abstract void createEmptyFile(final String path, long options, final EnumIntegerSet<FileAttribute> attributes) throws IOException;
 
@@ -112,11 +235,53 @@ public abstract class DokanyFileSystem {
 
 	public abstract void setAllocationSize(@NonNull final String path, final int length) throws IOException;
 
+	/**
+	 * Default implementation calls {@link #setAllocationSize(String, int)} if length fits in an int.
+	 */
+	public void setAllocationSize(@NonNull final String path, final long length) throws IOException {
+		setAllocationSize(path, Math.toIntExact(length));
+	}
+
+	/**
+	 * Default implementation calls {@link #setAllocationSize(String, long)}; file systems which keep state for the handle of dokanyFileInfo can drop it here.
+	 */
+	public void setAllocationSize(@NonNull final String path, final long length, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		setAllocationSize(path, length);
+	}
+
 	public abstract void setEndOfFile(@NonNull final String path, final int offset) throws IOException;
 
+	/**
+	 * Default implementation calls {@link #setEndOfFile(String, int)} if offset fits in an int.
+	 */
+	public void setEndOfFile(@NonNull final String path, final long offset) throws IOException {
+		setEndOfFile(path, Math.toIntExact(offset));
+	}
+
+	/**
+	 * Default implementation calls {@link #setEndOfFile(String, long)}; file systems which keep state for the handle of dokanyFileInfo can drop it here.
+	 */
+	public void setEndOfFile(@NonNull final String path, final long offset, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		setEndOfFile(path, offset);
+	}
+
 	public abstract void setAttributes(@NonNull final String path, @NonNull final EnumIntegerSet<FileAttribute> attributes) throws IOException;
 
 	public abstract FullFileInfo getInfo(@NonNull final String path) throws IOException;
 
+	/**
+	 * Fills info, the structure GetFileInformation has to return, with the information of path. File systems which can write it in place should override this to skip the
+	 * intermediate {@link FullFileInfo}.
+	 *
+	 * Default implementation copies the result of {@link #getInfo(String)} into info.
+	 *
+	 * @param path
+	 * @param info structure to fill
+	 * @throws IOException
+	 */
+	public void getInfo(@NonNull final String path, @NonNull final ByHandleFileInfo info) throws IOException {
+		getInfo(path).copyTo(info);
+	}
+
 	public abstract void setTime(@NonNull final String path, @NonNull final FILETIME creation, @NonNull final FILETIME lastAccess, @NonNull final FILETIME lastModification) throws IOException;
 }
\ No newline at end of file
@@ -5,16 +5,21 @@ import static com.dokany.java.constants.ErrorCode.ERROR_READ_FAULT;
 import static com.dokany.java.constants.ErrorCode.ERROR_WRITE_FAULT;
 import static com.dokany.java.constants.WinError.ERROR_NOT_SUPPORTED;
 
+import java.util.Objects;
+
 import com.dokany.java.constants.CreationDisposition;
 import com.dokany.java.constants.ErrorCode;
 import com.dokany.java.constants.FileAttribute;
 import com.dokany.java.constants.NtStatus;
+import com.dokany.java.metrics.Operation;
+import com.dokany.java.metrics.OperationRecorder;
 import com.dokany.java.structure.ByHandleFileInfo;
+import com.dokany.java.structure.DeviceOptions;
 import com.dokany.java.structure.DokanyFileInfo;
 import com.dokany.java.structure.EnumIntegerSet;
-import com.dokany.java.structure.FileData;
 import com.dokany.java.structure.FreeSpace;
 import com.dokany.java.structure.VolumeInformation;
+import com.sun.jna.Platform;
 import com.sun.jna.Pointer;
 import com.sun.jna.WString;
 import com.sun.jna.platform.win32.Kernel32;
@@ -36,13 +41,31 @@ final class DokanyOperationsProxy extends DokanyOperations {
 	final DokanyFileSystem fileSystem;
 	final VolumeInformation volumeInfo;
 	final FreeSpace freeSpace;
+	final PathCache pathCache;
+	final NegativeLookupCache negativeLookups;
+	final SkipFileMatcher skipFiles;
+
+	// checked once per mount so disabled logging costs a field read and no argument boxing on every callback
+	final boolean isDebugEnabled = log.isDebugEnabled();
+	final boolean isTraceEnabled = log.isTraceEnabled();
 
 	public final static int MAX_PATH = 260;
 
-	DokanyOperationsProxy(@NonNull final DokanyFileSystem fileSystem) {
+	// Kernel create dispositions ZwCreateFile receives (wdm.h), not the Win32 values of CreationDisposition
+	static final int FILE_SUPERSEDE = 0;
+	static final int FILE_OPEN = 1;
+	static final int FILE_CREATE = 2;
+	static final int FILE_OPEN_IF = 3;
+	static final int FILE_OVERWRITE = 4;
+	static final int FILE_OVERWRITE_IF = 5;
+
+	DokanyOperationsProxy(@NonNull final DeviceOptions deviceOptions, @NonNull final DokanyFileSystem fileSystem) {
 		this.fileSystem = fileSystem;
 		volumeInfo = fileSystem.getVolumeInfo();
 		freeSpace = fileSystem.getFreeSpace();
+		pathCache = new PathCache(deviceOptions.getPathCacheSize());
+		skipFiles = new SkipFileMatcher(deviceOptions.getSkipFileNames());
+		negativeLookups = new NegativeLookupCache(deviceOptions.getNegativeCacheSize(), deviceOptions.getNegativeCacheTtlMillis());
 
 		ZwCreateFile = new ZwCreateFile();
 		CloseFile = new CloseFile();
@@ -69,6 +92,184 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		GetFileSecurity = new GetFileSecurity();
 		SetFileSecurity = new SetFileSecurity();
 		FindStreams = new FindStreams();
+
+		val recorder = deviceOptions.getOperationRecorder();
+		if (Objects.nonNull(recorder)) {
+			intercept(recorder);
+		}
+	}
+
+	/**
+	 * Wraps every callback so its latency, result and transferred bytes reach recorder. Only done when a recorder is configured, so mounts without one are not timed at all.
+	 */
+	private void intercept(@NonNull final OperationRecorder recorder) {
+		final DokanyOperations.ZwCreateFile zwCreateFile = ZwCreateFile;
+		ZwCreateFile = (path, securityContext, rawDesiredAccess, rawFileAttributes, rawShareAccess, rawCreateDisposition, rawCreateOptions, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			final long status = zwCreateFile.callback(path, securityContext, rawDesiredAccess, rawFileAttributes, rawShareAccess, rawCreateDisposition, rawCreateOptions,
+			        dokanyFileInfo);
+			return record(recorder, Operation.ZW_CREATE_FILE, start, status, 0);
+		};
+
+		final DokanyOperations.Cleanup cleanup = Cleanup;
+		Cleanup = (path, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			cleanup.callback(path, dokanyFileInfo);
+			record(recorder, Operation.CLEANUP, start, ErrorCode.SUCCESS.getMask(), 0);
+		};
+
+		final DokanyOperations.CloseFile closeFile = CloseFile;
+		CloseFile = (path, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			closeFile.callback(path, dokanyFileInfo);
+			record(recorder, Operation.CLOSE_FILE, start, ErrorCode.SUCCESS.getMask(), 0);
+		};
+
+		final DokanyOperations.ReadFile readFile = ReadFile;
+		ReadFile = (path, buffer, bufferLength, readLengthRef, offset, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			final long status = readFile.callback(path, buffer, bufferLength, readLengthRef, offset, dokanyFileInfo);
+			return record(recorder, Operation.READ_FILE, start, status, readLengthRef.getValue());
+		};
+
+		final DokanyOperations.WriteFile writeFile = WriteFile;
+		WriteFile = (path, buffer, numberOfBytesToWrite, numberOfBytesWritten, offset, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			final long status = writeFile.callback(path, buffer, numberOfBytesToWrite, numberOfBytesWritten, offset, dokanyFileInfo);
+			return record(recorder, Operation.WRITE_FILE, start, status, numberOfBytesWritten.getValue());
+		};
+
+		final DokanyOperations.FlushFileBuffers flushFileBuffers = FlushFileBuffers;
+		FlushFileBuffers = (path, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.FLUSH_FILE_BUFFERS, start, flushFileBuffers.callback(path, dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.GetFileInformation getFileInformation = GetFileInformation;
+		GetFileInformation = (path, info, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.GET_FILE_INFORMATION, start, getFileInformation.callback(path, info, dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.FindFiles findFiles = FindFiles;
+		FindFiles = (path, rawFillFindData, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.FIND_FILES, start, findFiles.callback(path, rawFillFindData, dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.FindFilesWithPattern findFilesWithPattern = FindFilesWithPattern;
+		FindFilesWithPattern = (path, searchPattern, rawFillFindData, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.FIND_FILES_WITH_PATTERN, start, findFilesWithPattern.callback(path, searchPattern, rawFillFindData, dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.SetFileAttributes setFileAttributes = SetFileAttributes;
+		SetFileAttributes = (path, rawAttributes, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.SET_FILE_ATTRIBUTES, start, setFileAttributes.callback(path, rawAttributes, dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.SetFileTime setFileTime = SetFileTime;
+		SetFileTime = (path, creationTime, lastAccessTime, lastWriteTime, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.SET_FILE_TIME, start, setFileTime.callback(path, creationTime, lastAccessTime, lastWriteTime, dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.DeleteFile deleteFile = DeleteFile;
+		DeleteFile = (path, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.DELETE_FILE, start, deleteFile.callback(path, dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.DeleteDirectory deleteDirectory = DeleteDirectory;
+		DeleteDirectory = (path, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.DELETE_DIRECTORY, start, deleteDirectory.callback(path, dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.MoveFile moveFile = MoveFile;
+		MoveFile = (oldPath, newPath, replaceIfExisting, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.MOVE_FILE, start, moveFile.callback(oldPath, newPath, replaceIfExisting, dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.SetEndOfFile setEndOfFile = SetEndOfFile;
+		SetEndOfFile = (path, offset, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.SET_END_OF_FILE, start, setEndOfFile.callback(path, offset, dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.SetAllocationSize setAllocationSize = SetAllocationSize;
+		SetAllocationSize = (path, length, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.SET_ALLOCATION_SIZE, start, setAllocationSize.callback(path, length, dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.LockFile lockFile = LockFile;
+		LockFile = (path, offset, length, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.LOCK_FILE, start, lockFile.callback(path, offset, length, dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.UnlockFile unlockFile = UnlockFile;
+		UnlockFile = (path, offset, length, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.UNLOCK_FILE, start, unlockFile.callback(path, offset, length, dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.GetDiskFreeSpace getDiskFreeSpace = GetDiskFreeSpace;
+		GetDiskFreeSpace = (freeBytesAvailable, totalNumberOfBytes, totalNumberOfFreeBytes, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.GET_DISK_FREE_SPACE, start, getDiskFreeSpace.callback(freeBytesAvailable, totalNumberOfBytes, totalNumberOfFreeBytes, dokanyFileInfo),
+			        0);
+		};
+
+		final DokanyOperations.GetVolumeInformation getVolumeInformation = GetVolumeInformation;
+		GetVolumeInformation = (volumeNameBuffer, volumeNameSize, volumeSerialNumber, maximumComponentLength, fileSystemFlags, fileSystemNameBuffer, fileSystemNameSize,
+		        dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			final long status = getVolumeInformation.callback(volumeNameBuffer, volumeNameSize, volumeSerialNumber, maximumComponentLength, fileSystemFlags,
+			        fileSystemNameBuffer, fileSystemNameSize, dokanyFileInfo);
+			return record(recorder, Operation.GET_VOLUME_INFORMATION, start, status, 0);
+		};
+
+		final DokanyOperations.Mounted mounted = Mounted;
+		Mounted = dokanyFileInfo -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.MOUNTED, start, mounted.mounted(dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.Unmounted unmounted = Unmounted;
+		Unmounted = dokanyFileInfo -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.UNMOUNTED, start, unmounted.unmounted(dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.GetFileSecurity getFileSecurity = GetFileSecurity;
+		GetFileSecurity = (path, securityInformation, securityDescriptor, securityDescriptorLength, securityDescriptorLengthNeeded, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			final long status = getFileSecurity.callback(path, securityInformation, securityDescriptor, securityDescriptorLength, securityDescriptorLengthNeeded,
+			        dokanyFileInfo);
+			return record(recorder, Operation.GET_FILE_SECURITY, start, status, 0);
+		};
+
+		final DokanyOperations.SetFileSecurity setFileSecurity = SetFileSecurity;
+		SetFileSecurity = (path, securityInformation, securityDescriptor, securityDescriptorLength, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.SET_FILE_SECURITY, start, setFileSecurity.callback(path, securityInformation, securityDescriptor, securityDescriptorLength,
+			        dokanyFileInfo), 0);
+		};
+
+		final DokanyOperations.FindStreams findStreams = FindStreams;
+		FindStreams = (path, rawFillFindData, dokanyFileInfo) -> {
+			final long start = System.nanoTime();
+			return record(recorder, Operation.FIND_STREAMS, start, findStreams.callback(path, rawFillFindData, dokanyFileInfo), 0);
+		};
+	}
+
+	private static long record(final OperationRecorder recorder, final Operation operation, final long start, final long status, final long bytes) {
+		recorder.record(operation, System.nanoTime() - start, status, bytes);
+		return status;
 	}
 	/*-
 	private static void convertCreateFileVariables(
@@ -124,9 +325,24 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
 			// Normalize path
-			val normalizedPath = DokanyUtils.normalize(path);
+			val normalizedPath = pathCache.normalize(path);
+
+			// skipped names and repeated probes for missing paths are answered without the file system; creating a path makes it exist again
+			if ((rawCreateDisposition == FILE_OPEN) || (rawCreateDisposition == FILE_OVERWRITE)) {
+				if (isSkipFile(path) || negativeLookups.isMissing(normalizedPath)) {
+					return ErrorCode.ERROR_FILE_NOT_FOUND.getMask();
+				}
+			} else {
+				negativeLookups.invalidate(normalizedPath);
+			}
+
+			// kernel32 only exists on Windows; skipping it lets SimulatedDokany drive the proxy elsewhere
+			if (Platform.isWindows()) {
+				Kernel32.INSTANCE.CreateFile(normalizedPath, rawDesiredAccess, rawShareAccess, securityContext, rawCreateDisposition, rawFileAttributes, null);
+			}
 
-			Kernel32.INSTANCE.CreateFile(normalizedPath, rawDesiredAccess, rawShareAccess, securityContext, rawCreateDisposition, rawFileAttributes, null);
+			// released in CloseFile
+			fileSystem.getHandles().open(normalizedPath, dokanyFileInfo);
 
 			return ErrorCode.SUCCESS.getMask();
 			/*-
@@ -224,14 +440,18 @@ final class DokanyOperationsProxy extends DokanyOperations {
 			}
 
 			try {
-				val normalizedPath = DokanyUtils.normalize(path);
+				val normalizedPath = pathCache.normalize(path);
 
 				// TODO: Can cleanup always be done here not matter the FS?
 
 				// CloseFile.callback(path, dokanyFileInfo);
+				// byte-range locks die with the handle even if the file system fails to clean up
+				fileSystem.getRangeLocks().unlockAll(normalizedPath, dokanyFileInfo.Context);
 				fileSystem.cleanup(normalizedPath, dokanyFileInfo);
 
-				log.trace("Cleaned up: {}", normalizedPath);
+				if (isTraceEnabled) {
+					log.trace("Cleaned up: {}", normalizedPath);
+				}
 			} catch (final Throwable t) {
 				log.warn("Error in clearning up file: {}", path, t);
 			}
@@ -243,6 +463,9 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		public void callback(
 		        @NonNull final WString path,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
+			// Handle is kept past Cleanup since paging I/O can still arrive until CloseFile
+			fileSystem.getHandles().release(dokanyFileInfo);
+
 			if (isSkipFile(path)) {
 				return;
 			}
@@ -250,10 +473,12 @@ final class DokanyOperationsProxy extends DokanyOperations {
 			try {
 				// TODO: Can close always be done here not matter the FS?
 				// dokanyFileInfo.Context = 0;
-				val normalizedPath = DokanyUtils.normalize(path);
+				val normalizedPath = pathCache.normalize(path);
 				// fileSystem.close(normalizedPath, dokanyFileInfo);
 
-				log.trace("Closed file: {}", normalizedPath);
+				if (isTraceEnabled) {
+					log.trace("Closed file: {}", normalizedPath);
+				}
 			} catch (final Throwable e) {
 				log.warn("Error in closing file: {}", path, e);
 			}
@@ -261,12 +486,16 @@ final class DokanyOperationsProxy extends DokanyOperations {
 	}
 
 	private final class FindFiles implements DokanyOperations.FindFiles {
+		// not the FindFilesWithPattern field, which may be wrapped by intercept and would record this call twice
+		private final FindFilesWithPattern findFilesWithPattern = new FindFilesWithPattern();
+
 		@Override
 		public long callback(
 		        @NonNull final WString path,
 		        @NonNull final DokanyOperations.FillWin32FindData rawFillFindData,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
-			return FindFilesWithPattern.callback(path, null, rawFillFindData, dokanyFileInfo);
+			// a null pattern lists every entry
+			return findFilesWithPattern.callback(path, null, rawFillFindData, dokanyFileInfo);
 		}
 	}
 
@@ -274,19 +503,22 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		@Override
 		public long callback(
 		        @NonNull final WString path,
-		        @NonNull final WString searchPattern,
+		        final WString searchPattern,
 		        @NonNull final DokanyOperations.FillWin32FindData rawFillFindData,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val pathToSearch = DokanyUtils.normalize(path);
-			log.trace("FindFilesWithPattern {}", pathToSearch);
+			val pathToSearch = pathCache.normalize(path);
+			if (isTraceEnabled) {
+				log.trace("FindFilesWithPattern {}", pathToSearch);
+			}
 
 			try {
-				val filesFound = fileSystem.findFilesWithPattern(pathToSearch, dokanyFileInfo, DokanyUtils.wStrToStr(searchPattern));
-				log.debug("Found {} paths", filesFound.size());
+				// entries go to Dokany as the file system finds them
 				try {
-					filesFound.forEach(file -> {
-						log.trace("file in find: {}", file.getFileName());
+					fileSystem.findFilesWithPattern(pathToSearch, dokanyFileInfo, DokanyUtils.wStrToStr(searchPattern), file -> {
+						if (isTraceEnabled) {
+							log.trace("file in find: {}", file.getFileName());
+						}
 						rawFillFindData.fillWin32FindData(file, dokanyFileInfo);
 					});
 				} catch (final Error e) {
@@ -309,22 +541,24 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        final long offset,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
-			log.debug("ReadFile: {} with readLength ", normalizedPath, bufferLength);
+			val normalizedPath = pathCache.normalize(path);
+			if (isDebugEnabled) {
+				log.debug("ReadFile: {} with readLength {}", normalizedPath, bufferLength);
+			}
 
 			if (dokanyFileInfo.isDirectory()) {
-				log.trace("isDir:will throw file not found error");
+				if (isTraceEnabled) {
+					log.trace("isDir:will throw file not found error");
+				}
 				return ErrorCode.ERROR_FILE_NOT_FOUND.getMask();
 			}
 
 			try {
-				final FileData data = fileSystem.read(normalizedPath, (int) offset, bufferLength);
-				final int numRead = data.getLength();
-				log.debug("numRead: {}", numRead);
-
-				if (numRead > 0) {
-					buffer.write(0, data.getBytes(), 0, numRead);
-					log.debug("wrote data length: {}", data.getBytes().length);
+				// view of the native buffer so the file system can fill it without an intermediate byte[]
+				val dst = buffer.getByteBuffer(0L, bufferLength);
+				val numRead = fileSystem.read(normalizedPath, offset, dst, dokanyFileInfo);
+				if (isDebugEnabled) {
+					log.debug("numRead: {}", numRead);
 				}
 
 				readLengthRef.setValue(numRead);
@@ -345,15 +579,19 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        final long offset,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
-			log.debug("WriteFile: {}", normalizedPath);
+			val normalizedPath = pathCache.normalize(path);
+			if (isDebugEnabled) {
+				log.debug("WriteFile: {}", normalizedPath);
+			}
 
 			try {
-				final byte[] data = new byte[numberOfBytesToWrite];
-				buffer.read(0L, data, 0, numberOfBytesToWrite);
-				final int written = fileSystem.write(normalizedPath, (int) offset, data, numberOfBytesToWrite);
+				// read-only view of the native buffer so the file system can consume it without an intermediate byte[]
+				val src = buffer.getByteBuffer(0L, numberOfBytesToWrite).asReadOnlyBuffer();
+				val written = fileSystem.write(normalizedPath, offset, src, dokanyFileInfo);
 				numberOfBytesWritten.setValue(written);
-				log.debug("Wrote this number of bytes: {}", written);
+				if (isDebugEnabled) {
+					log.debug("Wrote this number of bytes: {}", written);
+				}
 				return ErrorCode.SUCCESS.getMask();
 			} catch (final Throwable t) {
 				return DokanyUtils.exceptionToErrorCode(t, ERROR_WRITE_FAULT.getMask());
@@ -367,8 +605,10 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        @NonNull final WString path,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
-			log.trace("FlushFileBuffers: {}", normalizedPath);
+			val normalizedPath = pathCache.normalize(path);
+			if (isTraceEnabled) {
+				log.trace("FlushFileBuffers: {}", normalizedPath);
+			}
 			try {
 				fileSystem.flushFileBuffers(normalizedPath);
 				return ErrorCode.SUCCESS.getMask();
@@ -385,20 +625,29 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        @NonNull final ByHandleFileInfo info,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
-			log.debug("GetFileInformation: {}", normalizedPath);
-			log.trace("dokanyFileInfo in getinfo: {}", dokanyFileInfo);
+			val normalizedPath = pathCache.normalize(path);
+			if (isDebugEnabled) {
+				log.debug("GetFileInformation: {}", normalizedPath);
+			}
+			if (isTraceEnabled) {
+				log.trace("dokanyFileInfo in getinfo: {}", dokanyFileInfo);
+			}
 
 			if (isSkipFile(path)) {
 				return NtStatus.FILE_INVALID.getMask();
 			}
+			if (negativeLookups.isMissing(normalizedPath)) {
+				return ErrorCode.ERROR_FILE_NOT_FOUND.getMask();
+			}
 			try {
-				val retrievedInfo = fileSystem.getInfo(normalizedPath);
-				retrievedInfo.copyTo(info);
+				fileSystem.getInfo(normalizedPath, info);
 				return ErrorCode.SUCCESS.getMask();
 			} catch (final Throwable t) {
-				log.warn("Error reading info: {}", t.getMessage());
-				return DokanyUtils.exceptionToErrorCode(t, ERROR_WRITE_FAULT.getMask());
+				val status = DokanyUtils.exceptionToErrorCode(t, ERROR_WRITE_FAULT.getMask());
+				if (status == ErrorCode.ERROR_FILE_NOT_FOUND.getMask()) {
+					negativeLookups.add(normalizedPath);
+				}
+				return status;
 			}
 		}
 	}
@@ -410,10 +659,12 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        final int attributes,
 		        @NonNull final DokanyFileInfo rawInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
+			val normalizedPath = pathCache.normalize(path);
 			// TODO: fix
 			final EnumIntegerSet<FileAttribute> attribs = null;// FileAttribute.fromInt(attributes);
-			log.trace("SetFileAttributes as {} for {}", attribs, normalizedPath);
+			if (isTraceEnabled) {
+				log.trace("SetFileAttributes as {} for {}", attribs, normalizedPath);
+			}
 
 			try {
 				fileSystem.setAttributes(normalizedPath, attribs);
@@ -433,11 +684,13 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        @NonNull final FILETIME lastWriteTime,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
-			log.trace("SetFileTime for {}; creationTime = {}; lastAccessTime = {}; lastWriteTime = {}", normalizedPath, creationTime, lastAccessTime, lastWriteTime);
+			val normalizedPath = pathCache.normalize(path);
+			if (isTraceEnabled) {
+				log.trace("SetFileTime for {}; creationTime = {}; lastAccessTime = {}; lastWriteTime = {}", normalizedPath, creationTime, lastAccessTime, lastWriteTime);
+			}
 
 			try {
-				fileSystem.setTime(DokanyUtils.normalize(path), creationTime, lastAccessTime, lastWriteTime);
+				fileSystem.setTime(normalizedPath, creationTime, lastAccessTime, lastWriteTime);
 				return ErrorCode.SUCCESS.getMask();
 			} catch (final Throwable t) {
 				return DokanyUtils.exceptionToErrorCode(t, ERROR_WRITE_FAULT.getMask());
@@ -451,11 +704,14 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        @NonNull final WString path,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
-			log.trace("DeleteFile: {}", normalizedPath);
+			val normalizedPath = pathCache.normalize(path);
+			if (isTraceEnabled) {
+				log.trace("DeleteFile: {}", normalizedPath);
+			}
 
 			try {
 				fileSystem.deleteFile(normalizedPath, dokanyFileInfo);
+				pathCache.invalidate(path);
 
 				return ErrorCode.SUCCESS.getMask();
 			} catch (final Throwable t) {
@@ -470,11 +726,14 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        @NonNull final WString path,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
-			log.trace("DeleteDirectory: {}", normalizedPath);
+			val normalizedPath = pathCache.normalize(path);
+			if (isTraceEnabled) {
+				log.trace("DeleteDirectory: {}", normalizedPath);
+			}
 
 			try {
 				fileSystem.deleteDirectory(normalizedPath, dokanyFileInfo);
+				pathCache.invalidate(path);
 
 				return ErrorCode.SUCCESS.getMask();
 			} catch (final Throwable t) {
@@ -491,12 +750,16 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        final boolean replaceIfExisting,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val oldNormalizedPath = DokanyUtils.normalize(oldPath);
-			val newNormalizedPath = DokanyUtils.normalize(newPath);
-			log.debug("trace: {} to {}; replace existing? ", oldNormalizedPath, newNormalizedPath, replaceIfExisting);
+			val oldNormalizedPath = pathCache.normalize(oldPath);
+			val newNormalizedPath = pathCache.normalize(newPath);
+			if (isDebugEnabled) {
+				log.debug("MoveFile: {} to {}; replace existing? {}", oldNormalizedPath, newNormalizedPath, replaceIfExisting);
+			}
 
 			try {
 				fileSystem.move(oldNormalizedPath, newNormalizedPath, replaceIfExisting);
+				pathCache.invalidate(oldPath);
+				negativeLookups.invalidateTree(newNormalizedPath);
 
 				return ErrorCode.SUCCESS.getMask();
 			} catch (final Throwable t) {
@@ -512,11 +775,13 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        final long offset,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
-			log.trace("SetEndOfFile: {}", normalizedPath);
+			val normalizedPath = pathCache.normalize(path);
+			if (isTraceEnabled) {
+				log.trace("SetEndOfFile: {}", normalizedPath);
+			}
 
 			try {
-				fileSystem.setEndOfFile(normalizedPath, (int) offset);
+				fileSystem.setEndOfFile(normalizedPath, offset, dokanyFileInfo);
 				return ErrorCode.SUCCESS.getMask();
 			} catch (final Throwable t) {
 				return DokanyUtils.exceptionToErrorCode(t);
@@ -531,11 +796,13 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        final long length,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
-			log.trace("SetAllocationSize: {}", normalizedPath);
+			val normalizedPath = pathCache.normalize(path);
+			if (isTraceEnabled) {
+				log.trace("SetAllocationSize: {}", normalizedPath);
+			}
 
 			try {
-				fileSystem.setAllocationSize(normalizedPath, (int) length);
+				fileSystem.setAllocationSize(normalizedPath, length, dokanyFileInfo);
 				return ErrorCode.SUCCESS.getMask();
 			} catch (final Throwable t) {
 				return DokanyUtils.exceptionToErrorCode(t);
@@ -551,11 +818,13 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        final long length,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
-			log.trace("LockFile: {}", normalizedPath);
+			val normalizedPath = pathCache.normalize(path);
+			if (isTraceEnabled) {
+				log.trace("LockFile: {}", normalizedPath);
+			}
 
 			try {
-				fileSystem.lock(normalizedPath, (int) offset, (int) length);
+				fileSystem.lock(normalizedPath, offset, length, dokanyFileInfo);
 
 				return ErrorCode.SUCCESS.getMask();
 			} catch (final Throwable t) {
@@ -572,10 +841,12 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        final long length,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
-			log.trace("UnlockFile: {}", normalizedPath);
+			val normalizedPath = pathCache.normalize(path);
+			if (isTraceEnabled) {
+				log.trace("UnlockFile: {}", normalizedPath);
+			}
 			try {
-				fileSystem.unlock(normalizedPath, (int) offset, (int) length);
+				fileSystem.unlock(normalizedPath, offset, length, dokanyFileInfo);
 
 				return ErrorCode.SUCCESS.getMask();
 			} catch (final Throwable t) {
@@ -592,10 +863,12 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        @NonNull final LongByReference rawTotalNumberOfFreeBytes,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			log.trace("GetDiskFreeSpace");
-			log.trace("rawFreeBytesAvailable: {}", rawFreeBytesAvailable.getValue());
-			log.debug("rawTotalNumberOfBytes", rawTotalNumberOfBytes);
-			log.debug("rawTotalNumberOfFreeBytes", rawTotalNumberOfFreeBytes);
+			if (isTraceEnabled) {
+				log.trace("GetDiskFreeSpace");
+				log.trace("rawFreeBytesAvailable: {}", rawFreeBytesAvailable.getValue());
+				log.trace("rawTotalNumberOfBytes: {}", rawTotalNumberOfBytes.getValue());
+				log.trace("rawTotalNumberOfFreeBytes: {}", rawTotalNumberOfFreeBytes.getValue());
+			}
 
 			// rawTotalNumberOfBytes.setValue(new LONGLONG(freeSpace.getTotalBytes()));
 
@@ -604,7 +877,9 @@ final class DokanyOperationsProxy extends DokanyOperations {
 
 			// If per-user quotas are being used, this value may be less than the total number of free bytes on a disk
 			rawFreeBytesAvailable.setValue(freeSpace.getFreeBytes());
-			log.trace("new rawFreeBytesAvailable: {}", rawFreeBytesAvailable.getValue());
+			if (isTraceEnabled) {
+				log.trace("new rawFreeBytesAvailable: {}", rawFreeBytesAvailable.getValue());
+			}
 
 			return 0;
 		}
@@ -622,7 +897,9 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        final int rawFileSystemNameSize,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			log.trace("GetVolumeInformation");
+			if (isTraceEnabled) {
+				log.trace("GetVolumeInformation");
+			}
 
 			try {
 				volumeNameBuffer.setWideString(0L, DokanyUtils.trimStrToSize(fileSystem.getVolumeInfo().getName(), volumeNameSize));
@@ -679,8 +956,10 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        @NonNull final IntByReference rawSecurityDescriptorLengthNeeded,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
-			log.trace("SetFileSecurity: {}", normalizedPath);
+			val normalizedPath = pathCache.normalize(path);
+			if (isTraceEnabled) {
+				log.trace("SetFileSecurity: {}", normalizedPath);
+			}
 
 			try {
 				val out = new byte[rawSecurityDescriptorLength];
@@ -704,8 +983,10 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        final int rawSecurityDescriptorLength,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
-			log.trace("SetFileSecurity: {}", normalizedPath);
+			val normalizedPath = pathCache.normalize(path);
+			if (isTraceEnabled) {
+				log.trace("SetFileSecurity: {}", normalizedPath);
+			}
 
 			try {
 				val data = new byte[rawSecurityDescriptorLength];
@@ -726,12 +1007,16 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		        @NonNull final FillWin32FindStreamData rawFillFindData,
 		        @NonNull final DokanyFileInfo dokanyFileInfo) {
 
-			val normalizedPath = DokanyUtils.normalize(path);
-			log.trace("FindStreams: {}", normalizedPath);
+			val normalizedPath = pathCache.normalize(path);
+			if (isTraceEnabled) {
+				log.trace("FindStreams: {}", normalizedPath);
+			}
 
 			try {
 				val streams = fileSystem.findStreams(normalizedPath);
-				log.debug("Found {} streams", streams.size());
+				if (isDebugEnabled) {
+					log.debug("Found {} streams", streams.size());
+				}
 				streams.forEach(file -> {
 					rawFillFindData.callback(file, dokanyFileInfo);
 				});
@@ -742,6 +1027,14 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		}
 	}
 
+	PathCache getPathCache() {
+		return pathCache;
+	}
+
+	NegativeLookupCache getNegativeLookups() {
+		return negativeLookups;
+	}
+
 	private static int getRootReturnCode(final String normalizedPath, final CreationDisposition fileMode) {
 		switch (fileMode) {
 		case CREATE_NEW:
@@ -759,29 +1052,13 @@ final class DokanyOperationsProxy extends DokanyOperations {
 		return ErrorCode.SUCCESS.getMask();
 	}
 
-	static boolean isSkipFile(
-	        @NonNull final WString path) {
-		return isSkipFile(DokanyUtils.normalize(path));
-
-	}
-
-	static boolean isSkipFile(
-	        @NonNull final String normalizedPath) {
-
-		boolean toReturn = false;
-
-		val pathLowerCase = normalizedPath.toLowerCase();
-
-		if (pathLowerCase.endsWith("desktop.ini")
-		        || pathLowerCase.endsWith("autorun.inf")
-		        || pathLowerCase.endsWith("folder.jpg")
-		        || pathLowerCase.endsWith("folder.gif")) {
-			// log.trace("Skipping file: " + pathLowerCase);
-			// TODO: re-enable logging
-			toReturn = true;
-		}
-		return toReturn;
-		// return false;
+	/**
+	 *
+	 * @param path raw or normalized path
+	 * @return true if path is one of the skipped file names, which are reported as invalid without asking the file system
+	 */
+	boolean isSkipFile(@NonNull final CharSequence path) {
+		return skipFiles.matches(path);
 	}
 
 }
\ No newline at end of file
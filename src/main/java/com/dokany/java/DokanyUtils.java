@@ -4,12 +4,17 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.FileTime;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.commons.io.FilenameUtils;
 
@@ -35,6 +40,8 @@ import lombok.extern.slf4j.Slf4j;
 @UtilityClass
 @Slf4j
 public class DokanyUtils {
+	private final Map<Long, LongAdder> expectedStatusCounts = new ConcurrentHashMap<>();
+
 	/**
 	 * Uses *nix separator
 	 *
@@ -97,6 +104,16 @@ public class DokanyUtils {
 		return normalizedPath;
 	}
 
+	/**
+	 * Normalizes path using *nix separators without touching the host file system. Unlike {@link #normalize(String)}, no tail separator is added for directories.
+	 *
+	 * @param path
+	 * @return normalized path or null if path is invalid (for example if it goes above the root)
+	 */
+	public String normalizePath(@NonNull final String path) {
+		return FilenameUtils.normalize(path, true);
+	}
+
 	public int indexOfLastSeparator(@NonNull final String normalizedPath) {
 		return FilenameUtils.indexOfLastSeparator(normalizedPath);
 	}
@@ -145,20 +162,42 @@ public class DokanyUtils {
 		return exceptionToErrorCode(t, NtStatus.UNSUCCESSFUL.getMask());
 	}
 
+	/**
+	 * Maps t to the status returned to Dokany. Statuses the file system chose itself ({@link DokanyException}) and plain misses are expected in normal operation: they are only
+	 * counted, see {@link #getExpectedStatusCounts()}. Anything else is logged with its stack trace.
+	 *
+	 * @param t
+	 * @param defaultCode status for unexpected exceptions
+	 * @return status for Dokany
+	 */
 	long exceptionToErrorCode(@NonNull final Throwable t, final long defaultCode) {
-		log.warn(t.getMessage(), t);
-
+		final long status;
 		if (t instanceof DokanyException) {
-			return ((DokanyException) t).getValue();
+			status = ((DokanyException) t).getValue();
+		} else if ((t instanceof FileNotFoundException) || (t instanceof NoSuchFileException)) {
+			status = ErrorCode.ERROR_FILE_NOT_FOUND.getMask();
+		} else if (t instanceof FileAlreadyExistsException) {
+			status = ErrorCode.ERROR_ALREADY_EXISTS.getMask();
+		} else {
+			log.warn(t.getMessage(), t);
+			return defaultCode;
 		}
-		if (t instanceof FileNotFoundException) {
-			return ErrorCode.ERROR_FILE_NOT_FOUND.getMask();
-		}
-		if (t instanceof FileAlreadyExistsException) {
-			return ErrorCode.ERROR_ALREADY_EXISTS.getMask();
+
+		expectedStatusCounts.computeIfAbsent(status, s -> new LongAdder()).increment();
+		if (log.isTraceEnabled()) {
+			log.trace("Returning status {} for {}", Long.toHexString(status), t.toString());
 		}
+		return status;
+	}
 
-		return defaultCode;
+	/**
+	 *
+	 * @return how often each expected status was returned by {@link #exceptionToErrorCode(Throwable, long)} since startup
+	 */
+	public Map<Long, Long> getExpectedStatusCounts() {
+		val counts = new HashMap<Long, Long>();
+		expectedStatusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+		return counts;
 	}
 
 	public FileTime toFileTime(@NonNull final FILETIME time) {
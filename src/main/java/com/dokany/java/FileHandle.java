@@ -0,0 +1,90 @@
+package com.dokany.java;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * An open file handle. One is created per {@link DokanyOperations.ZwCreateFile} and stays alive until {@link DokanyOperations.CloseFile}. File systems can attach one object to
+ * it (for example a {@link java.nio.channels.FileChannel}) and get it back in every subsequent callback for the same handle.
+ *
+ * @see FileHandleRegistry
+ */
+@ToString(exclude = "attachment")
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public final class FileHandle {
+
+	/**
+	 * Value stored in {@link com.dokany.java.structure.DokanyFileInfo#Context}.
+	 */
+	@Getter
+	long id;
+
+	@Getter
+	@NonNull
+	String path;
+
+	AtomicReference<Object> attachment = new AtomicReference<>();
+
+	FileHandle(final long id, @NonNull final String path) {
+		this.id = id;
+		this.path = path;
+	}
+
+	/**
+	 *
+	 * @return attached object or null if nothing is attached
+	 */
+	public Object getAttachment() {
+		return attachment.get();
+	}
+
+	/**
+	 *
+	 * @param type
+	 * @return attached object cast to type or null if nothing is attached
+	 */
+	public <T> T getAttachment(@NonNull final Class<T> type) {
+		return type.cast(attachment.get());
+	}
+
+	/**
+	 * Replaces the attached object.
+	 *
+	 * @param toAttach may be null to detach
+	 * @return previously attached object or null
+	 */
+	public Object attach(final Object toAttach) {
+		return attachment.getAndSet(toAttach);
+	}
+
+	/**
+	 * Attaches the object unless another thread already attached one.
+	 *
+	 * @param toAttach
+	 * @return the object which is attached after the call; if it is not toAttach, the caller should dispose of toAttach
+	 */
+	public Object attachIfAbsent(@NonNull final Object toAttach) {
+		return attachment.compareAndSet(null, toAttach) ? toAttach : attachment.get();
+	}
+
+	/**
+	 * Detaches the attached object and closes it if it is {@link Closeable}.
+	 *
+	 * @throws IOException
+	 */
+	void close() throws IOException {
+		val attached = attachment.getAndSet(null);
+		if (Objects.nonNull(attached) && (attached instanceof Closeable)) {
+			((Closeable) attached).close();
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.dokany.java;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dokany.java.structure.DokanyFileInfo;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Open handles of a file system keyed by {@link DokanyFileInfo#Context}. Handles are allocated by {@link DokanyOperationsProxy} in ZwCreateFile and released in CloseFile; file
+ * systems look them up with {@link #get(DokanyFileInfo)}.
+ *
+ * Lookups do not lock so they are safe to use from every Dokany thread.
+ */
+@Slf4j
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public final class FileHandleRegistry {
+
+	/**
+	 * 0 is never handed out since it is the value of an unset Context.
+	 */
+	AtomicLong lastId = new AtomicLong();
+	ConcurrentHashMap<Long, FileHandle> handles = new ConcurrentHashMap<>();
+
+	/**
+	 * Allocates a new handle for path and stores its id in dokanyFileInfo.Context.
+	 *
+	 * @param path
+	 * @param dokanyFileInfo
+	 * @return new handle
+	 */
+	FileHandle open(@NonNull final String path, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		val handle = new FileHandle(lastId.incrementAndGet(), path);
+		handles.put(handle.getId(), handle);
+		dokanyFileInfo.Context = handle.getId();
+		return handle;
+	}
+
+	/**
+	 *
+	 * @param dokanyFileInfo
+	 * @return handle for dokanyFileInfo.Context or null if the context holds no handle
+	 */
+	public FileHandle get(@NonNull final DokanyFileInfo dokanyFileInfo) {
+		return get(dokanyFileInfo.Context);
+	}
+
+	/**
+	 *
+	 * @param id
+	 * @return handle or null if id is unknown
+	 */
+	public FileHandle get(final long id) {
+		return id == 0 ? null : handles.get(id);
+	}
+
+	/**
+	 * Removes the handle stored in dokanyFileInfo.Context, closes its attachment and resets the context.
+	 *
+	 * @param dokanyFileInfo
+	 */
+	void release(@NonNull final DokanyFileInfo dokanyFileInfo) {
+		val id = dokanyFileInfo.Context;
+		dokanyFileInfo.Context = 0;
+		if (id == 0) {
+			return;
+		}
+
+		val handle = handles.remove(id);
+		if (Objects.nonNull(handle)) {
+			try {
+				handle.close();
+			} catch (final IOException e) {
+				log.warn("Error closing attachment of handle {}", handle, e);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return number of open handles
+	 */
+	public int size() {
+		return handles.size();
+	}
+}
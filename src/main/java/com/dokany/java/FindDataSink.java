@@ -0,0 +1,19 @@
+package com.dokany.java;
+
+import com.sun.jna.platform.win32.WinBase.WIN32_FIND_DATA;
+
+import lombok.NonNull;
+
+/**
+ * Receives directory entries one at a time while a file system enumerates a directory. {@link DokanyOperationsProxy} connects it directly to
+ * {@link DokanyOperations.FillWin32FindData} so entries reach Dokany without being collected first.
+ */
+@FunctionalInterface
+public interface FindDataSink {
+
+	/**
+	 *
+	 * @param findData entry to add to the listing
+	 */
+	void accept(@NonNull WIN32_FIND_DATA findData);
+}
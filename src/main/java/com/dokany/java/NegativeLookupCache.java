@@ -0,0 +1,152 @@
+package com.dokany.java;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Remembers paths which were recently reported as not found, so {@link DokanyOperationsProxy} can answer the repeated probes of shells and scanners without calling the
+ * {@link DokanyFileSystem}. Entries expire after a short time to live and are removed when a path is created or moved into.
+ *
+ * Entries are kept in a {@link ConcurrentHashMap} with the time they expire, so lookups from the Dokany threads do not contend on a lock. Once the cache is full, adding a path
+ * first drops expired entries and then arbitrary ones until a quarter of the capacity is free; concurrent adds may briefly exceed the capacity.
+ *
+ * File names which are never looked up at all are matched by {@link SkipFileMatcher} instead.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public final class NegativeLookupCache {
+
+	@Getter
+	int capacity;
+
+	long ttlNanos;
+
+	/**
+	 * Normalized path to the System.nanoTime() at which it expires.
+	 */
+	ConcurrentHashMap<String, Long> missingPaths = new ConcurrentHashMap<>();
+
+	LongAdder hits = new LongAdder();
+	LongAdder misses = new LongAdder();
+
+	/**
+	 *
+	 * @param capacity maximum number of remembered paths; 0 disables the cache
+	 * @param ttlMillis how long a path is remembered as missing
+	 */
+	public NegativeLookupCache(final int capacity, final long ttlMillis) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity cannot be negative: " + capacity);
+		}
+		this.capacity = capacity;
+		ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+	}
+
+	/**
+	 *
+	 * @param path normalized path
+	 * @return true if path was reported as not found within the time to live
+	 */
+	public boolean isMissing(@NonNull final String path) {
+		if (capacity == 0) {
+			return false;
+		}
+
+		val expiresAt = missingPaths.get(path);
+		if (Objects.isNull(expiresAt)) {
+			misses.increment();
+			return false;
+		}
+		if ((expiresAt - System.nanoTime()) <= 0) {
+			// only if no add renewed it meanwhile
+			missingPaths.remove(path, expiresAt);
+			misses.increment();
+			return false;
+		}
+		hits.increment();
+		return true;
+	}
+
+	/**
+	 * Remembers that path does not exist.
+	 *
+	 * @param path normalized path
+	 */
+	public void add(@NonNull final String path) {
+		if (capacity == 0) {
+			return;
+		}
+		val now = System.nanoTime();
+		if (missingPaths.size() >= capacity) {
+			evict(now);
+		}
+		missingPaths.put(path, now + ttlNanos);
+	}
+
+	/**
+	 * Drops expired entries, then arbitrary ones until at most three quarters of the capacity are used.
+	 */
+	private void evict(final long now) {
+		missingPaths.values().removeIf(expiresAt -> (expiresAt - now) <= 0);
+
+		val target = capacity - Math.max(1, capacity / 4);
+		val paths = missingPaths.keySet().iterator();
+		while ((missingPaths.size() > target) && paths.hasNext()) {
+			paths.next();
+			paths.remove();
+		}
+	}
+
+	/**
+	 * Forgets path. Called when path is created.
+	 *
+	 * @param path normalized path
+	 */
+	public void invalidate(@NonNull final String path) {
+		if (capacity == 0) {
+			return;
+		}
+		missingPaths.remove(path);
+	}
+
+	/**
+	 * Forgets path and every path below it. Called when something is moved to path.
+	 *
+	 * @param path normalized path
+	 */
+	public void invalidateTree(@NonNull final String path) {
+		if (capacity == 0) {
+			return;
+		}
+		val prefix = DokanyUtils.trimTailSeparator(path) + DokanyUtils.UNIX_SEPARATOR;
+		missingPaths.remove(path);
+		missingPaths.keySet().removeIf(key -> key.startsWith(prefix));
+	}
+
+	/**
+	 *
+	 * @return number of remembered paths, including expired ones not evicted yet
+	 */
+	public int size() {
+		return missingPaths.size();
+	}
+
+	/**
+	 *
+	 * @return number of lookups answered as missing without the file system
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+}
@@ -0,0 +1,125 @@
+package com.dokany.java;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.jna.WString;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Bounded cache from raw Dokany paths to paths normalized with {@link DokanyUtils#normalizePath(String)}. Used by {@link DokanyOperationsProxy} so repeated callbacks for the
+ * same path skip normalization.
+ *
+ * Normalization is purely string based, so cached values never become stale; {@link #invalidate(WString)} only frees entries of paths which were moved or deleted.
+ *
+ * Every callback looks up its path, so entries are kept in a {@link ConcurrentHashMap} and lookups never take a lock. There is no recency order: once the cache is full, adding
+ * a path drops arbitrary entries until a quarter of the capacity is free, and concurrent adds may briefly exceed the capacity.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public final class PathCache {
+
+	@Getter
+	int capacity;
+
+	ConcurrentHashMap<String, String> normalizedPaths = new ConcurrentHashMap<>();
+
+	LongAdder hits = new LongAdder();
+	LongAdder misses = new LongAdder();
+
+	/**
+	 *
+	 * @param capacity maximum number of cached paths; 0 disables caching
+	 */
+	public PathCache(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity cannot be negative: " + capacity);
+		}
+		this.capacity = capacity;
+	}
+
+	/**
+	 *
+	 * @param path raw path from Dokany
+	 * @return normalized path
+	 */
+	public String normalize(@NonNull final WString path) {
+		// WString.toString() returns the wrapped String without copying
+		val rawPath = path.toString();
+		if (capacity == 0) {
+			misses.increment();
+			return DokanyUtils.normalizePath(rawPath);
+		}
+
+		String normalizedPath = normalizedPaths.get(rawPath);
+		if (Objects.nonNull(normalizedPath)) {
+			hits.increment();
+			return normalizedPath;
+		}
+
+		misses.increment();
+		normalizedPath = DokanyUtils.normalizePath(rawPath);
+		if (Objects.nonNull(normalizedPath)) {
+			if (normalizedPaths.size() >= capacity) {
+				evict();
+			}
+			normalizedPaths.put(rawPath, normalizedPath);
+		}
+		return normalizedPath;
+	}
+
+	/**
+	 * Drops arbitrary entries until at most three quarters of the capacity are used.
+	 */
+	private void evict() {
+		val target = capacity - Math.max(1, capacity / 4);
+		val paths = normalizedPaths.keySet().iterator();
+		while ((normalizedPaths.size() > target) && paths.hasNext()) {
+			paths.next();
+			paths.remove();
+		}
+	}
+
+	/**
+	 * Removes path from the cache. Called when path is moved or deleted.
+	 *
+	 * @param path raw path from Dokany
+	 */
+	public void invalidate(@NonNull final WString path) {
+		if (capacity == 0) {
+			return;
+		}
+		normalizedPaths.remove(path.toString());
+	}
+
+	/**
+	 *
+	 * @return number of cached paths
+	 */
+	public int size() {
+		return normalizedPaths.size();
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 *
+	 * @return hits / (hits + misses) or 0 if nothing was looked up yet
+	 */
+	public double getHitRate() {
+		val hitCount = hits.sum();
+		val total = hitCount + misses.sum();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+}
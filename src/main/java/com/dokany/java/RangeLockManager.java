@@ -0,0 +1,209 @@
+package com.dokany.java;
+
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.dokany.java.constants.NtStatus;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Byte-range locks for file systems which handle LockFile and UnlockFile themselves ({@link com.dokany.java.constants.MountOption#FILELOCK_USER_MODE}). Locks are exclusive and
+ * owned by the handle which took them, identified by {@link com.dokany.java.structure.DokanyFileInfo#Context}; {@link DokanyOperationsProxy} releases the locks of a handle in
+ * Cleanup.
+ *
+ * Each file keeps its ranges in its own sorted map guarded by its own monitor, so checks for different files never contend and there is no global lock. Lock and unlock are
+ * O(log n) in the number of ranges locked in the file.
+ *
+ * As on Windows, a range cannot overlap a range locked by any handle, the same one included, and unlocking needs the exact offset and length. Zero length ranges never
+ * conflict; they are granted without being tracked.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public final class RangeLockManager {
+
+	private static final DokanyException LOCK_NOT_GRANTED = DokanyException.withoutStackTrace(NtStatus.LOCK_NOT_GRANTED.getMask());
+	private static final DokanyException RANGE_NOT_LOCKED = DokanyException.withoutStackTrace(NtStatus.RANGE_NOT_LOCKED.getMask());
+	private static final DokanyException INVALID_PARAMETER = DokanyException.withoutStackTrace(NtStatus.INVALID_PARAMETER.getMask());
+
+	/**
+	 * Normalized path to the locks of that file. Files without locks have no entry.
+	 */
+	ConcurrentHashMap<String, FileLocks> files = new ConcurrentHashMap<>();
+
+	@FieldDefaults(level = AccessLevel.PRIVATE)
+	private static final class FileLocks {
+		/**
+		 * Start offset to range. Ranges never overlap.
+		 */
+		final TreeMap<Long, Range> ranges = new TreeMap<>();
+		/**
+		 * Set once the file has no ranges left and was removed from {@link RangeLockManager#files}; a thread holding it has to look the file up again.
+		 */
+		boolean isRetired;
+	}
+
+	@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+	private static final class Range {
+		long end;
+		long owner;
+
+		Range(final long end, final long owner) {
+			this.end = end;
+			this.owner = owner;
+		}
+	}
+
+	/**
+	 * Locks length bytes of path at offset for owner.
+	 *
+	 * @param path normalized path
+	 * @param offset
+	 * @param length
+	 * @param owner handle id
+	 * @throws DokanyException with {@link NtStatus#LOCK_NOT_GRANTED} if the range overlaps a locked range or {@link NtStatus#INVALID_PARAMETER} if offset or length is
+	 *             negative
+	 */
+	public void lock(@NonNull final String path, final long offset, final long length, final long owner) {
+		checkRange(offset, length);
+		if (length == 0) {
+			return;
+		}
+		val end = end(offset, length);
+
+		while (true) {
+			val fileLocks = files.computeIfAbsent(path, p -> new FileLocks());
+			synchronized (fileLocks) {
+				if (fileLocks.isRetired) {
+					continue;
+				}
+				val ranges = fileLocks.ranges;
+				val before = ranges.floorEntry(offset);
+				if (Objects.nonNull(before) && (before.getValue().end > offset)) {
+					throw LOCK_NOT_GRANTED;
+				}
+				val after = ranges.higherKey(offset);
+				if (Objects.nonNull(after) && (after < end)) {
+					throw LOCK_NOT_GRANTED;
+				}
+				ranges.put(offset, new Range(end, owner));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Unlocks a range previously locked by owner with the same offset and length.
+	 *
+	 * @param path normalized path
+	 * @param offset
+	 * @param length
+	 * @param owner handle id
+	 * @throws DokanyException with {@link NtStatus#RANGE_NOT_LOCKED} if owner holds no such range
+	 */
+	public void unlock(@NonNull final String path, final long offset, final long length, final long owner) {
+		checkRange(offset, length);
+		if (length == 0) {
+			return;
+		}
+
+		val fileLocks = files.get(path);
+		if (Objects.isNull(fileLocks)) {
+			throw RANGE_NOT_LOCKED;
+		}
+		synchronized (fileLocks) {
+			val range = fileLocks.ranges.get(offset);
+			// a retired file has no ranges, so range is null
+			if (Objects.isNull(range) || (range.owner != owner) || (range.end != end(offset, length))) {
+				throw RANGE_NOT_LOCKED;
+			}
+			fileLocks.ranges.remove(offset);
+			retireIfEmpty(path, fileLocks);
+		}
+	}
+
+	/**
+	 * Unlocks every range of path held by owner. Called when the handle is cleaned up.
+	 *
+	 * @param path normalized path
+	 * @param owner handle id
+	 * @return number of ranges unlocked
+	 */
+	public int unlockAll(@NonNull final String path, final long owner) {
+		val fileLocks = files.get(path);
+		if (Objects.isNull(fileLocks)) {
+			return 0;
+		}
+		synchronized (fileLocks) {
+			val ranges = fileLocks.ranges;
+			val sizeBefore = ranges.size();
+			ranges.values().removeIf(range -> range.owner == owner);
+			retireIfEmpty(path, fileLocks);
+			return sizeBefore - ranges.size();
+		}
+	}
+
+	/**
+	 *
+	 * @param path normalized path
+	 * @return true if any range of path is locked
+	 */
+	public boolean isLocked(@NonNull final String path) {
+		val fileLocks = files.get(path);
+		if (Objects.isNull(fileLocks)) {
+			return false;
+		}
+		synchronized (fileLocks) {
+			return !fileLocks.ranges.isEmpty();
+		}
+	}
+
+	/**
+	 *
+	 * @return number of locked ranges across all files; not a consistent snapshot while locks change
+	 */
+	public int size() {
+		int size = 0;
+		for (val fileLocks : files.values()) {
+			synchronized (fileLocks) {
+				size += fileLocks.ranges.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 *
+	 * @return true if no file has locked ranges
+	 */
+	public boolean isEmpty() {
+		return files.isEmpty();
+	}
+
+	/**
+	 * Caller must hold the monitor of fileLocks.
+	 */
+	private void retireIfEmpty(final String path, final FileLocks fileLocks) {
+		if (fileLocks.ranges.isEmpty()) {
+			fileLocks.isRetired = true;
+			files.remove(path, fileLocks);
+		}
+	}
+
+	private static void checkRange(final long offset, final long length) {
+		if ((offset < 0) || (length < 0)) {
+			throw INVALID_PARAMETER;
+		}
+	}
+
+	/**
+	 * Ranges reaching past the largest offset are treated as ending there.
+	 */
+	private static long end(final long offset, final long length) {
+		val end = offset + length;
+		return end < 0 ? Long.MAX_VALUE : end;
+	}
+}
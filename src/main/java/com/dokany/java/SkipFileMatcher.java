@@ -0,0 +1,176 @@
+package com.dokany.java;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Matches paths against a fixed list of file names which {@link DokanyOperationsProxy} never passes to the file system, such as desktop.ini.
+ *
+ * A name matches a path whose last component equals it, ignoring case. A name starting with * matches any path ending with the rest of it, so *.lnk matches every .lnk file.
+ * Other names with * or ? wildcards, such as ~$*.docx, match the whole last component.
+ *
+ * Names without wildcards, or with a single leading *, are compiled once into a trie of their reversed, case-folded characters, so a path is matched by walking it backwards
+ * from its last character. Matching them reads the raw path in place, handles both separators and does not allocate. The remaining names are combined into one regular
+ * expression which is only tried when the trie does not match.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public final class SkipFileMatcher {
+
+	/**
+	 * Names skipped unless configured otherwise.
+	 */
+	public static final List<String> DEFAULT_SKIP_FILE_NAMES = Collections.unmodifiableList(Arrays.asList("desktop.ini", "autorun.inf", "folder.jpg", "folder.gif"));
+
+	Node root = new Node();
+
+	/**
+	 * Names the trie cannot hold; null if there are none.
+	 */
+	Pattern wildcardPattern;
+
+	/**
+	 * One character of a reversed name. Children are kept in arrays sorted by character; skip lists are short, so nodes have few children.
+	 */
+	@FieldDefaults(level = AccessLevel.PRIVATE)
+	private static final class Node {
+		char[] keys = new char[0];
+		Node[] children = new Node[0];
+		/**
+		 * A name ends here and must be a whole path component.
+		 */
+		boolean isName;
+		/**
+		 * A *-prefixed name ends here; anything may precede it.
+		 */
+		boolean isSuffix;
+
+		Node child(final char key) {
+			val index = Arrays.binarySearch(keys, key);
+			return index < 0 ? null : children[index];
+		}
+
+		Node getOrAddChild(final char key) {
+			int index = Arrays.binarySearch(keys, key);
+			if (index < 0) {
+				index = -index - 1;
+				keys = insert(keys, index, key);
+				val newChildren = new Node[children.length + 1];
+				System.arraycopy(children, 0, newChildren, 0, index);
+				System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+				newChildren[index] = new Node();
+				children = newChildren;
+			}
+			return children[index];
+		}
+
+		private static char[] insert(final char[] array, final int index, final char value) {
+			val result = new char[array.length + 1];
+			System.arraycopy(array, 0, result, 0, index);
+			System.arraycopy(array, index, result, index + 1, array.length - index);
+			result[index] = value;
+			return result;
+		}
+	}
+
+	/**
+	 *
+	 * @param names file names to skip; empty names are ignored
+	 */
+	public SkipFileMatcher(@NonNull final Collection<String> names) {
+		val wildcards = new StringBuilder();
+		for (val name : names) {
+			val isSuffix = name.startsWith("*");
+			val start = isSuffix ? 1 : 0;
+			if (name.length() == start) {
+				continue;
+			}
+			if ((name.indexOf('*', start) >= 0) || (name.indexOf('?') >= 0)) {
+				appendWildcardRegex(wildcards, name);
+				continue;
+			}
+
+			Node node = root;
+			for (int i = name.length() - 1; i >= start; i--) {
+				node = node.getOrAddChild(fold(name.charAt(i)));
+			}
+			if (isSuffix) {
+				node.isSuffix = true;
+			} else {
+				node.isName = true;
+			}
+		}
+		wildcardPattern = (wildcards.length() == 0) ? null : Pattern.compile(wildcards.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+	}
+
+	/**
+	 * Appends name as an alternative of the regular expression, * matching any characters and ? a single one.
+	 */
+	private static void appendWildcardRegex(final StringBuilder regex, final String name) {
+		if (regex.length() > 0) {
+			regex.append('|');
+		}
+		regex.append("(?:");
+		for (val c : name.toCharArray()) {
+			if (c == '*') {
+				regex.append(".*");
+			} else if (c == '?') {
+				regex.append('.');
+			} else {
+				regex.append(Pattern.quote(String.valueOf(c)));
+			}
+		}
+		regex.append(')');
+	}
+
+	/**
+	 *
+	 * @param path raw or normalized path; {@link com.sun.jna.WString} can be passed as is
+	 * @return true if the file name of path is one of the skipped names
+	 */
+	public boolean matches(@NonNull final CharSequence path) {
+		return matchesTrie(path) || (Objects.nonNull(wildcardPattern) && matchesWildcards(path));
+	}
+
+	private boolean matchesTrie(final CharSequence path) {
+		Node node = root;
+		for (int i = path.length() - 1; i >= 0; i--) {
+			node = node.child(fold(path.charAt(i)));
+			if (Objects.isNull(node)) {
+				return false;
+			}
+			if (node.isSuffix || (node.isName && ((i == 0) || isSeparator(path.charAt(i - 1))))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean matchesWildcards(final CharSequence path) {
+		int start = path.length();
+		while ((start > 0) && !isSeparator(path.charAt(start - 1))) {
+			start--;
+		}
+		return wildcardPattern.matcher(CharBuffer.wrap(path, start, path.length())).matches();
+	}
+
+	private static boolean isSeparator(final char c) {
+		return (c == '\\') || (c == '/');
+	}
+
+	/**
+	 * Same folding as {@link String#equalsIgnoreCase(String)}.
+	 */
+	private static char fold(final char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+}
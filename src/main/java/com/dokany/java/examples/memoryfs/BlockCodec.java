@@ -0,0 +1,150 @@
+package com.dokany.java.examples.memoryfs;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+
+import jetbrains.exodus.ArrayByteIterable;
+import jetbrains.exodus.ByteIterable;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * Encodes the values of a content store according to its {@link Compression}. With {@link Compression#NONE} values are the blocks themselves. Otherwise every value starts with
+ * a tag byte: {@link #RAW} is followed by the block, {@link #LZ4_BLOCK} by the length of the block as a big-endian int and the LZ4 compressed block.
+ *
+ * Blocks are compressed independently, so each can be decoded without its neighbours. Every encode and decode is counted and its CPU time is measured for {@link CompressionStats}.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+final class BlockCodec {
+
+	private static final byte RAW = 0;
+	private static final byte LZ4_BLOCK = 1;
+	private static final int LZ4_HEADER_LENGTH = 1 + 4;
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	@Getter
+	Compression compression;
+	LZ4Compressor compressor;
+	LZ4FastDecompressor decompressor;
+
+	LongAdder compressedBlocks = new LongAdder();
+	LongAdder rawBlocks = new LongAdder();
+	LongAdder inputBytes = new LongAdder();
+	LongAdder outputBytes = new LongAdder();
+	LongAdder compressNanos = new LongAdder();
+	LongAdder decompressedBytes = new LongAdder();
+	LongAdder decompressNanos = new LongAdder();
+
+	BlockCodec(@NonNull final Compression compression) {
+		this.compression = compression;
+		if (compression == Compression.LZ4) {
+			// native through JNI when available, otherwise the fastest Java implementation
+			val factory = LZ4Factory.fastestInstance();
+			compressor = factory.fastCompressor();
+			decompressor = factory.fastDecompressor();
+		} else {
+			compressor = null;
+			decompressor = null;
+		}
+	}
+
+	/**
+	 *
+	 * @param block
+	 * @param length number of bytes of block to encode
+	 * @return value to store
+	 */
+	ByteIterable encode(@NonNull final byte[] block, final int length) {
+		if (compression == Compression.NONE) {
+			return new ArrayByteIterable(block, length);
+		}
+
+		val start = cpuNanos();
+		val encoded = new byte[LZ4_HEADER_LENGTH + compressor.maxCompressedLength(length)];
+		val compressedLength = compressor.compress(block, 0, length, encoded, LZ4_HEADER_LENGTH, encoded.length - LZ4_HEADER_LENGTH);
+		compressNanos.add(cpuNanos() - start);
+		inputBytes.add(length);
+
+		// a compressed block has to be decompressed on every read, so it must save enough to be worth it
+		if ((LZ4_HEADER_LENGTH + compressedLength) > (length - (length >> 3))) {
+			val raw = new byte[1 + length];
+			raw[0] = RAW;
+			System.arraycopy(block, 0, raw, 1, length);
+			rawBlocks.increment();
+			outputBytes.add(raw.length);
+			return new ArrayByteIterable(raw);
+		}
+		encoded[0] = LZ4_BLOCK;
+		ByteBuffer.wrap(encoded).putInt(1, length);
+		compressedBlocks.increment();
+		outputBytes.add(LZ4_HEADER_LENGTH + compressedLength);
+		return new ArrayByteIterable(encoded, LZ4_HEADER_LENGTH + compressedLength);
+	}
+
+	/**
+	 *
+	 * @param value stored value
+	 * @return the block; a view of value itself unless it had to be decompressed
+	 */
+	ByteBuffer decode(@NonNull final ByteIterable value) {
+		val bytes = value.getBytesUnsafe();
+		if (compression == Compression.NONE) {
+			return ByteBuffer.wrap(bytes, 0, value.getLength());
+		}
+
+		switch (bytes[0]) {
+		case RAW:
+			return ByteBuffer.wrap(bytes, 1, value.getLength() - 1).slice();
+		case LZ4_BLOCK: {
+			val start = cpuNanos();
+			val block = new byte[ByteBuffer.wrap(bytes).getInt(1)];
+			decompressor.decompress(bytes, LZ4_HEADER_LENGTH, block, 0, block.length);
+			decompressNanos.add(cpuNanos() - start);
+			decompressedBytes.add(block.length);
+			return ByteBuffer.wrap(block);
+		}
+		default:
+			throw new IllegalStateException("Unknown block encoding " + bytes[0]);
+		}
+	}
+
+	/**
+	 *
+	 * @param value stored value
+	 * @return length of the block without decoding it
+	 */
+	int getDecodedLength(@NonNull final ByteIterable value) {
+		if (compression == Compression.NONE) {
+			return value.getLength();
+		}
+		val bytes = value.getBytesUnsafe();
+		return bytes[0] == RAW ? value.getLength() - 1 : ByteBuffer.wrap(bytes).getInt(1);
+	}
+
+	/**
+	 *
+	 * @return CPU time of the current thread, or wall clock time if the JVM cannot measure it
+	 */
+	private static long cpuNanos() {
+		return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+	}
+
+	CompressionStats getStats() {
+		return new CompressionStats(
+		        compressedBlocks.sum(),
+		        rawBlocks.sum(),
+		        inputBytes.sum(),
+		        outputBytes.sum(),
+		        compressNanos.sum(),
+		        decompressedBytes.sum(),
+		        decompressNanos.sum());
+	}
+}
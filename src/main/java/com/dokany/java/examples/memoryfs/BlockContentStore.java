@@ -0,0 +1,234 @@
+package com.dokany.java.examples.memoryfs;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+import jetbrains.exodus.ArrayByteIterable;
+import jetbrains.exodus.ByteIterable;
+import jetbrains.exodus.bindings.LongBinding;
+import jetbrains.exodus.env.Environment;
+import jetbrains.exodus.env.Store;
+import jetbrains.exodus.env.StoreConfig;
+import jetbrains.exodus.env.Transaction;
+import jetbrains.exodus.vfs.File;
+import lombok.AccessLevel;
+import lombok.Cleanup;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * {@link ContentLayout#BLOCKS}: file contents cut into fixed-size blocks, each stored under (file descriptor, block number) in a dedicated Xodus store. Keys are big-endian so the
+ * blocks of a file are adjacent and ordered, and a range of blocks is a single cursor walk.
+ *
+ * A write only rewrites the blocks it covers. Blocks which were never written are not stored and read as zeros, as do bytes of a stored block past its end, so the last block of a
+ * file is stored only up to the end of the file. Lengths are kept in a second store.
+ *
+ * Blocks are encoded by a {@link BlockCodec}, so with {@link Compression#LZ4} a read decompresses only the blocks it covers.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+final class BlockContentStore implements ContentStore {
+
+	private static final String BLOCK_STORE_NAME = "com.dokany.java.blocks";
+	private static final String LENGTH_STORE_NAME = "com.dokany.java.lengths";
+
+	@Getter
+	int blockSize;
+	Store blocks;
+	// file descriptor -> length
+	Store lengths;
+	BlockCodec codec;
+	/**
+	 * Source of zeros for sparse ranges; never written to.
+	 */
+	byte[] zeros;
+
+	BlockContentStore(@NonNull final Environment env, final int blockSize, @NonNull final BlockCodec codec) {
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+		}
+		this.blockSize = blockSize;
+		this.codec = codec;
+		zeros = new byte[blockSize];
+		blocks = env.computeInTransaction((@NonNull final Transaction txn) -> env.openStore(BLOCK_STORE_NAME, StoreConfig.WITHOUT_DUPLICATES_WITH_PREFIXING, txn));
+		lengths = env.computeInTransaction((@NonNull final Transaction txn) -> env.openStore(LENGTH_STORE_NAME, StoreConfig.WITHOUT_DUPLICATES, txn));
+	}
+
+	@Override
+	public long getLength(@NonNull final Transaction txn, @NonNull final File file) {
+		val length = lengths.get(txn, LongBinding.longToEntry(file.getDescriptor()));
+		return Objects.isNull(length) ? 0 : LongBinding.entryToLong(length);
+	}
+
+	private void setStoredLength(@NonNull final Transaction txn, @NonNull final File file, final long length) {
+		lengths.put(txn, LongBinding.longToEntry(file.getDescriptor()), LongBinding.longToEntry(length));
+	}
+
+	/**
+	 * Walks the stored blocks of the range with one cursor and fills the gaps between them with zeros.
+	 */
+	@Override
+	public int read(@NonNull final Transaction txn, @NonNull final File file, final long offset, @NonNull final ByteBuffer dst) {
+		val length = getLength(txn, file);
+		if (offset >= length) {
+			return 0;
+		}
+		val fileId = file.getDescriptor();
+		val end = offset + Math.min(dst.remaining(), length - offset);
+
+		@Cleanup
+		val cursor = blocks.openCursor(txn);
+		boolean hasBlock = Objects.nonNull(cursor.getSearchKeyRange(blockKey(fileId, offset / blockSize)));
+
+		long position = offset;
+		while (position < end) {
+			val blockNo = position / blockSize;
+			val inBlock = (int) (position % blockSize);
+			val count = (int) Math.min(blockSize - inBlock, end - position);
+
+			if (hasBlock && (getFileId(cursor.getKey()) != fileId)) {
+				hasBlock = false;
+			}
+			if (hasBlock && (getBlockNo(cursor.getKey()) == blockNo)) {
+				val block = codec.decode(cursor.getValue());
+				val stored = Math.max(0, Math.min(count, block.remaining() - inBlock));
+				// a read may start past the stored bytes of a short block, which has no bytes to copy then
+				if (stored > 0) {
+					dst.put(block.array(), block.arrayOffset() + inBlock, stored);
+				}
+				dst.put(zeros, 0, count - stored);
+				hasBlock = cursor.getNext();
+			} else {
+				dst.put(zeros, 0, count);
+			}
+			position += count;
+		}
+		return (int) (end - offset);
+	}
+
+	/**
+	 * Whole blocks are stored as they are; partly covered blocks are merged with their stored bytes.
+	 */
+	@Override
+	public void write(@NonNull final Transaction txn, @NonNull final File file, final long offset, @NonNull final byte[] data, final int length) {
+		val fileId = file.getDescriptor();
+
+		long position = offset;
+		int written = 0;
+		while (written < length) {
+			val blockNo = position / blockSize;
+			val inBlock = (int) (position % blockSize);
+			val count = Math.min(blockSize - inBlock, length - written);
+			val key = blockKey(fileId, blockNo);
+
+			final byte[] block;
+			if (count == blockSize) {
+				block = Arrays.copyOfRange(data, written, written + count);
+			} else {
+				val existingValue = blocks.get(txn, key);
+				val existing = Objects.isNull(existingValue) ? null : codec.decode(existingValue);
+				val existingLength = Objects.isNull(existing) ? 0 : existing.remaining();
+				block = new byte[Math.max(existingLength, inBlock + count)];
+				if (existingLength > 0) {
+					existing.get(block, 0, existingLength);
+				}
+				System.arraycopy(data, written, block, inBlock, count);
+			}
+			blocks.put(txn, key, codec.encode(block, block.length));
+
+			position += count;
+			written += count;
+		}
+
+		if (position > getLength(txn, file)) {
+			setStoredLength(txn, file, position);
+		}
+	}
+
+	/**
+	 * Shrinking deletes the blocks past the new end and cuts the new last block, so growing the file again exposes zeros. Growing only records the length.
+	 */
+	@Override
+	public void setLength(@NonNull final Transaction txn, @NonNull final File file, final long length) {
+		if (length < 0) {
+			throw new IllegalArgumentException("length cannot be negative: " + length);
+		}
+		if (length < getLength(txn, file)) {
+			val fileId = file.getDescriptor();
+			deleteBlocks(txn, fileId, (length + blockSize - 1) / blockSize);
+
+			val tail = (int) (length % blockSize);
+			if (tail != 0) {
+				val key = blockKey(fileId, length / blockSize);
+				val lastBlock = blocks.get(txn, key);
+				if (Objects.nonNull(lastBlock) && (codec.getDecodedLength(lastBlock) > tail)) {
+					val truncated = new byte[tail];
+					codec.decode(lastBlock).get(truncated);
+					blocks.put(txn, key, codec.encode(truncated, tail));
+				}
+			}
+		}
+		setStoredLength(txn, file, length);
+	}
+
+	@Override
+	public void delete(@NonNull final Transaction txn, @NonNull final File file) {
+		deleteBlocks(txn, file.getDescriptor(), 0);
+		lengths.delete(txn, LongBinding.longToEntry(file.getDescriptor()));
+	}
+
+	/**
+	 * Logical bytes are the sum of the file lengths; sparse ranges are not stored. Stored bytes are the encoded blocks, so they reflect compression.
+	 */
+	@Override
+	public ContentStats getStats(@NonNull final Transaction txn) {
+		long logicalBytes = 0;
+		{
+			@Cleanup
+			val cursor = lengths.openCursor(txn);
+			while (cursor.getNext()) {
+				logicalBytes += LongBinding.entryToLong(cursor.getValue());
+			}
+		}
+		long storedBytes = 0;
+		{
+			@Cleanup
+			val cursor = blocks.openCursor(txn);
+			while (cursor.getNext()) {
+				storedBytes += cursor.getValue().getLength();
+			}
+		}
+		return new ContentStats(logicalBytes, storedBytes);
+	}
+
+	/**
+	 * Deletes the blocks of fileId from firstBlockNo on.
+	 */
+	private void deleteBlocks(@NonNull final Transaction txn, final long fileId, final long firstBlockNo) {
+		@Cleanup
+		val cursor = blocks.openCursor(txn);
+		if (Objects.isNull(cursor.getSearchKeyRange(blockKey(fileId, firstBlockNo)))) {
+			return;
+		}
+		do {
+			if (getFileId(cursor.getKey()) != fileId) {
+				break;
+			}
+			cursor.deleteCurrent();
+		} while (cursor.getNext());
+	}
+
+	private static ByteIterable blockKey(final long fileId, final long blockNo) {
+		return new ArrayByteIterable(ByteBuffer.allocate(16).putLong(fileId).putLong(blockNo).array());
+	}
+
+	private static long getFileId(@NonNull final ByteIterable key) {
+		return ByteBuffer.wrap(key.getBytesUnsafe(), 0, key.getLength()).getLong(0);
+	}
+
+	private static long getBlockNo(@NonNull final ByteIterable key) {
+		return ByteBuffer.wrap(key.getBytesUnsafe(), 0, key.getLength()).getLong(8);
+	}
+}
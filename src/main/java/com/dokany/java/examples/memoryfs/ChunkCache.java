@@ -0,0 +1,56 @@
+package com.dokany.java.examples.memoryfs;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Least recently used chunks of a {@link DedupContentStore}, bounded by their total size. Chunks are immutable and keyed by their hash, so cached chunks never go stale.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+final class ChunkCache {
+
+	final long maxBytes;
+	final LinkedHashMap<ByteBuffer, byte[]> chunks = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Guarded by chunks.
+	 */
+	long cachedBytes;
+
+	ChunkCache(final long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 *
+	 * @param hash
+	 * @return chunk or null if it is not cached
+	 */
+	byte[] get(@NonNull final byte[] hash) {
+		synchronized (chunks) {
+			return chunks.get(ByteBuffer.wrap(hash));
+		}
+	}
+
+	void put(@NonNull final byte[] hash, @NonNull final byte[] chunk) {
+		if (chunk.length > maxBytes) {
+			return;
+		}
+		synchronized (chunks) {
+			val previous = chunks.put(ByteBuffer.wrap(hash), chunk);
+			cachedBytes += chunk.length - (Objects.isNull(previous) ? 0 : previous.length);
+
+			val eldest = chunks.values().iterator();
+			while (cachedBytes > maxBytes) {
+				cachedBytes -= eldest.next().length;
+				eldest.remove();
+			}
+		}
+	}
+}
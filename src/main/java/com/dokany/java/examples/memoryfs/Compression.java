@@ -0,0 +1,17 @@
+package com.dokany.java.examples.memoryfs;
+
+/**
+ * How {@link MemoryFS} compresses the blocks of {@link ContentLayout#BLOCKS} and the chunks of {@link ContentLayout#DEDUP}. Not supported with {@link ContentLayout#STREAM}.
+ */
+public enum Compression {
+	/**
+	 * Blocks are stored as they are.
+	 */
+	NONE,
+
+	/**
+	 * Each block is compressed on its own with LZ4, so a read only decompresses the blocks it touches. Blocks which LZ4 does not shrink by at least an eighth are stored raw, so
+	 * incompressible data costs one byte per block and no decompression. See {@link BlockCodec}.
+	 */
+	LZ4;
+}
@@ -0,0 +1,71 @@
+package com.dokany.java.examples.memoryfs;
+
+import lombok.Value;
+
+/**
+ * Work done by the block compression of a {@link MemoryFS} volume since it was created, see {@link MemoryFS#getCompressionStats()}.
+ */
+@Value
+public class CompressionStats {
+	private static final double BYTES_PER_MB = 1024d * 1024d;
+
+	/**
+	 * Blocks stored compressed.
+	 */
+	long compressedBlocks;
+
+	/**
+	 * Blocks stored raw because compression did not shrink them enough.
+	 */
+	long rawBlocks;
+
+	/**
+	 * Bytes of blocks passed to the compressor.
+	 */
+	long inputBytes;
+
+	/**
+	 * Bytes of the encoded blocks, headers included.
+	 */
+	long outputBytes;
+
+	/**
+	 * CPU time spent in the compressor, measured with {@link java.lang.management.ThreadMXBean#getCurrentThreadCpuTime()} around each call. Falls back to wall clock time on JVMs
+	 * which cannot measure thread CPU time.
+	 */
+	long compressNanos;
+
+	/**
+	 * Bytes of blocks produced by decompression; raw blocks are not counted.
+	 */
+	long decompressedBytes;
+
+	/**
+	 * CPU time spent in the decompressor, measured like {@link #compressNanos}.
+	 */
+	long decompressNanos;
+
+	/**
+	 *
+	 * @return input bytes per output byte; 1 when nothing was compressed
+	 */
+	public double getRatio() {
+		return outputBytes == 0 ? 1 : (double) inputBytes / outputBytes;
+	}
+
+	/**
+	 *
+	 * @return CPU time spent compressing per MiB of input, raw blocks included since they were compressed too
+	 */
+	public double getCompressNanosPerMB() {
+		return inputBytes == 0 ? 0 : (compressNanos * BYTES_PER_MB) / inputBytes;
+	}
+
+	/**
+	 *
+	 * @return CPU time spent decompressing per MiB of output
+	 */
+	public double getDecompressNanosPerMB() {
+		return decompressedBytes == 0 ? 0 : (decompressNanos * BYTES_PER_MB) / decompressedBytes;
+	}
+}
@@ -0,0 +1,23 @@
+package com.dokany.java.examples.memoryfs;
+
+/**
+ * How {@link MemoryFS} stores file contents in Xodus.
+ */
+public enum ContentLayout {
+	/**
+	 * One Xodus VFS stream per file. Files cannot be shrunk.
+	 */
+	STREAM,
+
+	/**
+	 * Fixed-size blocks keyed by file and block number, see {@link BlockContentStore}. Writes only touch the blocks they cover, files can be resized in place and ranges never
+	 * written read as zeros without being stored.
+	 */
+	BLOCKS,
+
+	/**
+	 * Content-defined chunks stored once per distinct content with reference counts, see {@link DedupContentStore}. For volumes of many near-identical, mostly write-once files
+	 * such as build artifacts.
+	 */
+	DEDUP;
+}
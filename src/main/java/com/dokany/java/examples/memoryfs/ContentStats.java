@@ -0,0 +1,27 @@
+package com.dokany.java.examples.memoryfs;
+
+import lombok.Value;
+
+/**
+ * Size of the file contents of a {@link MemoryFS} volume, see {@link MemoryFS#getContentStats()}.
+ */
+@Value
+public class ContentStats {
+	/**
+	 * Sum of the lengths of all files.
+	 */
+	long logicalBytes;
+
+	/**
+	 * Bytes of file contents stored in Xodus, not counting keys and indexes.
+	 */
+	long storedBytes;
+
+	/**
+	 *
+	 * @return logical bytes per stored byte; above 1 when contents are deduplicated or sparse
+	 */
+	public double getRatio() {
+		return storedBytes == 0 ? 1 : (double) logicalBytes / storedBytes;
+	}
+}
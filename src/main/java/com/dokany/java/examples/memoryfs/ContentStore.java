@@ -0,0 +1,72 @@
+package com.dokany.java.examples.memoryfs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import jetbrains.exodus.env.Transaction;
+import jetbrains.exodus.vfs.File;
+import lombok.NonNull;
+
+/**
+ * Stores the contents of {@link MemoryFS} files. Every call runs in the transaction of the caller so contents and file info are committed together.
+ */
+interface ContentStore {
+
+	/**
+	 *
+	 * @param txn
+	 * @param file
+	 * @return length of file in bytes
+	 */
+	long getLength(@NonNull Transaction txn, @NonNull File file);
+
+	/**
+	 * Reads file at offset until dst is full or the file ends.
+	 *
+	 * @param txn
+	 * @param file
+	 * @param offset
+	 * @param dst
+	 * @return number of bytes read
+	 * @throws IOException
+	 */
+	int read(@NonNull Transaction txn, @NonNull File file, long offset, @NonNull ByteBuffer dst) throws IOException;
+
+	/**
+	 * Writes the first length bytes of data at offset, growing the file if needed.
+	 *
+	 * @param txn
+	 * @param file
+	 * @param offset
+	 * @param data
+	 * @param length
+	 * @throws IOException
+	 */
+	void write(@NonNull Transaction txn, @NonNull File file, long offset, @NonNull byte[] data, int length) throws IOException;
+
+	/**
+	 * Truncates or extends file to length. Extended ranges read as zeros.
+	 *
+	 * @param txn
+	 * @param file
+	 * @param length
+	 * @throws IOException
+	 */
+	void setLength(@NonNull Transaction txn, @NonNull File file, long length) throws IOException;
+
+	/**
+	 * Removes the contents of file. Called before file is deleted.
+	 *
+	 * @param txn
+	 * @param file
+	 */
+	void delete(@NonNull Transaction txn, @NonNull File file);
+
+	/**
+	 * Walks all contents; meant for reporting, not for every call.
+	 *
+	 * @param txn
+	 * @return logical and stored bytes of all files
+	 */
+	ContentStats getStats(@NonNull Transaction txn);
+}
@@ -0,0 +1,393 @@
+package com.dokany.java.examples.memoryfs;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+import jetbrains.exodus.ArrayByteIterable;
+import jetbrains.exodus.ByteIterable;
+import jetbrains.exodus.bindings.IntegerBinding;
+import jetbrains.exodus.bindings.LongBinding;
+import jetbrains.exodus.env.Environment;
+import jetbrains.exodus.env.Store;
+import jetbrains.exodus.env.StoreConfig;
+import jetbrains.exodus.env.Transaction;
+import jetbrains.exodus.vfs.File;
+import lombok.AccessLevel;
+import lombok.Cleanup;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * {@link ContentLayout#DEDUP}: file contents cut into chunks by content-defined chunking, each distinct chunk stored once under its SHA-256 with a reference count. A file is the
+ * list of its chunks, stored under (file descriptor, end offset) so the chunk holding an offset is found with a single cursor search.
+ *
+ * Chunk boundaries are chosen with a gear rolling hash over the contents, so inserting or removing bytes only changes the chunks around the edit and near-identical files share
+ * most of their chunks. Chunks are between {@link #MIN_CHUNK_SIZE} and {@link #MAX_CHUNK_SIZE} bytes and about 8 KiB on average.
+ *
+ * A write re-chunks only the chunks it touches. Appends include the last chunk of the file so boundaries stay content-defined when a file is written sequentially. Reads go
+ * through a {@link ChunkCache}. Suited to write-once contents such as build artifacts: every write rewrites whole chunks.
+ *
+ * Chunks are encoded by a {@link BlockCodec}; hashes are of the plain chunks, and the cache holds them decoded.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+final class DedupContentStore implements ContentStore {
+
+	static final int MIN_CHUNK_SIZE = 2 * 1024;
+	static final int MAX_CHUNK_SIZE = 64 * 1024;
+	static final long DEFAULT_CACHE_BYTES = 8L * 1024L * 1024L;
+
+	/**
+	 * 13 bits give cuts every 8 KiB on average past the minimum. High bits are used since they depend on the last 64 bytes rather than the last few.
+	 */
+	private static final long CUT_MASK = ((1L << 13) - 1) << (64 - 13);
+	private static final int HASH_LENGTH = 32;
+
+	/**
+	 * Random value per byte for the gear hash. Seeded so chunk boundaries do not change between runs.
+	 */
+	private static final long[] GEAR = new SplittableRandom(0x646f6b616e79L).longs(256).toArray();
+
+	private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	});
+
+	private static final byte[] ZERO_CHUNK = new byte[MAX_CHUNK_SIZE];
+	private static final byte[] ZERO_CHUNK_HASH = SHA_256.get().digest(ZERO_CHUNK);
+
+	private static final String CHUNK_STORE_NAME = "com.dokany.java.chunks";
+	private static final String REFERENCE_STORE_NAME = "com.dokany.java.chunkrefs";
+	private static final String CHUNK_LIST_STORE_NAME = "com.dokany.java.chunklists";
+	private static final String LENGTH_STORE_NAME = "com.dokany.java.lengths";
+
+	// hash -> chunk
+	Store chunks;
+	// hash -> number of chunk list entries referring to it
+	Store references;
+	// (file descriptor, end offset) -> hash, length
+	Store chunkLists;
+	// file descriptor -> length
+	Store lengths;
+
+	ChunkCache cache;
+	BlockCodec codec;
+
+	/**
+	 * One entry of a chunk list.
+	 */
+	@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+	private static final class ChunkRef {
+		long start;
+		long end;
+		byte[] hash;
+
+		ChunkRef(@NonNull final ByteIterable key, @NonNull final ByteIterable value) {
+			val valueBuffer = ByteBuffer.wrap(value.getBytesUnsafe(), 0, value.getLength());
+			hash = new byte[HASH_LENGTH];
+			valueBuffer.get(hash);
+			end = getEnd(key);
+			start = end - valueBuffer.getInt();
+		}
+	}
+
+	DedupContentStore(@NonNull final Environment env, final long cacheBytes, @NonNull final BlockCodec codec) {
+		cache = new ChunkCache(cacheBytes);
+		this.codec = codec;
+		chunks = env.computeInTransaction((@NonNull final Transaction txn) -> env.openStore(CHUNK_STORE_NAME, StoreConfig.WITHOUT_DUPLICATES, txn));
+		references = env.computeInTransaction((@NonNull final Transaction txn) -> env.openStore(REFERENCE_STORE_NAME, StoreConfig.WITHOUT_DUPLICATES, txn));
+		chunkLists = env.computeInTransaction((@NonNull final Transaction txn) -> env.openStore(CHUNK_LIST_STORE_NAME, StoreConfig.WITHOUT_DUPLICATES_WITH_PREFIXING, txn));
+		lengths = env.computeInTransaction((@NonNull final Transaction txn) -> env.openStore(LENGTH_STORE_NAME, StoreConfig.WITHOUT_DUPLICATES, txn));
+	}
+
+	@Override
+	public long getLength(@NonNull final Transaction txn, @NonNull final File file) {
+		val length = lengths.get(txn, LongBinding.longToEntry(file.getDescriptor()));
+		return Objects.isNull(length) ? 0 : LongBinding.entryToLong(length);
+	}
+
+	private void setStoredLength(@NonNull final Transaction txn, final long fileId, final long length) {
+		lengths.put(txn, LongBinding.longToEntry(fileId), LongBinding.longToEntry(length));
+	}
+
+	@Override
+	public int read(@NonNull final Transaction txn, @NonNull final File file, final long offset, @NonNull final ByteBuffer dst) {
+		val length = getLength(txn, file);
+		if (offset >= length) {
+			return 0;
+		}
+		val fileId = file.getDescriptor();
+		val end = offset + Math.min(dst.remaining(), length - offset);
+
+		@Cleanup
+		val cursor = chunkLists.openCursor(txn);
+		// first chunk ending after offset is the one holding it
+		boolean hasChunk = Objects.nonNull(cursor.getSearchKeyRange(listKey(fileId, offset + 1)));
+
+		long position = offset;
+		while (hasChunk && (position < end) && (getFileId(cursor.getKey()) == fileId)) {
+			val chunkRef = new ChunkRef(cursor.getKey(), cursor.getValue());
+			val chunk = resolve(txn, chunkRef.hash);
+			val count = (int) (Math.min(chunkRef.end, end) - position);
+			dst.put(chunk, (int) (position - chunkRef.start), count);
+			position += count;
+			hasChunk = cursor.getNext();
+		}
+		return (int) (position - offset);
+	}
+
+	/**
+	 * Replaces the chunks overlapping the write with chunks of their contents merged with data. Writing past the end first appends zeros up to offset.
+	 */
+	@Override
+	public void write(@NonNull final Transaction txn, @NonNull final File file, final long offset, @NonNull final byte[] data, final int length) {
+		if (length == 0) {
+			return;
+		}
+		val fileId = file.getDescriptor();
+		long oldLength = getLength(txn, file);
+		if (offset > oldLength) {
+			appendZeros(txn, fileId, oldLength, offset);
+			oldLength = offset;
+		}
+		val writeEnd = offset + length;
+
+		// chunks overlapping the write, or the last chunk when appending
+		final List<ChunkRef> replaced = (oldLength == 0) ? new ArrayList<>() : getChunkRefs(txn, fileId, Math.min(offset, oldLength - 1), writeEnd);
+		val regionStart = replaced.isEmpty() ? offset : replaced.get(0).start;
+		val regionEnd = replaced.isEmpty() ? writeEnd : Math.max(writeEnd, replaced.get(replaced.size() - 1).end);
+
+		val region = new byte[Math.toIntExact(regionEnd - regionStart)];
+		for (val chunkRef : replaced) {
+			val chunk = resolve(txn, chunkRef.hash);
+			System.arraycopy(chunk, 0, region, (int) (chunkRef.start - regionStart), chunk.length);
+		}
+		System.arraycopy(data, 0, region, (int) (offset - regionStart), length);
+
+		// new entries may reuse the keys of old ones, so old entries go first and their chunks are released last in case they are reused
+		removeChunkRefs(txn, fileId, replaced);
+		putChunks(txn, fileId, regionStart, region, region.length);
+		releaseAll(txn, replaced);
+
+		if (writeEnd > oldLength) {
+			setStoredLength(txn, fileId, writeEnd);
+		}
+	}
+
+	@Override
+	public void setLength(@NonNull final Transaction txn, @NonNull final File file, final long length) {
+		if (length < 0) {
+			throw new IllegalArgumentException("length cannot be negative: " + length);
+		}
+		val fileId = file.getDescriptor();
+		val oldLength = getLength(txn, file);
+		if (length > oldLength) {
+			appendZeros(txn, fileId, oldLength, length);
+		} else if (length < oldLength) {
+			val removed = getChunkRefs(txn, fileId, length, Long.MAX_VALUE);
+			removeChunkRefs(txn, fileId, removed);
+			val first = removed.isEmpty() ? null : removed.get(0);
+			if (Objects.nonNull(first) && (first.start < length)) {
+				val prefix = Arrays.copyOf(resolve(txn, first.hash), (int) (length - first.start));
+				putChunks(txn, fileId, first.start, prefix, prefix.length);
+			}
+			releaseAll(txn, removed);
+		}
+		setStoredLength(txn, fileId, length);
+	}
+
+	@Override
+	public void delete(@NonNull final Transaction txn, @NonNull final File file) {
+		val fileId = file.getDescriptor();
+		val removed = getChunkRefs(txn, fileId, 0, Long.MAX_VALUE);
+		removeChunkRefs(txn, fileId, removed);
+		releaseAll(txn, removed);
+		lengths.delete(txn, LongBinding.longToEntry(fileId));
+	}
+
+	/**
+	 * Logical bytes are the sum of the file lengths; stored bytes count each distinct chunk once.
+	 */
+	@Override
+	public ContentStats getStats(@NonNull final Transaction txn) {
+		long logicalBytes = 0;
+		{
+			@Cleanup
+			val cursor = lengths.openCursor(txn);
+			while (cursor.getNext()) {
+				logicalBytes += LongBinding.entryToLong(cursor.getValue());
+			}
+		}
+		long storedBytes = 0;
+		{
+			@Cleanup
+			val cursor = chunks.openCursor(txn);
+			while (cursor.getNext()) {
+				storedBytes += cursor.getValue().getLength();
+			}
+		}
+		return new ContentStats(logicalBytes, storedBytes);
+	}
+
+	/**
+	 *
+	 * @return chunk list entries of fileId holding any byte in [from, to)
+	 */
+	private List<ChunkRef> getChunkRefs(@NonNull final Transaction txn, final long fileId, final long from, final long to) {
+		val chunkRefs = new ArrayList<ChunkRef>();
+		@Cleanup
+		val cursor = chunkLists.openCursor(txn);
+		if (Objects.isNull(cursor.getSearchKeyRange(listKey(fileId, from + 1)))) {
+			return chunkRefs;
+		}
+		do {
+			if (getFileId(cursor.getKey()) != fileId) {
+				break;
+			}
+			val chunkRef = new ChunkRef(cursor.getKey(), cursor.getValue());
+			if (chunkRef.start >= to) {
+				break;
+			}
+			chunkRefs.add(chunkRef);
+		} while (cursor.getNext());
+		return chunkRefs;
+	}
+
+	private void removeChunkRefs(@NonNull final Transaction txn, final long fileId, @NonNull final List<ChunkRef> chunkRefs) {
+		for (val chunkRef : chunkRefs) {
+			chunkLists.delete(txn, listKey(fileId, chunkRef.end));
+		}
+	}
+
+	private void releaseAll(@NonNull final Transaction txn, @NonNull final List<ChunkRef> chunkRefs) {
+		for (val chunkRef : chunkRefs) {
+			release(txn, chunkRef.hash);
+		}
+	}
+
+	/**
+	 * Cuts the first length bytes of region into chunks and adds them to the chunk list of fileId, region starting at file offset start.
+	 */
+	private void putChunks(@NonNull final Transaction txn, final long fileId, final long start, @NonNull final byte[] region, final int length) {
+		int chunkStart = 0;
+		while (chunkStart < length) {
+			val chunkEnd = nextCut(region, chunkStart, length);
+			val chunk = Arrays.copyOfRange(region, chunkStart, chunkEnd);
+			putChunk(txn, fileId, start + chunkEnd, chunk, SHA_256.get().digest(chunk));
+			chunkStart = chunkEnd;
+		}
+	}
+
+	/**
+	 * Adds zero chunks of {@link #MAX_CHUNK_SIZE} covering [from, to) without materializing the range; they all share one stored chunk.
+	 */
+	private void appendZeros(@NonNull final Transaction txn, final long fileId, final long from, final long to) {
+		for (long chunkStart = from; chunkStart < to; chunkStart += MAX_CHUNK_SIZE) {
+			val chunkLength = (int) Math.min(MAX_CHUNK_SIZE, to - chunkStart);
+			if (chunkLength == MAX_CHUNK_SIZE) {
+				putChunk(txn, fileId, chunkStart + chunkLength, ZERO_CHUNK, ZERO_CHUNK_HASH);
+			} else {
+				val chunk = new byte[chunkLength];
+				putChunk(txn, fileId, chunkStart + chunkLength, chunk, SHA_256.get().digest(chunk));
+			}
+		}
+	}
+
+	private void putChunk(@NonNull final Transaction txn, final long fileId, final long end, @NonNull final byte[] chunk, @NonNull final byte[] hash) {
+		acquire(txn, hash, chunk);
+		val value = ByteBuffer.allocate(HASH_LENGTH + 4).put(hash).putInt(chunk.length).array();
+		chunkLists.put(txn, listKey(fileId, end), new ArrayByteIterable(value));
+	}
+
+	/**
+	 *
+	 * @return end of the chunk starting at start: the first position past {@link #MIN_CHUNK_SIZE} where the gear hash matches {@link #CUT_MASK}, at most
+	 *         {@link #MAX_CHUNK_SIZE} and at most limit
+	 */
+	static int nextCut(@NonNull final byte[] data, final int start, final int limit) {
+		val end = (int) Math.min(limit, (long) start + MAX_CHUNK_SIZE);
+		if ((end - start) <= MIN_CHUNK_SIZE) {
+			return end;
+		}
+
+		long hash = 0;
+		// fill the hash with the 64 bytes before the minimum so the first candidate depends on a full window
+		for (int i = (start + MIN_CHUNK_SIZE) - 64; i < (start + MIN_CHUNK_SIZE); i++) {
+			hash = (hash << 1) + GEAR[data[i] & 0xff];
+		}
+		for (int i = start + MIN_CHUNK_SIZE; i < end; i++) {
+			hash = (hash << 1) + GEAR[data[i] & 0xff];
+			if ((hash & CUT_MASK) == 0) {
+				return i + 1;
+			}
+		}
+		return end;
+	}
+
+	private void acquire(@NonNull final Transaction txn, @NonNull final byte[] hash, @NonNull final byte[] chunk) {
+		val key = new ArrayByteIterable(hash);
+		val count = references.get(txn, key);
+		if (Objects.isNull(count)) {
+			chunks.put(txn, key, codec.encode(chunk, chunk.length));
+			references.put(txn, key, IntegerBinding.intToEntry(1));
+		} else {
+			references.put(txn, key, IntegerBinding.intToEntry(IntegerBinding.entryToInt(count) + 1));
+		}
+	}
+
+	private void release(@NonNull final Transaction txn, @NonNull final byte[] hash) {
+		val key = new ArrayByteIterable(hash);
+		val count = references.get(txn, key);
+		if (Objects.isNull(count)) {
+			return;
+		}
+		val remaining = IntegerBinding.entryToInt(count) - 1;
+		if (remaining > 0) {
+			references.put(txn, key, IntegerBinding.intToEntry(remaining));
+		} else {
+			references.delete(txn, key);
+			chunks.delete(txn, key);
+		}
+	}
+
+	/**
+	 *
+	 * @return chunk for hash, from the cache if possible
+	 */
+	private byte[] resolve(@NonNull final Transaction txn, @NonNull final byte[] hash) {
+		val cached = cache.get(hash);
+		if (Objects.nonNull(cached)) {
+			return cached;
+		}
+		val stored = chunks.get(txn, new ArrayByteIterable(hash));
+		if (Objects.isNull(stored)) {
+			throw new IllegalStateException("Chunk list refers to a missing chunk");
+		}
+		val decoded = codec.decode(stored);
+		val chunk = new byte[decoded.remaining()];
+		decoded.get(chunk);
+		cache.put(hash, chunk);
+		return chunk;
+	}
+
+	private static ByteIterable listKey(final long fileId, final long end) {
+		return new ArrayByteIterable(ByteBuffer.allocate(16).putLong(fileId).putLong(end).array());
+	}
+
+	private static long getFileId(@NonNull final ByteIterable key) {
+		return ByteBuffer.wrap(key.getBytesUnsafe(), 0, key.getLength()).getLong(0);
+	}
+
+	private static long getEnd(@NonNull final ByteIterable key) {
+		return ByteBuffer.wrap(key.getBytesUnsafe(), 0, key.getLength()).getLong(8);
+	}
+}
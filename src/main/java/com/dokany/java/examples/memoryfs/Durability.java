@@ -0,0 +1,21 @@
+package com.dokany.java.examples.memoryfs;
+
+/**
+ * How {@link MemoryFS} commits writes.
+ */
+public enum Durability {
+	/**
+	 * Writes are coalesced in memory and committed in one transaction on FlushFileBuffers, Cleanup or when the size or age threshold is reached.
+	 */
+	WRITE_BACK,
+
+	/**
+	 * Every write is committed in its own transaction.
+	 */
+	WRITE_THROUGH,
+
+	/**
+	 * Like {@link #WRITE_THROUGH} and the Xodus log is synced to disk on every commit.
+	 */
+	SYNC;
+}
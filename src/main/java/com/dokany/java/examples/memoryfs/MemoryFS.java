@@ -2,26 +2,39 @@ package com.dokany.java.examples.memoryfs;
 
 import static com.sun.jna.platform.win32.WinNT.FILE_ATTRIBUTE_NORMAL;
 
-import java.io.DataOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.FileSystems;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.io.FilenameUtils;
+
+import com.dokany.java.DokanyException;
 import com.dokany.java.DokanyFileSystem;
+import com.dokany.java.DokanyUtils;
+import com.dokany.java.FindDataSink;
 import com.dokany.java.Win32FindStreamData;
 import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.structure.ByHandleFileInfo;
 import com.dokany.java.structure.DeviceOptions;
 import com.dokany.java.structure.DokanyFileInfo;
 import com.dokany.java.structure.EnumIntegerSet;
 import com.dokany.java.structure.FileData;
 import com.dokany.java.structure.FreeSpace;
 import com.dokany.java.structure.FullFileInfo;
+import com.dokany.java.structure.FullFileInfoCodec;
 import com.dokany.java.structure.VolumeInformation;
 import com.sun.jna.platform.win32.WinBase.FILETIME;
 import com.sun.jna.platform.win32.WinBase.WIN32_FIND_DATA;
@@ -29,12 +42,12 @@ import com.sun.jna.platform.win32.WinBase.WIN32_FIND_DATA;
 import jetbrains.exodus.bindings.StringBinding;
 import jetbrains.exodus.core.dataStructures.hash.HashSet;
 import jetbrains.exodus.env.Environment;
+import jetbrains.exodus.env.EnvironmentConfig;
 import jetbrains.exodus.env.Environments;
 import jetbrains.exodus.env.Store;
 import jetbrains.exodus.env.StoreConfig;
 import jetbrains.exodus.env.Transaction;
 import jetbrains.exodus.vfs.File;
-import jetbrains.exodus.vfs.VfsInputStream;
 import jetbrains.exodus.vfs.VirtualFileSystem;
 import lombok.AccessLevel;
 import lombok.Cleanup;
@@ -46,43 +59,168 @@ import lombok.extern.slf4j.Slf4j;
 /**
  *
  * In memory (virtual) filesystem backed by Xodus
+ *
+ * With {@link Durability#WRITE_BACK} pending writes are buffered per path rather than per handle, so all handles of a file share one buffer and see each other's writes before
+ * they are committed. Cleanup of any handle commits the buffer of its path.
  */
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 @Slf4j
 public class MemoryFS extends DokanyFileSystem {
 
-	/**
-	 * Path matcher glob
-	 */
-	static String GLOB = "glob:";
-	static java.nio.file.FileSystem DEFAULT_FS = FileSystems.getDefault();
+	public static final long DEFAULT_WRITE_BACK_MAX_BYTES = 4L * 1024L * 1024L;
+	public static final long DEFAULT_WRITE_BACK_MAX_AGE_MILLIS = 1000L;
+	public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+	private static final String INFO_STORE_NAME = "com.dokany.java.fileinfo.v2";
 
 	// VFS - virtual file store provided by xodus
 	Environment env;
 	VirtualFileSystem vfs;
 	Store infoStore;
+	// parent path -> child paths so a directory can be listed without scanning the whole VFS
+	Store childrenStore;
+	ContentStore content;
+	BlockCodec codec;
 
+	Durability durability;
+	long writeBackMaxBytes;
+	long writeBackMaxAgeNanos;
+	// path -> writes not committed yet; only used with Durability.WRITE_BACK
+	ConcurrentHashMap<String, WriteBackBuffer> pendingWrites = new ConcurrentHashMap<>();
+
+	/**
+	 * Uses {@link Durability#WRITE_THROUGH} and {@link ContentLayout#BLOCKS}.
+	 */
 	public MemoryFS(
 	        @NonNull final DeviceOptions deviceOptions,
 	        @NonNull final VolumeInformation volumeInfo,
 	        @NonNull final FreeSpace freeSpace,
 	        @NonNull final Date rootCreationDate,
 	        @NonNull final String rootPath) throws IOException {
+		this(deviceOptions, volumeInfo, freeSpace, rootCreationDate, rootPath, Durability.WRITE_THROUGH, DEFAULT_WRITE_BACK_MAX_BYTES, DEFAULT_WRITE_BACK_MAX_AGE_MILLIS);
+	}
+
+	/**
+	 *
+	 * @param deviceOptions
+	 * @param volumeInfo
+	 * @param freeSpace
+	 * @param rootCreationDate
+	 * @param rootPath
+	 * @param durability how writes are committed
+	 * @param writeBackMaxBytes pending bytes of a file which trigger a flush (only for {@link Durability#WRITE_BACK})
+	 * @param writeBackMaxAgeMillis age of the oldest pending write of a file which triggers a flush on the next write (only for {@link Durability#WRITE_BACK})
+	 * @throws IOException
+	 */
+	public MemoryFS(
+	        @NonNull final DeviceOptions deviceOptions,
+	        @NonNull final VolumeInformation volumeInfo,
+	        @NonNull final FreeSpace freeSpace,
+	        @NonNull final Date rootCreationDate,
+	        @NonNull final String rootPath,
+	        @NonNull final Durability durability,
+	        final long writeBackMaxBytes,
+	        final long writeBackMaxAgeMillis) throws IOException {
+		this(deviceOptions, volumeInfo, freeSpace, rootCreationDate, rootPath, durability, writeBackMaxBytes, writeBackMaxAgeMillis, ContentLayout.BLOCKS, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 *
+	 * @param deviceOptions
+	 * @param volumeInfo
+	 * @param freeSpace
+	 * @param rootCreationDate
+	 * @param rootPath
+	 * @param durability how writes are committed
+	 * @param writeBackMaxBytes pending bytes of a file which trigger a flush (only for {@link Durability#WRITE_BACK})
+	 * @param writeBackMaxAgeMillis age of the oldest pending write of a file which triggers a flush on the next write (only for {@link Durability#WRITE_BACK})
+	 * @param contentLayout how file contents are stored
+	 * @param blockSize size of each block (only for {@link ContentLayout#BLOCKS})
+	 * @throws IOException
+	 */
+	public MemoryFS(
+	        @NonNull final DeviceOptions deviceOptions,
+	        @NonNull final VolumeInformation volumeInfo,
+	        @NonNull final FreeSpace freeSpace,
+	        @NonNull final Date rootCreationDate,
+	        @NonNull final String rootPath,
+	        @NonNull final Durability durability,
+	        final long writeBackMaxBytes,
+	        final long writeBackMaxAgeMillis,
+	        @NonNull final ContentLayout contentLayout,
+	        final int blockSize) throws IOException {
+		this(deviceOptions, volumeInfo, freeSpace, rootCreationDate, rootPath, durability, writeBackMaxBytes, writeBackMaxAgeMillis, contentLayout, blockSize, Compression.NONE);
+	}
+
+	/**
+	 *
+	 * @param deviceOptions
+	 * @param volumeInfo
+	 * @param freeSpace
+	 * @param rootCreationDate
+	 * @param rootPath
+	 * @param durability how writes are committed
+	 * @param writeBackMaxBytes pending bytes of a file which trigger a flush (only for {@link Durability#WRITE_BACK})
+	 * @param writeBackMaxAgeMillis age of the oldest pending write of a file which triggers a flush on the next write (only for {@link Durability#WRITE_BACK})
+	 * @param contentLayout how file contents are stored
+	 * @param blockSize size of each block (only for {@link ContentLayout#BLOCKS}); also the unit of compression, so larger blocks compress better but make small reads
+	 *            decompress more
+	 * @param compression how blocks or chunks are compressed; must be {@link Compression#NONE} with {@link ContentLayout#STREAM}
+	 * @throws IOException
+	 */
+	public MemoryFS(
+	        @NonNull final DeviceOptions deviceOptions,
+	        @NonNull final VolumeInformation volumeInfo,
+	        @NonNull final FreeSpace freeSpace,
+	        @NonNull final Date rootCreationDate,
+	        @NonNull final String rootPath,
+	        @NonNull final Durability durability,
+	        final long writeBackMaxBytes,
+	        final long writeBackMaxAgeMillis,
+	        @NonNull final ContentLayout contentLayout,
+	        final int blockSize,
+	        @NonNull final Compression compression) throws IOException {
 		super(deviceOptions, volumeInfo, freeSpace, rootCreationDate, rootPath);
 
+		if ((contentLayout == ContentLayout.STREAM) && (compression != Compression.NONE)) {
+			throw new IllegalArgumentException("Compression needs ContentLayout.BLOCKS or ContentLayout.DEDUP");
+		}
+
+		this.durability = durability;
+		this.writeBackMaxBytes = writeBackMaxBytes;
+		writeBackMaxAgeNanos = TimeUnit.MILLISECONDS.toNanos(writeBackMaxAgeMillis);
+
 		// Try to create store location in temp directory
 		val fileStorePath = Files.createTempDirectory("dokany-java_");
 
 		// Init VFS
-		env = Environments.newInstance(fileStorePath.toString());
+		if (durability == Durability.SYNC) {
+			env = Environments.newInstance(fileStorePath.toString(), new EnvironmentConfig().setLogDurableWrite(true));
+		} else {
+			env = Environments.newInstance(fileStorePath.toString());
+		}
 		vfs = new VirtualFileSystem(env);
 
-		// File store name
-		val fileStoreName = "com.dokany.java.fileinfo";
-
 		// Create/open store and save in fileInfoStore
 		// must not be read only so that store can be created
-		infoStore = env.computeInTransaction((@NonNull final Transaction txn) -> env.openStore(fileStoreName, StoreConfig.WITHOUT_DUPLICATES, txn));
+		infoStore = env.computeInTransaction((@NonNull final Transaction txn) -> env.openStore(INFO_STORE_NAME, StoreConfig.WITHOUT_DUPLICATES, txn));
+
+		// Directory index: one duplicate per child
+		val childrenStoreName = "com.dokany.java.children";
+		childrenStore = env.computeInTransaction((@NonNull final Transaction txn) -> env.openStore(childrenStoreName, StoreConfig.WITH_DUPLICATES, txn));
+
+		codec = new BlockCodec(compression);
+		switch (contentLayout) {
+		case BLOCKS:
+			content = new BlockContentStore(env, blockSize, codec);
+			break;
+		case DEDUP:
+			content = new DedupContentStore(env, DedupContentStore.DEFAULT_CACHE_BYTES, codec);
+			break;
+		default:
+			content = new VfsContentStore(vfs);
+			break;
+		}
 
 		createSampleItems();
 	}
@@ -102,6 +240,24 @@ public class MemoryFS extends DokanyFileSystem {
 		 */
 	}
 
+	/**
+	 * Walks all contents, so this is meant for reporting. Pending writes are not counted.
+	 *
+	 * @return logical and stored bytes of all files
+	 */
+	public ContentStats getContentStats() {
+		return env.computeInReadonlyTransaction((@NonNull final Transaction txn) -> content.getStats(txn));
+	}
+
+	/**
+	 * Unlike {@link #getContentStats()} this is cheap: counters are updated as blocks are encoded and decoded, including blocks which were overwritten since.
+	 *
+	 * @return compression ratio and time spent compressing and decompressing since the volume was created
+	 */
+	public CompressionStats getCompressionStats() {
+		return codec.getStats();
+	}
+
 	/**
 	 * Determines if file exists already or not. Calls {@link #getExistingFile(String)}.
 	 *
@@ -176,28 +332,110 @@ public class MemoryFS extends DokanyFileSystem {
 	@Override
 	public Set<WIN32_FIND_DATA> findFilesWithPattern(@NonNull final String pathToSearch, @NonNull final DokanyFileInfo dokanyFileInfo, @NonNull final String pattern) {
 		val files = new HashSet<WIN32_FIND_DATA>();
+		findFilesWithPattern(pathToSearch, dokanyFileInfo, pattern, files::add);
+		return files;
+	}
 
+	/**
+	 * Pushes matching children of pathToSearch to sink. Walks the duplicates of pathToSearch in the directory index so the cost is proportional to the size of the directory rather
+	 * than the volume.
+	 */
+	@Override
+	public void findFilesWithPattern(
+	        @NonNull final String pathToSearch,
+	        @NonNull final DokanyFileInfo dokanyFileInfo,
+	        final String pattern,
+	        @NonNull final FindDataSink sink) {
 		log.debug("findFilesWithPattern memoryfs:   path  {};     pattern {}", pathToSearch, pattern);
-		// Only use if pattern is not null
-		val pathMatcher = DEFAULT_FS.getPathMatcher(GLOB + root + pattern);
+		val directory = toIndexPath(pathToSearch);
+		val patternToMatch = Objects.isNull(pattern) ? "*" : pattern;
 
 		env.executeInReadonlyTransaction((@NonNull final Transaction txn) -> {
-			vfs.getFiles(txn).forEach(file -> {
-				val currentPath = file.getPath();
-				log.trace("getFiles path: {}", currentPath);
+			@Cleanup
+			val cursor = childrenStore.openCursor(txn);
+			if (Objects.isNull(cursor.getSearchKey(StringBinding.stringToEntry(directory)))) {
+				return;
+			}
+			do {
+				val currentPath = StringBinding.entryToString(cursor.getValue());
+				log.trace("child path: {}", currentPath);
 
-				// Do not match pathToSearch or it will get listed in the directory
-				if (!currentPath.equals(pathToSearch) && pathMatcher.matches(Paths.get(currentPath))) {
+				if (FilenameUtils.wildcardMatch(FilenameUtils.getName(currentPath), patternToMatch)) {
 					try {
-						files.add(getInfo(currentPath, txn).toWin32FindData());
+						val info = getInfo(currentPath, txn);
+						includePendingWrites(currentPath, info);
+						sink.accept(info.toWin32FindData());
 						log.trace("Added {}", currentPath);
 					} catch (final FileNotFoundException e) {
 						log.warn("Failed to add found file because of caught exception", e);
 					}
 				}
-			});
+			} while (cursor.getNextDup());
 		});
-		return files;
+	}
+
+	/**
+	 * Strips the tail separator (except for root) so paths match the keys of the directory index.
+	 *
+	 * @param path
+	 * @return
+	 */
+	private String toIndexPath(@NonNull final String path) {
+		return path.equals(root) ? path : DokanyUtils.trimTailSeparator(path);
+	}
+
+	/**
+	 *
+	 * @param path
+	 * @return parent directory of path in the directory index or null for root
+	 */
+	private String getParent(@NonNull final String path) {
+		val indexPath = toIndexPath(path);
+		if (indexPath.equals(root)) {
+			return null;
+		}
+		val lastSeparator = DokanyUtils.indexOfLastSeparator(indexPath);
+		return lastSeparator <= 0 ? root : indexPath.substring(0, lastSeparator);
+	}
+
+	/**
+	 * Adds path to the children of its parent directory.
+	 */
+	private void addToParent(@NonNull final String path, @NonNull final Transaction txn) {
+		val parent = getParent(path);
+		if (Objects.nonNull(parent)) {
+			childrenStore.put(txn, StringBinding.stringToEntry(parent), StringBinding.stringToEntry(toIndexPath(path)));
+		}
+	}
+
+	/**
+	 * Removes path from the children of its parent directory.
+	 */
+	private void removeFromParent(@NonNull final String path, @NonNull final Transaction txn) {
+		val parent = getParent(path);
+		if (Objects.nonNull(parent)) {
+			@Cleanup
+			val cursor = childrenStore.openCursor(txn);
+			if (cursor.getSearchBoth(StringBinding.stringToEntry(parent), StringBinding.stringToEntry(toIndexPath(path)))) {
+				cursor.deleteCurrent();
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return children of directory according to the directory index
+	 */
+	private List<String> getChildren(@NonNull final String directory, @NonNull final Transaction txn) {
+		val children = new ArrayList<String>();
+		@Cleanup
+		val cursor = childrenStore.openCursor(txn);
+		if (Objects.nonNull(cursor.getSearchKey(StringBinding.stringToEntry(toIndexPath(directory))))) {
+			do {
+				children.add(StringBinding.entryToString(cursor.getValue()));
+			} while (cursor.getNextDup());
+		}
+		return children;
 	}
 
 	@Override
@@ -214,35 +452,93 @@ public class MemoryFS extends DokanyFileSystem {
 	}
 
 	/**
-	 * Deletes a directory.
+	 * Deletes a directory if it has no children.
 	 */
 	@Override
 	public void deleteDirectory(@NonNull final String path, final DokanyFileInfo dokanyFileInfo) throws IOException {
+		final boolean isEmpty = env.computeInReadonlyTransaction((@NonNull final Transaction txn) -> getChildren(path, txn).isEmpty());
+		if (!isEmpty) {
+			throw DokanyException.DIRECTORY_NOT_EMPTY;
+		}
 		delete(path);
 	}
 
 	/**
-	 * Deletes a file or directory.
+	 * Deletes a file or directory along with its info and directory index entry.
 	 *
 	 * @param path
 	 */
 	private void delete(@NonNull final String path) {
+		discardPendingWrites(path);
 		env.executeInTransaction((@NonNull final Transaction txn) -> {
-			vfs.deleteFile(txn, path);
+			delete(path, txn);
 		});
 	}
 
+	private void delete(@NonNull final String path, @NonNull final Transaction txn) {
+		val file = getExistingFile(path, txn);
+		if (Objects.nonNull(file)) {
+			content.delete(txn, file);
+		}
+		vfs.deleteFile(txn, path);
+		infoStore.delete(txn, StringBinding.stringToEntry(path));
+		removeFromParent(path, txn);
+	}
+
 	/**
-	 *
+	 * Moves a file or directory. Children of a directory are moved along with it and the directory index is updated in the same transaction.
 	 */
 	@Override
 	public void move(@NonNull final String oldPath, @NonNull final String newPath, final boolean replaceIfExisting) throws IOException {
-		throw new UnsupportedOperationException("Not yet implemented");
+		// pending writes are keyed by path, so those of children of a moved directory have to be committed under their old path
+		for (val path : getPendingPaths(oldPath)) {
+			closePendingWrites(path);
+		}
+		val error = env.computeInTransaction((@NonNull final Transaction txn) -> {
+			IOException toReturn = null;
+			try {
+				val from = toIndexPath(oldPath);
+				val to = toIndexPath(newPath);
+				getExistingFileWithException(from, txn);
 
-		/*
-		 * env.executeInTransaction((@NonNull final Transaction txn) -> { final VfsInputStream inputStream = vfs.readFile(txn, descriptor); inputStream.read(data, offset,
-		 * Math.min(length, data.length - offset)); }); findExisting(oldPath, oldPath.isDirectory()).replaceWith(findExisting(newPath, newPath.isDirectory()));
-		 */
+				if (Objects.nonNull(getExistingFile(to, txn))) {
+					if (!replaceIfExisting) {
+						throw new FileAlreadyExistsException(to);
+					}
+					for (val path : getPendingPaths(to)) {
+						discardPendingWrites(path);
+					}
+					delete(to, txn);
+				}
+				move(from, to, txn);
+			} catch (final IOException e) {
+				toReturn = e;
+			}
+			return toReturn;
+		});
+
+		if (Objects.nonNull(error)) {
+			throw error;
+		}
+	}
+
+	private void move(@NonNull final String from, @NonNull final String to, @NonNull final Transaction txn) throws IOException {
+		for (val child : getChildren(from, txn)) {
+			move(child, to + child.substring(from.length()), txn);
+		}
+
+		val file = getExistingFileWithException(from, txn);
+		vfs.renameFile(txn, file, to);
+
+		val fromKey = StringBinding.stringToEntry(from);
+		val info = infoStore.get(txn, fromKey);
+		if (Objects.nonNull(info)) {
+			infoStore.delete(txn, fromKey);
+			infoStore.put(txn, StringBinding.stringToEntry(to), info);
+		}
+
+		removeFromParent(from, txn);
+		addToParent(to, txn);
 	}
 
 	/**
@@ -269,34 +565,73 @@ public class MemoryFS extends DokanyFileSystem {
 		val result = env.computeInReadonlyTransaction((@NonNull final Transaction txn) -> {
 			FullFileInfo toReturn = null;
 			try {
-				toReturn = getInfo(path, txn);
+				toReturn = findInfo(path, txn);
 			} catch (final IOException e) {
 				log.warn("Could not retrieve info", e);
 			}
 			return toReturn;
 		});
 
+		// Explorer probes many paths which do not exist, so misses are reported without building a message or stack trace
 		if (Objects.isNull(result)) {
-			throw new IOException();
+			throw DokanyException.FILE_NOT_FOUND;
 		}
+		includePendingWrites(path, result);
 		return result;
 	}
 
+	/**
+	 * Decodes the stored record straight into info, so GetFileInformation allocates no {@link FullFileInfo}.
+	 *
+	 * @throws IOException
+	 */
+	@Override
+	public void getInfo(@NonNull final String path, @NonNull final ByHandleFileInfo info) throws IOException {
+		final boolean isFound = env.computeInReadonlyTransaction((@NonNull final Transaction txn) -> findInfo(path, txn, info));
+		if (!isFound) {
+			throw DokanyException.FILE_NOT_FOUND;
+		}
+		includePendingWrites(path, info);
+	}
+
 	/**
 	 * This method retrieves FullFileInfo from the VFS.
 	 *
 	 * @throws FileNotFoundException
 	 */
 	private FullFileInfo getInfo(@NonNull final String path, @NonNull final Transaction txn) throws FileNotFoundException {
-		if (Objects.isNull(path)) {
-			throw new IllegalArgumentException("path cannot be null");
-		}
-		val pathKey = StringBinding.stringToEntry(path);
-		val iterable = infoStore.get(txn, pathKey);
-		if (Objects.isNull(iterable)) {
+		val info = findInfo(path, txn);
+		if (Objects.isNull(info)) {
 			throw new FileNotFoundException("iterable was null and thus file info could not be created");
 		}
-		return new FullFileInfo(path, iterable);
+		return info;
+	}
+
+	/**
+	 * Like {@link #getInfo(String, Transaction)} but returns null if path does not exist.
+	 *
+	 * @throws FileNotFoundException
+	 */
+	private FullFileInfo findInfo(@NonNull final String path, @NonNull final Transaction txn) throws FileNotFoundException {
+		val record = infoStore.get(txn, StringBinding.stringToEntry(path));
+		if (Objects.isNull(record)) {
+			return null;
+		}
+		return FullFileInfoCodec.decode(path, record);
+	}
+
+	/**
+	 * Like {@link #findInfo(String, Transaction)} but decodes into info instead of a new instance.
+	 *
+	 * @return false if path does not exist
+	 */
+	private boolean findInfo(@NonNull final String path, @NonNull final Transaction txn, @NonNull final ByHandleFileInfo info) {
+		val record = infoStore.get(txn, StringBinding.stringToEntry(path));
+		if (Objects.isNull(record)) {
+			return false;
+		}
+		FullFileInfoCodec.decodeInto(path, record, info);
+		return true;
 	}
 
 	/**
@@ -353,51 +688,63 @@ public class MemoryFS extends DokanyFileSystem {
 		} else {
 			updatedPath = path;
 		}
-		return vfs.createFile(txn, updatedPath);
+		val file = vfs.createFile(txn, updatedPath);
+		addToParent(updatedPath, txn);
+		return file;
 	}
 
 	/**
-	 * Reads file from VFS and stores into data array.
+	 * Reads file from VFS and stores into data array. Calls {@link #read(String, long, int)}.
 	 */
 	@Override
 	public FileData read(@NonNull final String path, final int offset, final int readLength) throws IOException {
+		return read(path, (long) offset, readLength);
+	}
+
+	/**
+	 * Reads file from VFS and stores into data array. Calls {@link #read(String, long, ByteBuffer)}.
+	 */
+	@Override
+	public FileData read(@NonNull final String path, final long offset, final int readLength) throws IOException {
 		if (readLength < 1) {
 			throw new IOException("readLength cannot be empty");
 		}
 
-		if (Objects.isNull(path)) {
-			throw new FileNotFoundException("path cannot be null");
-		}
-
-		val fileData = env.computeInTransaction((@NonNull final Transaction txn) -> {
-			FileData toReturn = null;
+		val data = new byte[readLength];
+		val numRead = read(path, offset, ByteBuffer.wrap(data));
+		return new FileData(data, numRead);
+	}
 
-			val file = getExistingFile(path, txn);
-			val fileSize = vfs.getFileLength(txn, file);
+	/**
+	 * Reads file from VFS straight into the Dokany buffer. Calls {@link #read(String, long, ByteBuffer)}.
+	 */
+	@Override
+	public int read(@NonNull final String path, final long offset, @NonNull final ByteBuffer dst, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		return read(path, offset, dst);
+	}
 
-			if (fileSize > 0) {
-				if (Objects.nonNull(file)) {
-					final VfsInputStream inputStream = vfs.readFile(txn, file);
-					try {
-						val data = new byte[readLength];
-						val numRead = inputStream.read(data, offset, Math.min(readLength, data.length - offset));
-						toReturn = new FileData(data, numRead);
-					} catch (final IOException e) {
-						log.warn("Read fault on path {}", path, e);
-					}
+	/**
+	 * Reads file from the content store into dst starting at offset. Uses a read-only transaction so readers never wait for the writer.
+	 *
+	 * @param path
+	 * @param offset
+	 * @param dst
+	 * @return number of bytes read
+	 * @throws IOException
+	 */
+	private int read(@NonNull final String path, final long offset, @NonNull final ByteBuffer dst) throws IOException {
+		flushPendingWrites(path);
+		try {
+			return env.computeInReadonlyTransaction((@NonNull final Transaction txn) -> {
+				try {
+					return content.read(txn, getExistingFileWithException(path, txn), offset, dst);
+				} catch (final IOException e) {
+					throw new UncheckedIOException(e);
 				}
-			} else {
-				// initialize empty so IOException is not thrown
-				log.debug("fileSize was 0; sending back empty FileData");
-				toReturn = new FileData(new byte[0], 0);
-			}
-			return toReturn;
-		});
-
-		if (Objects.isNull(fileData)) {
-			throw new IOException("Error reading file");
+			});
+		} catch (final UncheckedIOException e) {
+			throw e.getCause();
 		}
-		return fileData;
 	}
 
 	/**
@@ -414,7 +761,7 @@ public class MemoryFS extends DokanyFileSystem {
 	}
 
 	/**
-	 * Writes a file or directory to VFS.
+	 * Writes a file or directory to VFS. Calls {@link #write(String, long, byte[], int)}.
 	 *
 	 * @param path
 	 * @param offset
@@ -424,15 +771,83 @@ public class MemoryFS extends DokanyFileSystem {
 	 */
 	@Override
 	public int write(@NonNull final String path, final int offset, final byte[] data, final int writeLength) throws IOException {
-		if (Objects.isNull(path)) {
-			throw new FileNotFoundException("Path was null");
+		return write(path, (long) offset, data, writeLength);
+	}
+
+	/**
+	 * Writes a file or directory to VFS. Calls {@link #write(String, long, ByteBuffer)}.
+	 *
+	 * @param path
+	 * @param offset
+	 * @param data
+	 * @param int
+	 * @param info
+	 */
+	@Override
+	public int write(@NonNull final String path, final long offset, final byte[] data, final int writeLength) throws IOException {
+		return write(path, offset, ByteBuffer.wrap(data, 0, writeLength));
+	}
+
+	/**
+	 * Writes a file or directory to VFS. Calls {@link #write(String, long, ByteBuffer)}.
+	 */
+	@Override
+	public int write(@NonNull final String path, final long offset, @NonNull final ByteBuffer src, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		return write(path, offset, src);
+	}
+
+	/**
+	 * With {@link Durability#WRITE_BACK}, src is added to the pending writes of path which are committed once they reach the size or age threshold. Otherwise src is committed
+	 * right away.
+	 *
+	 * @param path
+	 * @param offset
+	 * @param src
+	 * @return number of bytes written
+	 * @throws IOException
+	 */
+	private int write(@NonNull final String path, final long offset, @NonNull final ByteBuffer src) throws IOException {
+		val writeLength = src.remaining();
+
+		if (durability != Durability.WRITE_BACK) {
+			val data = new byte[writeLength];
+			src.get(data);
+			commit(path, Collections.singletonMap(offset, data));
+			return writeLength;
 		}
 
+		WriteBackBuffer buffer;
+		boolean added;
+		do {
+			// buffer may get closed by cleanup between lookup and add
+			buffer = pendingWrites.computeIfAbsent(path, key -> new WriteBackBuffer());
+			synchronized (buffer) {
+				added = buffer.add(offset, src);
+				if (added && buffer.isOverThreshold(writeBackMaxBytes, writeBackMaxAgeNanos)) {
+					flush(path, buffer);
+				}
+			}
+		} while (!added);
+
+		return writeLength;
+	}
+
+	/**
+	 * Writes extents to path and updates its info in a single transaction.
+	 *
+	 * @param path
+	 * @param extents start offset -> bytes
+	 * @throws IOException
+	 */
+	private void commit(@NonNull final String path, @NonNull final Map<Long, byte[]> extents) throws IOException {
 		val error = env.computeInTransaction((@NonNull final Transaction txn) -> {
 			IOException toReturn = null;
 			try {
 				val file = getExistingFileWithException(path, txn);
-				write(file, offset, data, writeLength, null, txn);
+				for (val extent : extents.entrySet()) {
+					writeData(file, extent.getKey(), extent.getValue(), extent.getValue().length, txn);
+				}
+				storeInfo(file, null, txn);
 			} catch (final IOException e) {
 				toReturn = e;
 			}
@@ -442,18 +857,112 @@ public class MemoryFS extends DokanyFileSystem {
 		if (Objects.nonNull(error)) {
 			throw error;
 		}
+	}
 
-		return writeLength;
+	/**
+	 * Commits the pending writes of buffer. Caller must hold the lock of buffer.
+	 */
+	private void flush(@NonNull final String path, @NonNull final WriteBackBuffer buffer) throws IOException {
+		if (buffer.isDirty()) {
+			log.debug("Flushing {} pending bytes of {}", buffer.getPendingBytes(), path);
+			commit(path, buffer.getExtents());
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Commits pending writes of path, if any, so they are visible to readers.
+	 */
+	private void flushPendingWrites(@NonNull final String path) throws IOException {
+		val buffer = pendingWrites.get(path);
+		if (Objects.nonNull(buffer)) {
+			synchronized (buffer) {
+				flush(path, buffer);
+			}
+		}
+	}
+
+	/**
+	 * Commits pending writes of path and forgets its buffer. If they cannot be committed the buffer is kept, so the next flush of path retries them and reports the failure again.
+	 */
+	private void closePendingWrites(@NonNull final String path) throws IOException {
+		val buffer = pendingWrites.get(path);
+		if (Objects.nonNull(buffer)) {
+			synchronized (buffer) {
+				try {
+					flush(path, buffer);
+				} catch (final IOException | RuntimeException e) {
+					log.warn("Could not commit {} pending bytes of {}; keeping them for the next flush", buffer.getPendingBytes(), path, e);
+					throw e;
+				}
+				buffer.close();
+				pendingWrites.remove(path, buffer);
+			}
+		}
 	}
 
-	private int write(@NonNull final File file, final int offset, final byte[] data, final int writeLength, final FullFileInfo info, @NonNull final Transaction txn)
+	/**
+	 * Raises the size in info to the end of the pending writes of path, if they reach past it. Nothing is committed, so asking for info does not defeat write-back.
+	 */
+	private void includePendingWrites(@NonNull final String path, @NonNull final ByHandleFileInfo info) {
+		val buffer = pendingWrites.get(path);
+		if (Objects.nonNull(buffer)) {
+			final long pendingEnd;
+			synchronized (buffer) {
+				pendingEnd = buffer.getEnd();
+			}
+			if (pendingEnd > info.getSize()) {
+				info.setSize(pendingEnd);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return paths with pending writes which are path itself or below it
+	 */
+	private List<String> getPendingPaths(@NonNull final String path) {
+		val indexPath = toIndexPath(path);
+		val prefix = indexPath.endsWith("/") ? indexPath : (indexPath + "/");
+		val paths = new ArrayList<String>();
+		for (val pendingPath : pendingWrites.keySet()) {
+			if (toIndexPath(pendingPath).equals(indexPath) || pendingPath.startsWith(prefix)) {
+				paths.add(pendingPath);
+			}
+		}
+		return paths;
+	}
+
+	/**
+	 * Drops pending writes of path without committing them, for example because path is deleted.
+	 */
+	private void discardPendingWrites(@NonNull final String path) {
+		val buffer = pendingWrites.get(path);
+		if (Objects.nonNull(buffer)) {
+			synchronized (buffer) {
+				buffer.clear();
+				buffer.close();
+				pendingWrites.remove(path, buffer);
+			}
+		}
+	}
+
+	private int write(@NonNull final File file, final long offset, final byte[] data, final int writeLength, final FullFileInfo info, @NonNull final Transaction txn)
 	        throws IOException {
-		@Cleanup
-		final DataOutputStream output = new DataOutputStream(vfs.writeFile(txn, file));
-		output.write(data, offset, writeLength);
+		writeData(file, offset, data, writeLength, txn);
+		storeInfo(file, info, txn);
+		return writeLength;
+	}
+
+	private void writeData(@NonNull final File file, final long offset, final byte[] data, final int writeLength, @NonNull final Transaction txn) throws IOException {
+		content.write(txn, file, offset, data, writeLength);
+	}
 
-		// This has to go outside the try statement so the buffer is fully written/flushed
-		final long fileSize = vfs.getFileLength(txn, file);
+	/**
+	 * Stores info for file with its current size. If info is null, new info is created.
+	 */
+	private void storeInfo(@NonNull final File file, final FullFileInfo info, @NonNull final Transaction txn) throws IOException {
+		final long fileSize = content.getLength(txn, file);
 		log.debug("wrote file: {}", file.getPath());
 
 		FullFileInfo newInfo = info;
@@ -467,7 +976,6 @@ public class MemoryFS extends DokanyFileSystem {
 			newInfo.setSize(fileSize);
 		}
 		setInfo(file.getPath(), newInfo, txn);
-		return writeLength;
 	}
 
 	/**
@@ -478,7 +986,7 @@ public class MemoryFS extends DokanyFileSystem {
 	 */
 	private void setInfo(@NonNull final String path, @NonNull final FullFileInfo info, @NonNull final Transaction txn) {
 		val pathKey = StringBinding.stringToEntry(path);
-		infoStore.put(txn, pathKey, info.toByteIterable());
+		infoStore.put(txn, pathKey, FullFileInfoCodec.encode(info));
 		log.debug("Stored info for {}", path);
 	}
 
@@ -533,14 +1041,42 @@ public class MemoryFS extends DokanyFileSystem {
 
 	@Override
 	public void unlock(@NonNull final String path, final int offset, final int length) {
+		unlock(path, (long) offset, (long) length);
+	}
+
+	@Override
+	public void unlock(@NonNull final String path, final long offset, final long length) {
 		throw new UnsupportedOperationException("Unlocking not implemented.");
 	}
 
+	/**
+	 * Unlocks the range for the handle of dokanyFileInfo in {@link #getRangeLocks()}.
+	 * path is the path normalized by the proxy, which is also used to release the range on Cleanup.
+	 */
+	@Override
+	public void unlock(@NonNull final String path, final long offset, final long length, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		rangeLocks.unlock(path, offset, length, dokanyFileInfo.Context);
+	}
+
 	@Override
 	public void lock(@NonNull final String path, final int offset, final int length) {
+		lock(path, (long) offset, (long) length);
+	}
+
+	@Override
+	public void lock(@NonNull final String path, final long offset, final long length) {
 		throw new UnsupportedOperationException("Locking not implemented.");
 	}
 
+	/**
+	 * Locks the range for the handle of dokanyFileInfo in {@link #getRangeLocks()}.
+	 * path is the path normalized by the proxy, which is also used to release the range on Cleanup.
+	 */
+	@Override
+	public void lock(@NonNull final String path, final long offset, final long length, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		rangeLocks.lock(path, offset, length, dokanyFileInfo.Context);
+	}
+
 	@Override
 	// TODO: finish implementation
 	public long truncate(@NonNull final String path) throws IOException {
@@ -556,23 +1092,75 @@ public class MemoryFS extends DokanyFileSystem {
 	}
 
 	@Override
-	public void setAllocationSize(@NonNull final String path, final int length) {
-		throw new UnsupportedOperationException("Not yet implemented");
+	public void setAllocationSize(@NonNull final String path, final int length) throws IOException {
+		setAllocationSize(path, (long) length);
 	}
 
+	/**
+	 * Truncates path if length is below its size; space is never reserved ahead.
+	 */
 	@Override
-	public void setEndOfFile(@NonNull final String path, final int offset) {
-		throw new UnsupportedOperationException("Not yet implemented");
+	public void setAllocationSize(@NonNull final String path, final long length) throws IOException {
+		flushPendingWrites(path);
+		final boolean isSmaller = env.computeInReadonlyTransaction((@NonNull final Transaction txn) -> {
+			val file = getExistingFile(path, txn);
+			return Objects.nonNull(file) && (length < content.getLength(txn, file));
+		});
+		if (isSmaller) {
+			setEndOfFile(path, length);
+		}
 	}
 
 	@Override
-	public void flushFileBuffers(@NonNull final String path) {
-		throw new UnsupportedOperationException("Not yet implemented");
+	public void setEndOfFile(@NonNull final String path, final int offset) throws IOException {
+		setEndOfFile(path, (long) offset);
 	}
 
+	/**
+	 * Truncates or extends path to offset and updates its size in the same transaction. Pending writes are committed first so none of them lands past the new end later.
+	 */
 	@Override
-	public void cleanup(@NonNull final String path, final DokanyFileInfo dokanyFileInfo) {
-		throw new UnsupportedOperationException("Not yet implemented");
+	public void setEndOfFile(@NonNull final String path, final long offset) throws IOException {
+		flushPendingWrites(path);
+		val error = env.computeInTransaction((@NonNull final Transaction txn) -> {
+			IOException toReturn = null;
+			try {
+				val file = getExistingFileWithException(path, txn);
+				content.setLength(txn, file, offset);
+
+				// only the size changes, so the record is patched without decoding it
+				val pathKey = StringBinding.stringToEntry(path);
+				val record = infoStore.get(txn, pathKey);
+				if (Objects.isNull(record)) {
+					storeInfo(file, null, txn);
+				} else {
+					infoStore.put(txn, pathKey, FullFileInfoCodec.withSize(record, offset));
+				}
+			} catch (final IOException e) {
+				toReturn = e;
+			}
+			return toReturn;
+		});
+
+		if (Objects.nonNull(error)) {
+			throw error;
+		}
+	}
+
+	/**
+	 * Commits pending writes of path.
+	 */
+	@Override
+	public void flushFileBuffers(@NonNull final String path) throws IOException {
+		flushPendingWrites(path);
+	}
+
+	/**
+	 * Commits pending writes of path.
+	 */
+	@Override
+	public void cleanup(@NonNull final String path, final DokanyFileInfo dokanyFileInfo) throws IOException {
+		closePendingWrites(path);
 	}
 
 	@Override
@@ -0,0 +1,131 @@
+package com.dokany.java.examples.memoryfs;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import jetbrains.exodus.env.Transaction;
+import jetbrains.exodus.vfs.File;
+import jetbrains.exodus.vfs.VfsInputStream;
+import jetbrains.exodus.vfs.VirtualFileSystem;
+import lombok.AccessLevel;
+import lombok.Cleanup;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * {@link ContentLayout#STREAM}: each file is the Xodus VFS stream of its {@link File}.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+final class VfsContentStore implements ContentStore {
+
+	/**
+	 * Per thread chunk used to copy VFS streams into direct buffers.
+	 */
+	static ThreadLocal<byte[]> READ_CHUNK = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+
+	VirtualFileSystem vfs;
+
+	VfsContentStore(@NonNull final VirtualFileSystem vfs) {
+		this.vfs = vfs;
+	}
+
+	@Override
+	public long getLength(@NonNull final Transaction txn, @NonNull final File file) {
+		return vfs.getFileLength(txn, file);
+	}
+
+	/**
+	 * Uses a positioned VFS stream so the cost does not depend on offset.
+	 */
+	@Override
+	public int read(@NonNull final Transaction txn, @NonNull final File file, final long offset, @NonNull final ByteBuffer dst) throws IOException {
+		if (offset >= vfs.getFileLength(txn, file)) {
+			return 0;
+		}
+
+		@Cleanup
+		final VfsInputStream inputStream = vfs.readFile(txn, file, offset);
+		return readFully(inputStream, dst);
+	}
+
+	/**
+	 * Reads from input until dst is full or input ends.
+	 *
+	 * @return number of bytes read
+	 */
+	private static int readFully(@NonNull final InputStream input, @NonNull final ByteBuffer dst) throws IOException {
+		int totalRead = 0;
+		if (dst.hasArray()) {
+			while (dst.hasRemaining()) {
+				val numRead = input.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+				if (numRead < 0) {
+					break;
+				}
+				dst.position(dst.position() + numRead);
+				totalRead += numRead;
+			}
+		} else {
+			// direct buffer (Dokany memory): go through a per thread chunk instead of allocating one per read
+			val chunk = READ_CHUNK.get();
+			while (dst.hasRemaining()) {
+				val numRead = input.read(chunk, 0, Math.min(chunk.length, dst.remaining()));
+				if (numRead < 0) {
+					break;
+				}
+				dst.put(chunk, 0, numRead);
+				totalRead += numRead;
+			}
+		}
+		return totalRead;
+	}
+
+	@Override
+	public void write(@NonNull final Transaction txn, @NonNull final File file, final long offset, @NonNull final byte[] data, final int length) throws IOException {
+		@Cleanup
+		final DataOutputStream output = new DataOutputStream(vfs.writeFile(txn, file, offset));
+		output.write(data, 0, length);
+	}
+
+	/**
+	 * Only extends, by writing zeros; VFS streams cannot be shrunk in place.
+	 */
+	@Override
+	public void setLength(@NonNull final Transaction txn, @NonNull final File file, final long length) throws IOException {
+		val currentLength = vfs.getFileLength(txn, file);
+		if (length < currentLength) {
+			throw new UnsupportedOperationException("Shrinking files needs ContentLayout.BLOCKS");
+		}
+		if (length == currentLength) {
+			return;
+		}
+
+		val zeros = new byte[64 * 1024];
+		@Cleanup
+		final DataOutputStream output = new DataOutputStream(vfs.writeFile(txn, file, currentLength));
+		for (long remaining = length - currentLength; remaining > 0; remaining -= zeros.length) {
+			output.write(zeros, 0, (int) Math.min(zeros.length, remaining));
+		}
+	}
+
+	/**
+	 * Nothing to do; deleting the VFS file deletes its stream.
+	 */
+	@Override
+	public void delete(@NonNull final Transaction txn, @NonNull final File file) {
+	}
+
+	/**
+	 * Streams store every byte, so logical and stored bytes are the same.
+	 */
+	@Override
+	public ContentStats getStats(@NonNull final Transaction txn) {
+		long bytes = 0;
+		for (val file : vfs.getFiles(txn)) {
+			bytes += vfs.getFileLength(txn, file);
+		}
+		return new ContentStats(bytes, bytes);
+	}
+}
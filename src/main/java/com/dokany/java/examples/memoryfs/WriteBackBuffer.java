@@ -0,0 +1,169 @@
+package com.dokany.java.examples.memoryfs;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Pending writes of one file which have not been committed to Xodus yet. Adjacent and overlapping writes are coalesced into a single extent so a burst of small writes is committed
+ * as a few large ones. Extents grow like an {@link java.util.ArrayList}, so appending to an extent copies only the appended bytes in the amortized case.
+ *
+ * Callers synchronize on the buffer while adding to, reading or clearing it.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+final class WriteBackBuffer {
+
+	/**
+	 * Start offset -> extent. Extents never overlap or touch each other.
+	 */
+	final TreeMap<Long, Extent> extents = new TreeMap<>();
+
+	@Getter
+	long pendingBytes;
+
+	/**
+	 * {@link System#nanoTime()} of the first write since the last flush.
+	 */
+	long firstWriteNanos;
+
+	/**
+	 * Set once the buffer is removed from {@link MemoryFS}; writers which still hold it must get a new one.
+	 */
+	@Getter
+	boolean closed;
+
+	/**
+	 * Bytes of one extent with spare capacity at the end.
+	 */
+	@FieldDefaults(level = AccessLevel.PRIVATE)
+	private static final class Extent {
+		byte[] bytes;
+		int length;
+
+		Extent(final int capacity) {
+			bytes = new byte[capacity];
+		}
+
+		/**
+		 * Grows the extent to at least newLength, doubling its capacity if it has to reallocate.
+		 */
+		void ensureLength(final int newLength) {
+			if (newLength > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(newLength, (int) Math.min(Integer.MAX_VALUE - 8, 2L * bytes.length)));
+			}
+			length = Math.max(length, newLength);
+		}
+	}
+
+	/**
+	 * Copies src into the buffer, merging it with any extent it overlaps or touches. Newer bytes win.
+	 *
+	 * @param offset
+	 * @param src read up to its limit
+	 * @return false if the buffer is closed and nothing was added
+	 */
+	boolean add(final long offset, @NonNull final ByteBuffer src) {
+		if (closed) {
+			return false;
+		}
+		if (extents.isEmpty()) {
+			firstWriteNanos = System.nanoTime();
+		}
+
+		long start = offset;
+		long end = offset + src.remaining();
+
+		// Extent starting before offset which reaches it
+		val floor = extents.floorEntry(offset);
+		if (Objects.nonNull(floor) && ((floor.getKey() + floor.getValue().length) >= offset)) {
+			start = floor.getKey();
+		}
+		// Extents starting inside (or right after) the new range
+		val merged = extents.subMap(start, true, end, true);
+		for (val extent : merged.entrySet()) {
+			end = Math.max(end, extent.getKey() + extent.getValue().length);
+		}
+
+		// The extent at start, if any, grows in place; the others are copied into it
+		Extent target = merged.get(start);
+		if (Objects.isNull(target)) {
+			target = new Extent(Math.toIntExact(end - start));
+		}
+		pendingBytes -= target.length;
+		target.ensureLength(Math.toIntExact(end - start));
+		for (val extent : merged.entrySet()) {
+			val other = extent.getValue();
+			if (other != target) {
+				System.arraycopy(other.bytes, 0, target.bytes, (int) (extent.getKey() - start), other.length);
+				pendingBytes -= other.length;
+			}
+		}
+		merged.clear();
+
+		src.get(target.bytes, (int) (offset - start), src.remaining());
+		extents.put(start, target);
+		pendingBytes += target.length;
+		return true;
+	}
+
+	/**
+	 *
+	 * @return true if there are writes to flush
+	 */
+	boolean isDirty() {
+		return !extents.isEmpty();
+	}
+
+	/**
+	 *
+	 * @return offset right after the last pending extent or 0 if there is none
+	 */
+	long getEnd() {
+		val last = extents.lastEntry();
+		return Objects.isNull(last) ? 0 : (last.getKey() + last.getValue().length);
+	}
+
+	/**
+	 *
+	 * @param maxBytes
+	 * @param maxAgeNanos
+	 * @return true if the buffer holds more than maxBytes or its oldest write is older than maxAgeNanos
+	 */
+	boolean isOverThreshold(final long maxBytes, final long maxAgeNanos) {
+		return isDirty() && ((pendingBytes >= maxBytes) || ((System.nanoTime() - firstWriteNanos) >= maxAgeNanos));
+	}
+
+	/**
+	 * Returns the pending extents without removing them, so they stay pending until {@link #clear()} is called once they are committed.
+	 *
+	 * @return start offset -> bytes, ordered by offset
+	 */
+	Map<Long, byte[]> getExtents() {
+		val copy = new TreeMap<Long, byte[]>();
+		for (val extent : extents.entrySet()) {
+			val value = extent.getValue();
+			copy.put(extent.getKey(), value.length == value.bytes.length ? value.bytes : Arrays.copyOf(value.bytes, value.length));
+		}
+		return copy;
+	}
+
+	/**
+	 * Drops all pending extents.
+	 */
+	void clear() {
+		extents.clear();
+		pendingBytes = 0;
+	}
+
+	void close() {
+		closed = true;
+	}
+}
@@ -0,0 +1,19 @@
+package com.dokany.java.examples.mirrorfs;
+
+/**
+ * How {@link MirrorFS} reads the attributes of directory entries when listing a directory.
+ */
+public enum ListingMode {
+	/**
+	 * Looks every matching entry up by its full path, through kernel32 and a separate attribute view; Windows only.
+	 */
+	PER_ENTRY,
+
+	/**
+	 * Reads all attributes of each entry in one {@link java.nio.file.Files#readAttributes(java.nio.file.Path, Class, java.nio.file.LinkOption...)} call on the path returned
+	 * by the directory stream, which on Windows are served from the data the directory enumeration already returned. Where the file store reports the raw dos:attributes word, as the
+	 * Windows provider does, all attributes are read as one map so flags such as reparse point, compressed and encrypted are kept; elsewhere only the flags
+	 * {@link java.nio.file.attribute.DosFileAttributes} exposes are reported.
+	 */
+	BULK;
+}
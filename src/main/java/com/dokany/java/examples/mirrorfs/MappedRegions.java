@@ -0,0 +1,103 @@
+package com.dokany.java.examples.mirrorfs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Read-only memory mapped windows of one file, used by {@link MirrorFS} in {@link ReadMode#MEMORY_MAPPED}. Windows of a fixed size are mapped on first access and kept in a bounded
+ * LRU cache, so reads are served from the page cache and copied straight from mapped memory into the Dokany buffer.
+ *
+ * Java 8 offers no way to unmap a buffer explicitly; windows are unmapped once they are evicted or {@link #clear()}ed and collected.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+final class MappedRegions {
+
+	FileChannel channel;
+	int windowSize;
+	// window index -> mapping
+	Map<Long, MappedByteBuffer> regions;
+
+	MappedRegions(@NonNull final FileChannel channel, final int windowSize, final int maxRegions) {
+		this.channel = channel;
+		this.windowSize = windowSize;
+		regions = new LinkedHashMap<Long, MappedByteBuffer>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Long, MappedByteBuffer> eldest) {
+				return size() > maxRegions;
+			}
+		};
+	}
+
+	/**
+	 * Copies from the mapped windows starting at position until dst is full or the end of the file is reached.
+	 *
+	 * @return number of bytes read
+	 */
+	int read(final long position, @NonNull final ByteBuffer dst) throws IOException {
+		val fileSize = channel.size();
+		int totalRead = 0;
+		while (dst.hasRemaining() && ((position + totalRead) < fileSize)) {
+			val current = position + totalRead;
+			val window = current / windowSize;
+			val start = window * windowSize;
+			val region = getRegion(window, fileSize);
+
+			// duplicate so concurrent readers do not share a position
+			val view = region.duplicate();
+			val offsetInRegion = (int) (current - start);
+			// a region mapped before the file shrank reaches past its end
+			val available = (int) Math.min(view.capacity(), fileSize - start);
+			view.position(offsetInRegion);
+			view.limit(Math.min(available, offsetInRegion + dst.remaining()));
+
+			totalRead += view.remaining();
+			dst.put(view);
+		}
+		return totalRead;
+	}
+
+	/**
+	 *
+	 * @param window
+	 * @param fileSize current size of the file
+	 * @return mapping of window covering the file up to fileSize, remapped if the file grew since it was mapped
+	 */
+	private MappedByteBuffer getRegion(final long window, final long fileSize) throws IOException {
+		val start = window * windowSize;
+		val length = Math.min(windowSize, fileSize - start);
+
+		MappedByteBuffer region;
+		synchronized (regions) {
+			region = regions.get(window);
+		}
+		if (Objects.isNull(region) || (region.capacity() < length)) {
+			region = channel.map(MapMode.READ_ONLY, start, length);
+			synchronized (regions) {
+				regions.put(window, region);
+			}
+		}
+		return region;
+	}
+
+	/**
+	 * Drops every mapping.
+	 */
+	void clear() {
+		synchronized (regions) {
+			regions.clear();
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.dokany.java.examples.mirrorfs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * {@link FileChannel}s of the mirrored file behind one open handle. Attached to the {@link com.dokany.java.FileHandle} so the file is opened once per handle instead of once per
+ * read or write. Channels are opened lazily: a read-only one for reads and a read/write one on the first write, which reads then use as well.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+final class MirrorChannels implements Closeable {
+
+	final Path path;
+
+	FileChannel readChannel;
+	// volatile so reads can pick it up without locking once it exists
+	volatile FileChannel writeChannel;
+
+	MappedRegions mappedRegions;
+
+	MirrorChannels(@NonNull final Path path) {
+		this.path = path;
+	}
+
+	FileChannel forRead() throws IOException {
+		val channel = writeChannel;
+		if (Objects.nonNull(channel)) {
+			return channel;
+		}
+		synchronized (this) {
+			if (Objects.isNull(readChannel)) {
+				readChannel = FileChannel.open(path, StandardOpenOption.READ);
+			}
+			return readChannel;
+		}
+	}
+
+	FileChannel forWrite() throws IOException {
+		val channel = writeChannel;
+		if (Objects.nonNull(channel)) {
+			return channel;
+		}
+		synchronized (this) {
+			if (Objects.isNull(writeChannel)) {
+				// read channel stays open as other threads may still be using it
+				writeChannel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			}
+			return writeChannel;
+		}
+	}
+
+	/**
+	 * @param windowSize
+	 * @param maxRegions
+	 * @return mapped windows of the file, created on first call
+	 */
+	synchronized MappedRegions getMappedRegions(final int windowSize, final int maxRegions) throws IOException {
+		if (Objects.isNull(mappedRegions)) {
+			mappedRegions = new MappedRegions(forRead(), windowSize, maxRegions);
+		}
+		return mappedRegions;
+	}
+
+	/**
+	 * Drops the mapped windows, if any, after the size of the file changed.
+	 */
+	synchronized void clearMappedRegions() {
+		if (Objects.nonNull(mappedRegions)) {
+			mappedRegions.clear();
+		}
+	}
+
+	/**
+	 * Reads at position until dst is full or the end of the file is reached.
+	 *
+	 * @return number of bytes read
+	 */
+	static int readAt(@NonNull final FileChannel channel, final long position, @NonNull final ByteBuffer dst) throws IOException {
+		int totalRead = 0;
+		while (dst.hasRemaining()) {
+			final int numRead = channel.read(dst, position + totalRead);
+			if (numRead < 0) {
+				break;
+			}
+			totalRead += numRead;
+		}
+		return totalRead;
+	}
+
+	/**
+	 * Writes all of src at position.
+	 *
+	 * @return number of bytes written
+	 */
+	static int writeAt(@NonNull final FileChannel channel, final long position, @NonNull final ByteBuffer src) throws IOException {
+		int written = 0;
+		while (src.hasRemaining()) {
+			written += channel.write(src, position + written);
+		}
+		return written;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (Objects.nonNull(mappedRegions)) {
+			mappedRegions.clear();
+		}
+		try {
+			if (Objects.nonNull(readChannel)) {
+				readChannel.close();
+			}
+		} finally {
+			if (Objects.nonNull(writeChannel)) {
+				writeChannel.close();
+			}
+		}
+	}
+}
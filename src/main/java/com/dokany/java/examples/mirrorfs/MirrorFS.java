@@ -1,24 +1,36 @@
 package com.dokany.java.examples.mirrorfs;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributeView;
+import java.nio.file.attribute.DosFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOCase;
 
 import com.dokany.java.DokanyFileSystem;
 import com.dokany.java.DokanyUtils;
+import com.dokany.java.FindDataSink;
 import com.dokany.java.Win32FindStreamData;
 import com.dokany.java.constants.FileAttribute;
 import com.dokany.java.constants.FileSystemFeature;
@@ -47,20 +59,123 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class MirrorFS extends DokanyFileSystem {
 
+	public static final int DEFAULT_MAP_WINDOW_SIZE = 16 * 1024 * 1024;
+	public static final int DEFAULT_MAX_MAPPED_WINDOWS = 16;
+
+	/**
+	 * Directories with fewer matching entries than this are listed on the calling thread even when a listing pool is configured.
+	 */
+	public static final int PARALLEL_LISTING_THRESHOLD = 1024;
+
+	private static final String DOS_ATTRIBUTES = "dos:attributes";
+
 	IOCase ioCase;
 
+	ReadMode readMode;
+	int mapWindowSize;
+	int maxMappedWindows;
+
+	ListingMode listingMode;
+	boolean isDosAttributesSupported;
+	/**
+	 * The dos view reports the raw attribute word as dos:attributes, which only the Windows implementation does.
+	 */
+	boolean isRawAttributesSupported;
+	/**
+	 * Reads attributes of large directories in parallel; null to list on the calling thread only.
+	 */
+	ForkJoinPool listingPool;
+
+	/**
+	 * Uses {@link ReadMode#CHANNEL} and {@link ListingMode#BULK}.
+	 */
 	public MirrorFS(
 	        @NonNull final DeviceOptions deviceOptions,
 	        @NonNull final VolumeInformation volumeInfo,
 	        @NonNull final FreeSpace freeSpace,
 	        @NonNull final Date rootCreationDate,
 	        @NonNull final String rootPath) throws FileNotFoundException {
+		this(deviceOptions, volumeInfo, freeSpace, rootCreationDate, rootPath, ReadMode.CHANNEL, DEFAULT_MAP_WINDOW_SIZE, DEFAULT_MAX_MAPPED_WINDOWS);
+	}
+
+	/**
+	 *
+	 * @param deviceOptions
+	 * @param volumeInfo
+	 * @param freeSpace
+	 * @param rootCreationDate
+	 * @param rootPath
+	 * @param readMode how reads are served
+	 * @param mapWindowSize size of each mapped window (only for {@link ReadMode#MEMORY_MAPPED})
+	 * @param maxMappedWindows windows kept mapped per open handle (only for {@link ReadMode#MEMORY_MAPPED})
+	 * @throws FileNotFoundException
+	 */
+	public MirrorFS(
+	        @NonNull final DeviceOptions deviceOptions,
+	        @NonNull final VolumeInformation volumeInfo,
+	        @NonNull final FreeSpace freeSpace,
+	        @NonNull final Date rootCreationDate,
+	        @NonNull final String rootPath,
+	        @NonNull final ReadMode readMode,
+	        final int mapWindowSize,
+	        final int maxMappedWindows) throws FileNotFoundException {
+		this(deviceOptions, volumeInfo, freeSpace, rootCreationDate, rootPath, readMode, mapWindowSize, maxMappedWindows, ListingMode.BULK, 0);
+	}
+
+	/**
+	 *
+	 * @param deviceOptions
+	 * @param volumeInfo
+	 * @param freeSpace
+	 * @param rootCreationDate
+	 * @param rootPath
+	 * @param readMode how reads are served
+	 * @param mapWindowSize size of each mapped window (only for {@link ReadMode#MEMORY_MAPPED})
+	 * @param maxMappedWindows windows kept mapped per open handle (only for {@link ReadMode#MEMORY_MAPPED})
+	 * @param listingMode how attributes of directory entries are read
+	 * @param listingParallelism threads reading attributes of directories with at least {@link #PARALLEL_LISTING_THRESHOLD} matching entries (only for
+	 *            {@link ListingMode#BULK}); 0 lists every directory on the calling thread
+	 * @throws FileNotFoundException
+	 */
+	public MirrorFS(
+	        @NonNull final DeviceOptions deviceOptions,
+	        @NonNull final VolumeInformation volumeInfo,
+	        @NonNull final FreeSpace freeSpace,
+	        @NonNull final Date rootCreationDate,
+	        @NonNull final String rootPath,
+	        @NonNull final ReadMode readMode,
+	        final int mapWindowSize,
+	        final int maxMappedWindows,
+	        @NonNull final ListingMode listingMode,
+	        final int listingParallelism) throws FileNotFoundException {
 		super(deviceOptions, volumeInfo, freeSpace, rootCreationDate, rootPath);
 
-		if (!DokanyUtils.getPath(rootPath).toFile().exists()) {
+		if (listingParallelism < 0) {
+			throw new IllegalArgumentException("listingParallelism cannot be negative: " + listingParallelism);
+		}
+
+		this.readMode = readMode;
+		this.mapWindowSize = mapWindowSize;
+		this.maxMappedWindows = maxMappedWindows;
+		this.listingMode = listingMode;
+
+		val rootDirectory = DokanyUtils.getPath(rootPath);
+		if (!rootDirectory.toFile().exists()) {
 			throw new FileNotFoundException("Cannot find directory: " + rootPath);
 		}
 
+		boolean isDosSupported;
+		try {
+			isDosSupported = Files.getFileStore(rootDirectory).supportsFileAttributeView(DosFileAttributeView.class);
+		} catch (final IOException e) {
+			log.warn("Could not check dos attribute support of {}", rootPath, e);
+			isDosSupported = false;
+		}
+		isDosAttributesSupported = isDosSupported;
+		isRawAttributesSupported = isDosSupported && isRawAttributesSupported(rootDirectory);
+
+		listingPool = ((listingMode == ListingMode.BULK) && (listingParallelism > 0)) ? new ForkJoinPool(listingParallelism) : null;
+
 		if (volumeInfo.getFileSystemFeatures().contains(FileSystemFeature.CASE_PRESERVED_NAMES)
 		        && volumeInfo.getFileSystemFeatures().contains(FileSystemFeature.CASE_PRESERVED_NAMES)) {
 			ioCase = IOCase.SENSITIVE;
@@ -76,7 +191,9 @@ public class MirrorFS extends DokanyFileSystem {
 
 	@Override
 	public void unmounted() throws IOException {
-		// TODO Auto-generated method stub
+		if (Objects.nonNull(listingPool)) {
+			listingPool.shutdown();
+		}
 	}
 
 	@Override
@@ -86,27 +203,211 @@ public class MirrorFS extends DokanyFileSystem {
 
 	@Override
 	public Set<WIN32_FIND_DATA> findFilesWithPattern(@NonNull final String path, @NonNull final DokanyFileInfo dokanyFileInfo, final String pattern) throws IOException {
-		val normalizedPath = DokanyUtils.normalize(path);
-		val normalizedPattern = DokanyUtils.normalize(pattern);
-		log.trace("findFilesWithPattern for {} with pattern {}", normalizedPath, normalizedPattern);
-		log.trace("dokanyFileInfo in findFilesWithPattern: {}", dokanyFileInfo);
-
 		val files = new HashSet<WIN32_FIND_DATA>();
+		findFilesWithPattern(path, dokanyFileInfo, pattern, files::add);
+		return files;
+	}
+
+	/**
+	 * Streams the directory with {@link Files#newDirectoryStream(Path)} so entries are pushed to sink while the directory is being read. With {@link ListingMode#BULK} and a
+	 * listing pool, large directories are collected first and their attributes read in parallel.
+	 */
+	@Override
+	public void findFilesWithPattern(@NonNull final String path, @NonNull final DokanyFileInfo dokanyFileInfo, final String pattern, @NonNull final FindDataSink sink)
+	        throws IOException {
+		val normalizedPath = DokanyUtils.normalizePath(path);
+		log.trace("findFilesWithPattern for {} with pattern {}", normalizedPath, pattern);
+		log.trace("dokanyFileInfo in findFilesWithPattern: {}", dokanyFileInfo);
 
 		val startingPath = getFullPath(normalizedPath);
 
-		val patternToMatch = DokanyUtils.normalize(Objects.isNull(pattern) ? startingPath + "*" : startingPath + normalizedPattern);
+		if (listingMode == ListingMode.BULK) {
+			// the pattern only applies to file names, so it needs no normalizing against the host file system
+			val namePattern = (Objects.isNull(pattern) || "*".equals(pattern)) ? null : DokanyUtils.trimFrontSeparator(FilenameUtils.separatorsToUnix(pattern));
+			findFilesInBulk(Paths.get(startingPath), namePattern, sink);
+			return;
+		}
+
+		// entries are matched by full path, so the pattern needs the directory with its tail separator in front
+		val directoryPrefix = startingPath.endsWith(DokanyUtils.UNIX_SEPARATOR) ? startingPath : startingPath + DokanyUtils.UNIX_SEPARATOR;
+		val patternToMatch = DokanyUtils.normalizePath(Objects.isNull(pattern) ? directoryPrefix + "*" : directoryPrefix + DokanyUtils.normalizePath(pattern));
 
 		@Cleanup
-		val items = Files.list(Paths.get(startingPath));
-		items.forEach(itemPath -> {
-			addFindData(itemPath, patternToMatch, files);
-		});
-		return files;
+		val items = Files.newDirectoryStream(Paths.get(startingPath));
+		for (val itemPath : items) {
+			addFindData(itemPath, patternToMatch, sink);
+		}
+	}
+
+	/**
+	 *
+	 * @param directory
+	 * @param pattern file name pattern; null matches every entry
+	 * @param sink
+	 */
+	private void findFilesInBulk(@NonNull final Path directory, final String pattern, @NonNull final FindDataSink sink) throws IOException {
+		@Cleanup
+		val items = Files.newDirectoryStream(directory);
+		if (Objects.isNull(listingPool)) {
+			for (val itemPath : items) {
+				if (isMatch(itemPath, pattern)) {
+					accept(toFindData(itemPath), sink);
+				}
+			}
+			return;
+		}
+
+		val matches = new ArrayList<Path>();
+		for (val itemPath : items) {
+			if (isMatch(itemPath, pattern)) {
+				matches.add(itemPath);
+			}
+		}
+
+		if (matches.size() < PARALLEL_LISTING_THRESHOLD) {
+			for (val itemPath : matches) {
+				accept(toFindData(itemPath), sink);
+			}
+			return;
+		}
+
+		log.trace("Reading attributes of {} entries of {} in parallel", matches.size(), directory);
+		try {
+			// sink may call into Dokany, so only attribute reads run on the pool
+			final List<WIN32_FIND_DATA> findData = listingPool.submit(() -> matches.parallelStream().map(this::toFindData).collect(Collectors.toList())).get();
+			for (val data : findData) {
+				accept(data, sink);
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while listing " + directory, e);
+		} catch (final ExecutionException e) {
+			throw new IOException("Could not list " + directory, e.getCause());
+		}
+	}
+
+	private boolean isMatch(@NonNull final Path path, final String pattern) {
+		return Objects.isNull(pattern) || FilenameUtils.wildcardMatch(path.getFileName().toString(), pattern, ioCase);
 	}
 
-	private final void addFindData(@NonNull final Path path, @NonNull final String pattern, @NonNull final Set<WIN32_FIND_DATA> findData) {
-		val normalizedPath = DokanyUtils.normalize(path);
+	private static void accept(final WIN32_FIND_DATA findData, @NonNull final FindDataSink sink) {
+		if (Objects.nonNull(findData)) {
+			sink.accept(findData);
+		}
+	}
+
+	private static boolean isRawAttributesSupported(@NonNull final Path directory) {
+		try {
+			return Files.getAttribute(directory, DOS_ATTRIBUTES) instanceof Integer;
+		} catch (final IOException | IllegalArgumentException | UnsupportedOperationException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Where the raw attribute word is available, all attributes are read in one call as a map so flags without a {@link DosFileAttributes} accessor, such as
+	 * {@link FileAttribute#REPARSE_POINT}, {@link FileAttribute#COMPRESSED} and {@link FileAttribute#ENCRYPTED}, are kept.
+	 *
+	 * @param path entry returned by a directory stream
+	 * @return find data for path or null if its attributes cannot be read
+	 */
+	private WIN32_FIND_DATA toFindData(@NonNull final Path path) {
+		try {
+			if (isRawAttributesSupported) {
+				return toFullFileInfo(path.getFileName().toString(), Files.readAttributes(path, "dos:*")).toWin32FindData();
+			}
+			final BasicFileAttributes basicAttributes = isDosAttributesSupported
+			        ? Files.readAttributes(path, DosFileAttributes.class)
+			        : Files.readAttributes(path, BasicFileAttributes.class);
+			return toFullFileInfo(path.getFileName().toString(), basicAttributes).toWin32FindData();
+		} catch (final IOException e) {
+			log.warn("Could not retrieve file info for {}", path, e);
+			return null;
+		}
+	}
+
+	/**
+	 *
+	 * @param fileName
+	 * @param dosAttributes every attribute of the dos view, including dos:attributes
+	 */
+	private FullFileInfo toFullFileInfo(@NonNull final String fileName, @NonNull final Map<String, Object> dosAttributes) throws FileNotFoundException {
+		val attributes = FileAttribute.fromInt((Integer) dosAttributes.get("attributes"));
+		if (attributes.size() == 0) {
+			attributes.add(FileAttribute.NORMAL);
+		}
+		return toFullFileInfo(
+		        fileName,
+		        attributes,
+		        (Boolean) dosAttributes.get("isDirectory"),
+		        (Long) dosAttributes.get("size"),
+		        dosAttributes.get("fileKey"),
+		        (FileTime) dosAttributes.get("creationTime"),
+		        (FileTime) dosAttributes.get("lastAccessTime"),
+		        (FileTime) dosAttributes.get("lastModifiedTime"));
+	}
+
+	private FullFileInfo toFullFileInfo(@NonNull final String fileName, @NonNull final BasicFileAttributes basicAttributes) throws FileNotFoundException {
+		val attributes = new EnumIntegerSet<>(FileAttribute.class);
+		if (basicAttributes.isDirectory()) {
+			attributes.add(FileAttribute.DIRECTORY);
+		}
+		if (basicAttributes instanceof DosFileAttributes) {
+			val dosAttributes = (DosFileAttributes) basicAttributes;
+			if (dosAttributes.isReadOnly()) {
+				attributes.add(FileAttribute.READONLY);
+			}
+			if (dosAttributes.isHidden()) {
+				attributes.add(FileAttribute.HIDDEN);
+			}
+			if (dosAttributes.isSystem()) {
+				attributes.add(FileAttribute.SYSTEM);
+			}
+			if (dosAttributes.isArchive()) {
+				attributes.add(FileAttribute.ARCHIVE);
+			}
+		}
+		if (attributes.size() == 0) {
+			attributes.add(FileAttribute.NORMAL);
+		}
+		return toFullFileInfo(
+		        fileName,
+		        attributes,
+		        basicAttributes.isDirectory(),
+		        basicAttributes.size(),
+		        basicAttributes.fileKey(),
+		        basicAttributes.creationTime(),
+		        basicAttributes.lastAccessTime(),
+		        basicAttributes.lastModifiedTime());
+	}
+
+	private FullFileInfo toFullFileInfo(
+	        @NonNull final String fileName,
+	        @NonNull final EnumIntegerSet<FileAttribute> attributes,
+	        final boolean isDirectory,
+	        final long size,
+	        final Object fileKey,
+	        @NonNull final FileTime creationTime,
+	        @NonNull final FileTime lastAccessTime,
+	        @NonNull final FileTime lastModifiedTime) throws FileNotFoundException {
+		val fileIndex = (fileKey instanceof Long) ? (Long) fileKey : 0L;
+
+		val info = new FullFileInfo(
+		        fileName,
+		        fileIndex,
+		        attributes,
+		        volumeInfo.getSerialNumber(),
+		        DokanyUtils.toFILETIME(creationTime),
+		        DokanyUtils.toFILETIME(lastAccessTime),
+		        DokanyUtils.toFILETIME(lastModifiedTime));
+		if (!isDirectory) {
+			info.setSize(size);
+		}
+		return info;
+	}
+
+	private final void addFindData(@NonNull final Path path, @NonNull final String pattern, @NonNull final FindDataSink findData) {
+		val normalizedPath = DokanyUtils.normalizePath(path.toString());
 		log.trace("getFindData for path {} with pattern {}", normalizedPath, pattern);
 
 		// root already normalized and has trailing slash
@@ -117,7 +418,7 @@ public class MirrorFS extends DokanyFileSystem {
 				log.trace("Found match: {}", normalizedPath);
 				val info = getInfo(normalizedPath, pattern.replace("*", ""));
 				if (Objects.nonNull(info)) {
-					findData.add(info.toWin32FindData());
+					findData.accept(info.toWin32FindData());
 				}
 			} catch (final IOException | Win32Exception e) {
 				log.warn("Could not retrieve file info for {}", normalizedPath, e);
@@ -127,7 +428,7 @@ public class MirrorFS extends DokanyFileSystem {
 
 	/**
 	 *
-	 * @param normalizedPath with or without root. This must already be normalized using {@link com.dokany.java.DokanyUtils#normalize(path))}.
+	 * @param normalizedPath with or without root. This must already be normalized using {@link com.dokany.java.DokanyUtils#normalizePath(String)}.
 	 * @return path full path to from mirror (this means it will include root)
 	 */
 	private String getFullPath(@NonNull final String normalizedPath) {
@@ -150,7 +451,7 @@ public class MirrorFS extends DokanyFileSystem {
 	 */
 	@Override
 	public FullFileInfo getInfo(@NonNull final String path) throws IOException {
-		return getInfo(DokanyUtils.normalize(path), null);
+		return getInfo(DokanyUtils.normalizePath(path), (String) null);
 	}
 
 	/**
@@ -245,25 +546,46 @@ public class MirrorFS extends DokanyFileSystem {
 
 	@Override
 	public FileData read(@NonNull final String path, final int offset, final int readLength) throws IOException {
-		val normalizedPath = DokanyUtils.normalize(path);
-		val fullPath = getFullPath(normalizedPath);
-		new File("C:/development");
-		// if (info.Context == null) // memory mapped read {
+		return read(path, (long) offset, readLength);
+	}
 
+	@Override
+	public FileData read(@NonNull final String path, final long offset, final int readLength) throws IOException {
+		val fullPath = getFullPath(DokanyUtils.normalizePath(path));
 		log.trace("read: {}", fullPath);
 
-		int numRead = 0;
 		val data = new byte[readLength];
 
 		@Cleanup
-		final FileInputStream fis = new FileInputStream(fullPath);
-		numRead = fis.read(data, offset, readLength);
+		val channel = FileChannel.open(Paths.get(fullPath), StandardOpenOption.READ);
+		val numRead = MirrorChannels.readAt(channel, offset, ByteBuffer.wrap(data));
 
 		return new FileData(data, numRead);
-		/*
-		 * else // normal read { var stream = info.Context as FileStream; lock (stream) //Protect from overlapped read { stream.Position = offset; bytesRead = stream.Read(buffer,
-		 * 0, buffer.Length); } }
-		 */
+	}
+
+	/**
+	 * Reads the mirrored file at offset straight into the Dokany buffer using {@link FileChannel#read(ByteBuffer, long)} on the channel cached for the handle.
+	 *
+	 * @param path
+	 * @param offset
+	 * @param dst
+	 * @param dokanyFileInfo
+	 */
+	@Override
+	public int read(@NonNull final String path, final long offset, @NonNull final ByteBuffer dst, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		val fullPath = getFullPath(DokanyUtils.normalizePath(path));
+		log.trace("read: {}", fullPath);
+
+		val channels = getChannels(fullPath, dokanyFileInfo);
+		if (Objects.isNull(channels)) {
+			@Cleanup
+			val channel = FileChannel.open(Paths.get(fullPath), StandardOpenOption.READ);
+			return MirrorChannels.readAt(channel, offset, dst);
+		}
+		if (readMode == ReadMode.MEMORY_MAPPED) {
+			return channels.getMappedRegions(mapWindowSize, maxMappedWindows).read(offset, dst);
+		}
+		return MirrorChannels.readAt(channels.forRead(), offset, dst);
 	}
 
 	/**
@@ -275,14 +597,62 @@ public class MirrorFS extends DokanyFileSystem {
 	 */
 	@Override
 	public int write(@NonNull final String path, final int offset, @NonNull final byte[] data, final int writeLength) throws IOException {
-		val normalizedPath = DokanyUtils.normalize(path);
-		val fullPath = getFullPath(normalizedPath);
+		return write(path, (long) offset, data, writeLength);
+	}
 
+	/**
+	 *
+	 * @param path
+	 * @param offset
+	 * @param data
+	 * @param writeLength
+	 */
+	@Override
+	public int write(@NonNull final String path, final long offset, @NonNull final byte[] data, final int writeLength) throws IOException {
 		@Cleanup
-		final FileOutputStream fis = new FileOutputStream(fullPath);
-		fis.write(data, offset, writeLength);
+		val channel = FileChannel.open(Paths.get(getFullPath(DokanyUtils.normalizePath(path))), StandardOpenOption.WRITE);
+		return MirrorChannels.writeAt(channel, offset, ByteBuffer.wrap(data, 0, writeLength));
+	}
 
-		return writeLength - offset;
+	/**
+	 * Writes src to the mirrored file at offset using {@link FileChannel#write(ByteBuffer, long)} on the channel cached for the handle, so the Dokany buffer is never copied onto
+	 * the heap.
+	 *
+	 * @param path
+	 * @param offset
+	 * @param src
+	 * @param dokanyFileInfo
+	 */
+	@Override
+	public int write(@NonNull final String path, final long offset, @NonNull final ByteBuffer src, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		val fullPath = getFullPath(DokanyUtils.normalizePath(path));
+
+		val channels = getChannels(fullPath, dokanyFileInfo);
+		if (Objects.isNull(channels)) {
+			@Cleanup
+			val channel = FileChannel.open(Paths.get(fullPath), StandardOpenOption.WRITE);
+			return MirrorChannels.writeAt(channel, offset, src);
+		}
+		return MirrorChannels.writeAt(channels.forWrite(), offset, src);
+	}
+
+	/**
+	 *
+	 * @param fullPath
+	 * @param dokanyFileInfo
+	 * @return channels attached to the handle of dokanyFileInfo (attaching them if needed) or null if there is no open handle
+	 */
+	private MirrorChannels getChannels(@NonNull final String fullPath, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		val handle = handles.get(dokanyFileInfo);
+		if (Objects.isNull(handle)) {
+			return null;
+		}
+		val channels = handle.getAttachment(MirrorChannels.class);
+		if (Objects.nonNull(channels)) {
+			return channels;
+		}
+		// channels open lazily, so losing the race costs nothing
+		return (MirrorChannels) handle.attachIfAbsent(new MirrorChannels(Paths.get(fullPath)));
 	}
 
 	/**
@@ -321,7 +691,15 @@ public class MirrorFS extends DokanyFileSystem {
 	 */
 	@Override
 	public void cleanup(@NonNull final String path, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
-		// File already closed by DokanyOperationsProxy
+		// Close channels and mapped windows cached for the handle so the file can be deleted; later paging I/O reopens them
+		val handle = handles.get(dokanyFileInfo);
+		if (Objects.nonNull(handle)) {
+			val channels = handle.attach(null);
+			if (Objects.nonNull(channels)) {
+				((MirrorChannels) channels).close();
+			}
+		}
+
 		if (dokanyFileInfo.deleteOnClose()) {
 			// does not matter file or directory
 			Files.delete(DokanyUtils.getPath(path));
@@ -372,14 +750,66 @@ public class MirrorFS extends DokanyFileSystem {
 
 	@Override
 	public void setAllocationSize(@NonNull final String path, final int length) throws IOException {
-		// TODO Auto-generated method stub
+		setAllocationSize(path, (long) length);
+	}
 
+	/**
+	 * Only shrinks the file; growing the allocation is left to the host file system.
+	 *
+	 * @param path
+	 * @param length
+	 */
+	@Override
+	public void setAllocationSize(@NonNull final String path, final long length) throws IOException {
+		@Cleanup
+		val file = new RandomAccessFile(getFullPath(DokanyUtils.normalizePath(path)), "rw");
+		if (length < file.length()) {
+			file.setLength(length);
+		}
+	}
+
+	/**
+	 * Like {@link #setAllocationSize(String, long)} and drops the windows mapped for the handle of dokanyFileInfo.
+	 */
+	@Override
+	public void setAllocationSize(@NonNull final String path, final long length, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		setAllocationSize(path, length);
+		clearMappedRegions(dokanyFileInfo);
 	}
 
 	@Override
 	public void setEndOfFile(@NonNull final String path, final int offset) throws IOException {
-		// TODO Auto-generated method stub
+		setEndOfFile(path, (long) offset);
+	}
+
+	/**
+	 * @param path
+	 * @param offset new file length
+	 */
+	@Override
+	public void setEndOfFile(@NonNull final String path, final long offset) throws IOException {
+		@Cleanup
+		val file = new RandomAccessFile(getFullPath(DokanyUtils.normalizePath(path)), "rw");
+		file.setLength(offset);
+	}
 
+	/**
+	 * Like {@link #setEndOfFile(String, long)} and drops the windows mapped for the handle of dokanyFileInfo, so none of them covers a range the file no longer has.
+	 */
+	@Override
+	public void setEndOfFile(@NonNull final String path, final long offset, @NonNull final DokanyFileInfo dokanyFileInfo) throws IOException {
+		setEndOfFile(path, offset);
+		clearMappedRegions(dokanyFileInfo);
+	}
+
+	private void clearMappedRegions(@NonNull final DokanyFileInfo dokanyFileInfo) {
+		val handle = handles.get(dokanyFileInfo);
+		if (Objects.nonNull(handle)) {
+			val channels = handle.getAttachment(MirrorChannels.class);
+			if (Objects.nonNull(channels)) {
+				channels.clearMappedRegions();
+			}
+		}
 	}
 
 	/**
@@ -393,14 +823,40 @@ public class MirrorFS extends DokanyFileSystem {
 
 	@Override
 	public void unlock(@NonNull final String path, final int offset, final int length) throws IOException {
+		unlock(path, (long) offset, (long) length);
+	}
+
+	@Override
+	public void unlock(@NonNull final String path, final long offset, final long length) throws IOException {
 		throw new UnsupportedOperationException("unlock: Not yet implemented");
 	}
 
+	/**
+	 * Unlocks the range for the handle of dokanyFileInfo in {@link #getRangeLocks()}.
+	 */
+	@Override
+	public void unlock(@NonNull final String path, final long offset, final long length, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		rangeLocks.unlock(path, offset, length, dokanyFileInfo.Context);
+	}
+
 	@Override
 	public void lock(@NonNull final String path, final int offset, final int length) throws IOException {
+		lock(path, (long) offset, (long) length);
+	}
+
+	@Override
+	public void lock(@NonNull final String path, final long offset, final long length) throws IOException {
 		throw new UnsupportedOperationException("lock: Not yet implemented");
 	}
 
+	/**
+	 * Locks the range for the handle of dokanyFileInfo in {@link #getRangeLocks()}.
+	 */
+	@Override
+	public void lock(@NonNull final String path, final long offset, final long length, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		rangeLocks.lock(path, offset, length, dokanyFileInfo.Context);
+	}
+
 	@Override
 	public Set<Win32FindStreamData> findStreams(@NonNull final String path) throws IOException {
 		throw new UnsupportedOperationException("findStreams: Not yet implemented");
@@ -0,0 +1,16 @@
+package com.dokany.java.examples.mirrorfs;
+
+/**
+ * How {@link MirrorFS} serves reads.
+ */
+public enum ReadMode {
+	/**
+	 * Positional {@link java.nio.channels.FileChannel} reads.
+	 */
+	CHANNEL,
+
+	/**
+	 * Copies from lazily mapped windows of the file; suited to read-mostly mirrors of large files. See {@link MappedRegions}.
+	 */
+	MEMORY_MAPPED;
+}
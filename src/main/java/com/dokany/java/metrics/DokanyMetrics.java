@@ -0,0 +1,98 @@
+package com.dokany.java.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link OperationRecorder} keeping count, error count, bytes transferred and a latency histogram per {@link Operation}.
+ *
+ * Metrics can be read in process with {@link #snapshot()} or through JMX after {@link #registerMBeans(String)}, which registers one {@link OperationMetricsMXBean} per operation
+ * as com.dokany.java:type=Operation,scope=&lt;scope&gt;,name=&lt;callback name&gt;.
+ */
+@Slf4j
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public final class DokanyMetrics implements OperationRecorder {
+	public static final String JMX_DOMAIN = "com.dokany.java";
+
+	OperationMetrics[] metrics;
+
+	List<ObjectName> registeredNames = new ArrayList<>();
+
+	public DokanyMetrics() {
+		val operations = Operation.values();
+		metrics = new OperationMetrics[operations.length];
+		for (val operation : operations) {
+			metrics[operation.ordinal()] = new OperationMetrics(operation);
+		}
+	}
+
+	@Override
+	public void record(@NonNull final Operation operation, final long latencyNanos, final long status, final long bytes) {
+		metrics[operation.ordinal()].record(latencyNanos, status, bytes);
+	}
+
+	/**
+	 *
+	 * @param operation
+	 * @return current metrics of operation
+	 */
+	public OperationSnapshot snapshot(@NonNull final Operation operation) {
+		return metrics[operation.ordinal()].snapshot();
+	}
+
+	/**
+	 *
+	 * @return current metrics of every operation
+	 */
+	public Map<Operation, OperationSnapshot> snapshot() {
+		val snapshots = new EnumMap<Operation, OperationSnapshot>(Operation.class);
+		for (val operationMetrics : metrics) {
+			snapshots.put(operationMetrics.getOperation(), operationMetrics.snapshot());
+		}
+		return snapshots;
+	}
+
+	/**
+	 * Registers one MXBean per operation with the platform MBean server.
+	 *
+	 * @param scope distinguishes the metrics of several mounted file systems, for example the mount point
+	 * @throws JMException
+	 */
+	public synchronized void registerMBeans(@NonNull final String scope) throws JMException {
+		val server = ManagementFactory.getPlatformMBeanServer();
+		for (val operationMetrics : metrics) {
+			val name = new ObjectName(JMX_DOMAIN + ":type=Operation,scope=" + ObjectName.quote(scope) + ",name=" + operationMetrics.getOperation().getCallbackName());
+			server.registerMBean(new StandardMBean(operationMetrics, OperationMetricsMXBean.class, true), name);
+			registeredNames.add(name);
+		}
+		log.debug("Registered {} operation MBeans for {}", registeredNames.size(), scope);
+	}
+
+	/**
+	 * Unregisters the MXBeans registered by {@link #registerMBeans(String)}.
+	 */
+	public synchronized void unregisterMBeans() {
+		val server = ManagementFactory.getPlatformMBeanServer();
+		for (val name : registeredNames) {
+			try {
+				server.unregisterMBean(name);
+			} catch (final JMException e) {
+				log.warn("Could not unregister {}", name, e);
+			}
+		}
+		registeredNames.clear();
+	}
+}
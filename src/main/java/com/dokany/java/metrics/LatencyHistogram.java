@@ -0,0 +1,87 @@
+package com.dokany.java.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram: every power of two is split into {@link #SUB_BUCKETS} equal buckets, so any recorded value is reported within
+ * 1/{@link #SUB_BUCKETS} of its true value. Buckets are preallocated and {@link #record(long)} only increments an array slot, so recording never allocates.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+	/**
+	 *
+	 * @param value latency in nanoseconds; negative values count as 0
+	 */
+	public void record(final long value) {
+		counts.incrementAndGet(bucketIndex(value));
+	}
+
+	/**
+	 *
+	 * @return copy of the bucket counts, not necessarily consistent with concurrent recording
+	 */
+	long[] copyCounts() {
+		final long[] copy = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			copy[i] = counts.get(i);
+		}
+		return copy;
+	}
+
+	static int bucketIndex(final long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) Math.max(value, 0);
+		}
+		final int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+		final int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+		return ((shift + 1) * SUB_BUCKETS) + subBucket;
+	}
+
+	/**
+	 *
+	 * @return largest value falling into bucket index
+	 */
+	static long bucketUpperBound(final int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		final int shift = (index / SUB_BUCKETS) - 1;
+		final long lowerBound = (long) (SUB_BUCKETS + (index % SUB_BUCKETS)) << shift;
+		return lowerBound + ((1L << shift) - 1);
+	}
+
+	/**
+	 *
+	 * @param counts bucket counts from {@link #copyCounts()}
+	 * @param percentile between 0 and 100
+	 * @return upper bound of the bucket holding the value at percentile, 0 if nothing was recorded
+	 */
+	static long valueAtPercentile(final long[] counts, final double percentile) {
+		long total = 0;
+		for (final long count : counts) {
+			total += count;
+		}
+		if (total == 0) {
+			return 0;
+		}
+
+		final long rank = Math.max(1, (long) Math.ceil((Math.min(percentile, 100.0) / 100.0) * total));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return bucketUpperBound(i);
+			}
+		}
+		return bucketUpperBound(counts.length - 1);
+	}
+}
@@ -0,0 +1,44 @@
+package com.dokany.java.metrics;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Dokany callbacks recorded by an {@link OperationRecorder}, named like the fields of {@link com.dokany.java.DokanyOperations}.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public enum Operation {
+	ZW_CREATE_FILE("ZwCreateFile"),
+	CLEANUP("Cleanup"),
+	CLOSE_FILE("CloseFile"),
+	READ_FILE("ReadFile"),
+	WRITE_FILE("WriteFile"),
+	FLUSH_FILE_BUFFERS("FlushFileBuffers"),
+	GET_FILE_INFORMATION("GetFileInformation"),
+	FIND_FILES("FindFiles"),
+	FIND_FILES_WITH_PATTERN("FindFilesWithPattern"),
+	SET_FILE_ATTRIBUTES("SetFileAttributes"),
+	SET_FILE_TIME("SetFileTime"),
+	DELETE_FILE("DeleteFile"),
+	DELETE_DIRECTORY("DeleteDirectory"),
+	MOVE_FILE("MoveFile"),
+	SET_END_OF_FILE("SetEndOfFile"),
+	SET_ALLOCATION_SIZE("SetAllocationSize"),
+	LOCK_FILE("LockFile"),
+	UNLOCK_FILE("UnlockFile"),
+	GET_DISK_FREE_SPACE("GetDiskFreeSpace"),
+	GET_VOLUME_INFORMATION("GetVolumeInformation"),
+	MOUNTED("Mounted"),
+	UNMOUNTED("Unmounted"),
+	GET_FILE_SECURITY("GetFileSecurity"),
+	SET_FILE_SECURITY("SetFileSecurity"),
+	FIND_STREAMS("FindStreams");
+
+	@Getter
+	String callbackName;
+
+	private Operation(final String callbackName) {
+		this.callbackName = callbackName;
+	}
+}
@@ -0,0 +1,87 @@
+package com.dokany.java.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Counters and latency histogram of one {@link Operation}. Recording only touches striped adders and a preallocated histogram.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+final class OperationMetrics implements OperationMetricsMXBean {
+	@Getter
+	Operation operation;
+
+	LongAdder count = new LongAdder();
+	LongAdder errorCount = new LongAdder();
+	LongAdder bytes = new LongAdder();
+	LongAdder totalLatency = new LongAdder();
+	LongAccumulator maxLatency = new LongAccumulator(Math::max, 0);
+	LatencyHistogram latencies = new LatencyHistogram();
+
+	OperationMetrics(@NonNull final Operation operation) {
+		this.operation = operation;
+	}
+
+	void record(final long latencyNanos, final long status, final long bytesTransferred) {
+		count.increment();
+		if (status != 0) {
+			errorCount.increment();
+		}
+		if (bytesTransferred > 0) {
+			bytes.add(bytesTransferred);
+		}
+		totalLatency.add(latencyNanos);
+		maxLatency.accumulate(latencyNanos);
+		latencies.record(latencyNanos);
+	}
+
+	OperationSnapshot snapshot() {
+		return new OperationSnapshot(operation, count.sum(), errorCount.sum(), bytes.sum(), totalLatency.sum(), maxLatency.get(), latencies.copyCounts());
+	}
+
+	@Override
+	public long getCount() {
+		return count.sum();
+	}
+
+	@Override
+	public long getErrorCount() {
+		return errorCount.sum();
+	}
+
+	@Override
+	public long getBytes() {
+		return bytes.sum();
+	}
+
+	@Override
+	public long getMeanLatency() {
+		final long total = count.sum();
+		return (total == 0) ? 0 : totalLatency.sum() / total;
+	}
+
+	@Override
+	public long getMaxLatency() {
+		return maxLatency.get();
+	}
+
+	@Override
+	public long getLatency50thPercentile() {
+		return snapshot().getLatencyAtPercentile(50);
+	}
+
+	@Override
+	public long getLatency99thPercentile() {
+		return snapshot().getLatencyAtPercentile(99);
+	}
+
+	@Override
+	public long getLatency999thPercentile() {
+		return snapshot().getLatencyAtPercentile(99.9);
+	}
+}
@@ -0,0 +1,23 @@
+package com.dokany.java.metrics;
+
+/**
+ * JMX view of the metrics of one {@link Operation}, registered by {@link DokanyMetrics#registerMBeans(String)}. Latencies are in nanoseconds.
+ */
+public interface OperationMetricsMXBean {
+
+	long getCount();
+
+	long getErrorCount();
+
+	long getBytes();
+
+	long getMeanLatency();
+
+	long getMaxLatency();
+
+	long getLatency50thPercentile();
+
+	long getLatency99thPercentile();
+
+	long getLatency999thPercentile();
+}
@@ -0,0 +1,22 @@
+package com.dokany.java.metrics;
+
+import lombok.NonNull;
+
+/**
+ * Receives one call per Dokany callback completed by {@link com.dokany.java.DokanyOperationsProxy}. Set it with
+ * {@link com.dokany.java.structure.DeviceOptions#setOperationRecorder(OperationRecorder)}; callbacks are only timed when a recorder is set.
+ *
+ * Called on Dokany threads for every callback, so implementations must be thread safe and should not allocate or block.
+ */
+@FunctionalInterface
+public interface OperationRecorder {
+
+	/**
+	 *
+	 * @param operation callback which completed
+	 * @param latencyNanos time spent in the callback
+	 * @param status NTSTATUS or error code returned to Dokany, 0 on success
+	 * @param bytes bytes read or written, 0 for operations not transferring data
+	 */
+	void record(@NonNull Operation operation, long latencyNanos, long status, long bytes);
+}
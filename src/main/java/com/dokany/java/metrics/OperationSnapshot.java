@@ -0,0 +1,59 @@
+package com.dokany.java.metrics;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Point in time copy of the metrics of one {@link Operation}. Latencies are in nanoseconds.
+ */
+@ToString(exclude = "latencyCounts")
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public final class OperationSnapshot {
+	@Getter
+	Operation operation;
+	@Getter
+	long count;
+	@Getter
+	long errorCount;
+	@Getter
+	long bytes;
+	@Getter
+	long totalLatency;
+	@Getter
+	long maxLatency;
+
+	long[] latencyCounts;
+
+	OperationSnapshot(
+	        @NonNull final Operation operation,
+	        final long count,
+	        final long errorCount,
+	        final long bytes,
+	        final long totalLatency,
+	        final long maxLatency,
+	        @NonNull final long[] latencyCounts) {
+		this.operation = operation;
+		this.count = count;
+		this.errorCount = errorCount;
+		this.bytes = bytes;
+		this.totalLatency = totalLatency;
+		this.maxLatency = maxLatency;
+		this.latencyCounts = latencyCounts;
+	}
+
+	public long getMeanLatency() {
+		return (count == 0) ? 0 : totalLatency / count;
+	}
+
+	/**
+	 *
+	 * @param percentile between 0 and 100, for example 99.9
+	 * @return latency at percentile, accurate to 1/8 of its value
+	 */
+	public long getLatencyAtPercentile(final double percentile) {
+		return LatencyHistogram.valueAtPercentile(latencyCounts, percentile);
+	}
+}
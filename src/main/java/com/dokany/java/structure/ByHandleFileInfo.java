@@ -178,8 +178,8 @@ public class ByHandleFileInfo extends Structure implements Structure.ByReference
 
 		val largeInt = DokanyUtils.getLargeInt(size, sizeHigh, sizeLow);
 
-		nFileSizeHigh = ((size != 0) && (sizeHigh == 0)) ? largeInt.getHigh().intValue() : (int) size;
-		nFileSizeLow = ((size != 0) && (sizeLow == 0)) ? largeInt.getLow().intValue() : (int) size;
+		nFileSizeHigh = ((size != 0) && (sizeHigh == 0)) ? largeInt.getHigh().intValue() : sizeHigh;
+		nFileSizeLow = ((size != 0) && (sizeLow == 0)) ? largeInt.getLow().intValue() : sizeLow;
 
 	}
 
@@ -199,8 +199,8 @@ public class ByHandleFileInfo extends Structure implements Structure.ByReference
 
 		val largeInt = DokanyUtils.getLargeInt(index, indexHigh, indexLow);
 
-		nFileIndexHigh = ((index != 0) && (indexHigh == 0)) ? largeInt.getHigh().intValue() : (int) index;
-		nFileIndexLow = ((index != 0) && (indexLow == 0)) ? largeInt.getLow().intValue() : (int) index;
+		nFileIndexHigh = ((index != 0) && (indexHigh == 0)) ? largeInt.getHigh().intValue() : indexHigh;
+		nFileIndexLow = ((index != 0) && (indexLow == 0)) ? largeInt.getLow().intValue() : indexLow;
 	}
 
 	@Override
@@ -1,13 +1,17 @@
 package com.dokany.java.structure;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
+import com.dokany.java.SkipFileMatcher;
 import com.dokany.java.constants.MountOption;
+import com.dokany.java.metrics.OperationRecorder;
 import com.sun.jna.Structure;
 import com.sun.jna.WString;
 
+import lombok.NonNull;
 import lombok.ToString;
 
 /**
@@ -65,6 +69,46 @@ public class DeviceOptions extends Structure implements Structure.ByReference {
 	 */
 	public long SectorSize;
 
+	/**
+	 * Default number of normalized paths cached by {@link com.dokany.java.PathCache}.
+	 */
+	public static final int DEFAULT_PATH_CACHE_SIZE = 4096;
+
+	/**
+	 * Number of normalized paths cached. Not passed to Dokany.
+	 */
+	private int pathCacheSize = DEFAULT_PATH_CACHE_SIZE;
+
+	/**
+	 * Default number of paths remembered as missing by {@link com.dokany.java.NegativeLookupCache}.
+	 */
+	public static final int DEFAULT_NEGATIVE_CACHE_SIZE = 1024;
+
+	/**
+	 * Default time a path is remembered as missing.
+	 */
+	public static final long DEFAULT_NEGATIVE_CACHE_TTL_MILLIS = 1000;
+
+	/**
+	 * Number of paths remembered as missing. Not passed to Dokany.
+	 */
+	private int negativeCacheSize = DEFAULT_NEGATIVE_CACHE_SIZE;
+
+	/**
+	 * Time in milliseconds a path is remembered as missing. Not passed to Dokany.
+	 */
+	private long negativeCacheTtlMillis = DEFAULT_NEGATIVE_CACHE_TTL_MILLIS;
+
+	/**
+	 * File names never passed to the file system. Not passed to Dokany.
+	 */
+	private List<String> skipFileNames = SkipFileMatcher.DEFAULT_SKIP_FILE_NAMES;
+
+	/**
+	 * Receives the latency and result of every callback, null for none. Not passed to Dokany.
+	 */
+	private OperationRecorder operationRecorder;
+
 	public DeviceOptions() {
 	}
 
@@ -95,6 +139,67 @@ public class DeviceOptions extends Structure implements Structure.ByReference {
 		return mountOptions;
 	}
 
+	public int getPathCacheSize() {
+		return pathCacheSize;
+	}
+
+	/**
+	 *
+	 * @param pathCacheSize number of normalized paths to cache; 0 disables the cache
+	 */
+	public void setPathCacheSize(final int pathCacheSize) {
+		this.pathCacheSize = pathCacheSize;
+	}
+
+	public int getNegativeCacheSize() {
+		return negativeCacheSize;
+	}
+
+	/**
+	 *
+	 * @param negativeCacheSize number of paths to remember as missing; 0 disables remembering
+	 */
+	public void setNegativeCacheSize(final int negativeCacheSize) {
+		this.negativeCacheSize = negativeCacheSize;
+	}
+
+	public long getNegativeCacheTtlMillis() {
+		return negativeCacheTtlMillis;
+	}
+
+	/**
+	 *
+	 * @param negativeCacheTtlMillis how long a path reported as not found is answered as missing without asking the file system
+	 */
+	public void setNegativeCacheTtlMillis(final long negativeCacheTtlMillis) {
+		this.negativeCacheTtlMillis = negativeCacheTtlMillis;
+	}
+
+	public List<String> getSkipFileNames() {
+		return skipFileNames;
+	}
+
+	/**
+	 *
+	 * @param skipFileNames file names, matched case-insensitively against the last path component, which are reported as not found or invalid without asking the file system;
+	 *            * matches any characters and ? a single one, as in *.lnk or ~$*.doc?. Defaults to {@link SkipFileMatcher#DEFAULT_SKIP_FILE_NAMES}.
+	 */
+	public void setSkipFileNames(@NonNull final List<String> skipFileNames) {
+		this.skipFileNames = new ArrayList<>(skipFileNames);
+	}
+
+	public OperationRecorder getOperationRecorder() {
+		return operationRecorder;
+	}
+
+	/**
+	 *
+	 * @param operationRecorder recorder for every callback, for example {@link com.dokany.java.metrics.DokanyMetrics}; null disables timing
+	 */
+	public void setOperationRecorder(final OperationRecorder operationRecorder) {
+		this.operationRecorder = operationRecorder;
+	}
+
 	@Override
 	protected List<String> getFieldOrder() {
 		return Arrays.asList(
@@ -20,7 +20,7 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  *
- * Combines {@link FullFileInfo} and {@link WIN32_FIND_DATA}. This object will be stored in the Xodus fileInfo store.
+ * Combines {@link FullFileInfo} and {@link WIN32_FIND_DATA}. This object will be stored in the Xodus fileInfo store, see {@link FullFileInfoCodec}.
  */
 @Slf4j
 @ToString
@@ -34,12 +34,20 @@ public class FullFileInfo extends ByHandleFileInfo {
 	 * IO_REPARSE_TAG_HSM2 (0x80000006) IO_REPARSE_TAG_MOUNT_POINT (0xA0000003) IO_REPARSE_TAG_NFS (0x80000014) IO_REPARSE_TAG_SIS (0x80000007) IO_REPARSE_TAG_SYMLINK (0xA000000C)
 	 * IO_REPARSE_TAG_WIM (0x80000008)
 	 */
-	private int dwReserved0;
+	int dwReserved0;
 
 	/**
 	 * Reserved for future use.
 	 */
-	private int dwReserved1;
+	int dwReserved1;
+
+	/**
+	 * Info with zeroed times, filled in by {@link FullFileInfoCodec}.
+	 */
+	FullFileInfo(@NonNull final String path) {
+		super(new FILETIME(), new FILETIME(), new FILETIME());
+		filePath = path;
+	}
 
 	public FullFileInfo(
 	        @NonNull final String path,
@@ -73,6 +81,12 @@ public class FullFileInfo extends ByHandleFileInfo {
 		log.trace(super.toString());
 	}
 
+	/**
+	 * Reads the variable-length layout written by {@link #toByteIterable()}, which stores size and index twice and times as milliseconds.
+	 *
+	 * @deprecated use {@link FullFileInfoCodec#decode(String, ByteIterable)}; kept to read records of the earlier layout
+	 */
+	@Deprecated
 	public FullFileInfo(@NonNull final String path, @NonNull final ByteIterable iterable) throws FileNotFoundException {
 		if (Objects.isNull(path) || Objects.isNull(iterable)) {
 			throw new FileNotFoundException("path or iterable was null and thus file info could not be created");
@@ -102,6 +116,11 @@ public class FullFileInfo extends ByHandleFileInfo {
 		dwReserved1 = IntegerBinding.readCompressed(iterator);
 	}
 
+	/**
+	 *
+	 * @deprecated use {@link FullFileInfoCodec#encode(FullFileInfo)}
+	 */
+	@Deprecated
 	public ArrayByteIterable toByteIterable() {
 		val output = new LightOutputStream();
 
@@ -131,6 +150,34 @@ public class FullFileInfo extends ByHandleFileInfo {
 		return output.asArrayByteIterable();
 	}
 
+	/**
+	 * Unlike {@link #copyTo(ByHandleFileInfo)}, the copy gets its own time structures, so it can be handed out while this instance is kept.
+	 *
+	 * @return deep copy of this info
+	 */
+	@NonNull
+	public FullFileInfo copy() {
+		val copy = new FullFileInfo(filePath);
+		copy.setSize(fileSize, nFileSizeHigh, nFileSizeLow);
+		copy.setIndex(fileIndex, nFileIndexHigh, nFileIndexLow);
+		copy.dwFileAttributes = dwFileAttributes;
+		copyTime(ftCreationTime, copy.ftCreationTime);
+		copyTime(ftLastAccessTime, copy.ftLastAccessTime);
+		copyTime(ftLastWriteTime, copy.ftLastWriteTime);
+		copy.dwNumberOfLinks = dwNumberOfLinks;
+		copy.dwVolumeSerialNumber = dwVolumeSerialNumber;
+		copy.dwReserved0 = dwReserved0;
+		copy.dwReserved1 = dwReserved1;
+		return copy;
+	}
+
+	private static void copyTime(final FILETIME from, final FILETIME to) {
+		if (Objects.nonNull(from)) {
+			to.dwHighDateTime = from.dwHighDateTime;
+			to.dwLowDateTime = from.dwLowDateTime;
+		}
+	}
+
 	/**
 	 * Simply casts this object to ByHandleFileInfo
 	 *
@@ -0,0 +1,183 @@
+package com.dokany.java.structure;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import com.sun.jna.platform.win32.WinBase.FILETIME;
+
+import jetbrains.exodus.ArrayByteIterable;
+import jetbrains.exodus.ByteIterable;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Fixed-width record of a {@link FullFileInfo}, as stored in the file info store of {@link com.dokany.java.examples.memoryfs.MemoryFS}. All values are big-endian:
+ *
+ * <pre>
+ * offset  length  field
+ *  0       1      version, {@link #VERSION}
+ *  1       8      size
+ *  9       8      index
+ * 17       4      attributes
+ * 21       8      creation time
+ * 29       8      last access time
+ * 37       8      last write time
+ * 45       4      number of links
+ * 49       4      volume serial number
+ * 53       4      reserved 0
+ * 57       4      reserved 1
+ * </pre>
+ *
+ * Times are the raw 100-nanosecond FILETIME values, so they round trip exactly without going through {@link java.util.Date}. The high and low DWORDs of size and index are
+ * derived from them and not stored, and neither is the path, which is the key of the record.
+ *
+ * Every field sits at a fixed offset, so single fields can be read or replaced without decoding the record, and a record can be decoded into an existing instance without
+ * allocating. Records of other versions or lengths are rejected; {@link FullFileInfo#FullFileInfo(String, ByteIterable)} reads the earlier variable-length layout.
+ */
+@UtilityClass
+public class FullFileInfoCodec {
+
+	public final byte VERSION = 2;
+	public final int RECORD_LENGTH = 61;
+
+	private final int SIZE_OFFSET = 1;
+	private final int INDEX_OFFSET = 9;
+	private final int ATTRIBUTES_OFFSET = 17;
+	private final int CREATION_TIME_OFFSET = 21;
+	private final int LAST_ACCESS_TIME_OFFSET = 29;
+	private final int LAST_WRITE_TIME_OFFSET = 37;
+	private final int LINKS_OFFSET = 45;
+	private final int VOLUME_SERIAL_NUMBER_OFFSET = 49;
+	private final int RESERVED0_OFFSET = 53;
+	private final int RESERVED1_OFFSET = 57;
+
+	/**
+	 *
+	 * @param info
+	 * @return record of info
+	 */
+	public ArrayByteIterable encode(@NonNull final FullFileInfo info) {
+		val record = ByteBuffer.allocate(RECORD_LENGTH);
+		record.put(VERSION);
+		record.putLong(info.fileSize);
+		record.putLong(info.fileIndex);
+		record.putInt(info.dwFileAttributes);
+		record.putLong(toRaw(info.ftCreationTime));
+		record.putLong(toRaw(info.ftLastAccessTime));
+		record.putLong(toRaw(info.ftLastWriteTime));
+		record.putInt(info.dwNumberOfLinks);
+		record.putInt(info.dwVolumeSerialNumber);
+		record.putInt(info.dwReserved0);
+		record.putInt(info.dwReserved1);
+		return new ArrayByteIterable(record.array());
+	}
+
+	/**
+	 *
+	 * @param path
+	 * @param record
+	 * @return new info for path
+	 */
+	public FullFileInfo decode(@NonNull final String path, @NonNull final ByteIterable record) {
+		val info = new FullFileInfo(path);
+		decodeInto(path, record, info);
+		return info;
+	}
+
+	/**
+	 * Overwrites every stored field of info, and its path, with those of record. The time structures of info are updated in place, so they must not be shared with anything
+	 * which outlives the next decode; time structures shared between the fields of info are replaced. The reserved fields are only kept by a {@link FullFileInfo}.
+	 *
+	 * @param path
+	 * @param record
+	 * @param info instance to reuse, such as the structure of a GetFileInformation callback
+	 */
+	public void decodeInto(@NonNull final String path, @NonNull final ByteIterable record, @NonNull final ByHandleFileInfo info) {
+		val buffer = wrap(record);
+		info.filePath = path;
+
+		val size = buffer.getLong(SIZE_OFFSET);
+		info.fileSize = size;
+		info.nFileSizeHigh = (int) (size >>> 32);
+		info.nFileSizeLow = (int) size;
+
+		val index = buffer.getLong(INDEX_OFFSET);
+		info.fileIndex = index;
+		info.nFileIndexHigh = (int) (index >>> 32);
+		info.nFileIndexLow = (int) index;
+
+		info.dwFileAttributes = buffer.getInt(ATTRIBUTES_OFFSET);
+
+		if (Objects.isNull(info.ftCreationTime)) {
+			info.ftCreationTime = new FILETIME();
+		}
+		if (Objects.isNull(info.ftLastAccessTime) || (info.ftLastAccessTime == info.ftCreationTime)) {
+			info.ftLastAccessTime = new FILETIME();
+		}
+		if (Objects.isNull(info.ftLastWriteTime) || (info.ftLastWriteTime == info.ftCreationTime) || (info.ftLastWriteTime == info.ftLastAccessTime)) {
+			info.ftLastWriteTime = new FILETIME();
+		}
+		setRaw(info.ftCreationTime, buffer.getLong(CREATION_TIME_OFFSET));
+		setRaw(info.ftLastAccessTime, buffer.getLong(LAST_ACCESS_TIME_OFFSET));
+		setRaw(info.ftLastWriteTime, buffer.getLong(LAST_WRITE_TIME_OFFSET));
+
+		// always needs to be at least 1 for the file to show up
+		info.dwNumberOfLinks = Math.max(1, buffer.getInt(LINKS_OFFSET));
+		info.dwVolumeSerialNumber = buffer.getInt(VOLUME_SERIAL_NUMBER_OFFSET);
+		if (info instanceof FullFileInfo) {
+			val fullInfo = (FullFileInfo) info;
+			fullInfo.dwReserved0 = buffer.getInt(RESERVED0_OFFSET);
+			fullInfo.dwReserved1 = buffer.getInt(RESERVED1_OFFSET);
+		}
+	}
+
+	/**
+	 *
+	 * @param record
+	 * @return size stored in record, without decoding it
+	 */
+	public long getSize(@NonNull final ByteIterable record) {
+		return wrap(record).getLong(SIZE_OFFSET);
+	}
+
+	/**
+	 *
+	 * @param record
+	 * @param size
+	 * @return copy of record with size replaced
+	 */
+	public ArrayByteIterable withSize(@NonNull final ByteIterable record, final long size) {
+		val copy = ByteBuffer.allocate(RECORD_LENGTH);
+		copy.put(wrap(record));
+		copy.putLong(SIZE_OFFSET, size);
+		return new ArrayByteIterable(copy.array());
+	}
+
+	/**
+	 *
+	 * @param time
+	 * @return time as 100-nanosecond intervals since January 1, 1601 (UTC)
+	 */
+	public long toRaw(@NonNull final FILETIME time) {
+		return ((long) time.dwHighDateTime << 32) | (time.dwLowDateTime & 0xffffffffL);
+	}
+
+	private void setRaw(final FILETIME time, final long raw) {
+		time.dwHighDateTime = (int) (raw >>> 32);
+		time.dwLowDateTime = (int) raw;
+	}
+
+	/**
+	 * Checks the version and length of record.
+	 *
+	 * @return view of record
+	 */
+	private ByteBuffer wrap(final ByteIterable record) {
+		val bytes = record.getBytesUnsafe();
+		if ((record.getLength() != RECORD_LENGTH) || (bytes[0] != VERSION)) {
+			throw new IllegalArgumentException("Not a version " + VERSION + " file info record, length " + record.getLength());
+		}
+		return ByteBuffer.wrap(bytes, 0, RECORD_LENGTH);
+	}
+}
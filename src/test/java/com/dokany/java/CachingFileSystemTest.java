@@ -0,0 +1,112 @@
+package com.dokany.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.examples.memoryfs.MemoryFS;
+import com.dokany.java.structure.DeviceOptions;
+import com.dokany.java.structure.EnumIntegerSet;
+import com.dokany.java.structure.FreeSpace;
+import com.dokany.java.structure.FullFileInfo;
+import com.dokany.java.structure.VolumeInformation;
+
+import lombok.val;
+
+public class CachingFileSystemTest {
+	static final String PATH = "/file.txt";
+
+	DeviceOptions deviceOptions;
+	VolumeInformation volumeInfo;
+	FreeSpace freeSpace;
+
+	@Before
+	public void setUp() {
+		deviceOptions = TestVolumes.deviceOptions();
+		volumeInfo = TestVolumes.volumeInfo();
+		freeSpace = TestVolumes.freeSpace();
+	}
+
+	private static EnumIntegerSet<FileAttribute> normal() {
+		return TestVolumes.attributes(FileAttribute.NORMAL);
+	}
+
+	private static long sizeOf(final FullFileInfo info) {
+		return ((long) info.nFileSizeHigh << 32) | (info.nFileSizeLow & 0xffffffffL);
+	}
+
+	@Test
+	public void hitsReturnCopies() throws IOException {
+		val cache = new CachingFileSystem(deviceOptions, TestVolumes.memoryFS(deviceOptions));
+		cache.createEmptyFile(PATH, 0, normal());
+
+		val first = cache.getInfo(PATH);
+		first.setSize(42);
+		first.ftLastWriteTime.dwLowDateTime = 42;
+
+		val second = cache.getInfo(PATH);
+		assertEquals(1, cache.getHitCount());
+		assertEquals(0, sizeOf(second));
+		assertNotSame(first.ftLastWriteTime, second.ftLastWriteTime);
+		assertNotSame(second, cache.getInfo(PATH));
+	}
+
+	@Test
+	public void writeInvalidates() throws IOException {
+		val cache = new CachingFileSystem(deviceOptions, TestVolumes.memoryFS(deviceOptions));
+		cache.createEmptyFile(PATH, 0, normal());
+		assertEquals(0, sizeOf(cache.getInfo(PATH)));
+
+		cache.write(PATH, 0L, new byte[10], 10);
+		assertEquals(10, sizeOf(cache.getInfo(PATH)));
+	}
+
+	/**
+	 * A lookup which read the info before a write invalidated it must not cache that stale info.
+	 */
+	@Test
+	public void staleLookupIsNotCached() throws IOException {
+		val cacheHolder = new CachingFileSystem[1];
+		val isRacing = new AtomicBoolean();
+		val memoryFS = new MemoryFS(deviceOptions, volumeInfo, freeSpace, new Date(), "/") {
+			@Override
+			public FullFileInfo getInfo(final String path) throws IOException {
+				val info = super.getInfo(path);
+				if (isRacing.getAndSet(false)) {
+					cacheHolder[0].write(path, 0L, new byte[10], 10);
+				}
+				return info;
+			}
+		};
+		val cache = new CachingFileSystem(deviceOptions, memoryFS);
+		cacheHolder[0] = cache;
+		cache.createEmptyFile(PATH, 0, normal());
+
+		isRacing.set(true);
+		assertEquals(0, sizeOf(cache.getInfo(PATH)));
+		assertEquals(10, sizeOf(cache.getInfo(PATH)));
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void setAttributesAcceptsNull() throws IOException {
+		val delegate = new MemoryFS(deviceOptions, volumeInfo, freeSpace, new Date(), "/") {
+			@Override
+			public void setAttributes(final String path, final EnumIntegerSet<FileAttribute> attributes) {
+			}
+		};
+		val cache = new CachingFileSystem(deviceOptions, delegate);
+		cache.createEmptyFile(PATH, 0, normal());
+		cache.getInfo(PATH);
+
+		cache.setAttributes(PATH, null);
+		assertEquals(0, cache.size());
+	}
+}
@@ -0,0 +1,102 @@
+package com.dokany.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.dokany.java.structure.DokanyFileInfo;
+
+import lombok.val;
+
+public class FileHandleRegistryTest {
+	static final String PATH = "/file.txt";
+
+	@Test
+	public void idsAreNeverZero() {
+		val registry = new FileHandleRegistry();
+		val ids = new HashSet<Long>();
+		for (int i = 0; i < 1000; i++) {
+			val handle = registry.open(PATH, new DokanyFileInfo());
+			assertNotEquals(0, handle.getId());
+			assertTrue(ids.add(handle.getId()));
+		}
+		assertEquals(1000, registry.size());
+		assertNull(registry.get(0));
+	}
+
+	@Test
+	public void contextFollowsOpenAndRelease() {
+		val registry = new FileHandleRegistry();
+		val dokanyFileInfo = new DokanyFileInfo();
+
+		val handle = registry.open(PATH, dokanyFileInfo);
+		assertEquals(handle.getId(), dokanyFileInfo.Context);
+		assertSame(handle, registry.get(dokanyFileInfo));
+		assertSame(handle, registry.get(handle.getId()));
+		assertEquals(PATH, handle.getPath());
+
+		registry.release(dokanyFileInfo);
+		assertEquals(0, dokanyFileInfo.Context);
+		assertNull(registry.get(dokanyFileInfo));
+		assertNull(registry.get(handle.getId()));
+		assertEquals(0, registry.size());
+
+		// releasing an unset context does nothing
+		registry.release(dokanyFileInfo);
+		assertEquals(0, dokanyFileInfo.Context);
+	}
+
+	@Test
+	public void releaseClosesAttachment() {
+		val registry = new FileHandleRegistry();
+		val closed = new AtomicInteger();
+		val dokanyFileInfo = new DokanyFileInfo();
+		val handle = registry.open(PATH, dokanyFileInfo);
+		final Closeable attachment = closed::incrementAndGet;
+		handle.attach(attachment);
+
+		registry.release(dokanyFileInfo);
+		assertEquals(1, closed.get());
+		assertNull(handle.getAttachment());
+
+		// the handle is gone, so a second release cannot close the attachment again
+		dokanyFileInfo.Context = handle.getId();
+		registry.release(dokanyFileInfo);
+		assertEquals(1, closed.get());
+	}
+
+	@Test
+	public void releaseKeepsGoingWhenAttachmentFailsToClose() {
+		val registry = new FileHandleRegistry();
+		val dokanyFileInfo = new DokanyFileInfo();
+		final Closeable attachment = () -> {
+			throw new IOException("close failed");
+		};
+		registry.open(PATH, dokanyFileInfo).attach(attachment);
+
+		registry.release(dokanyFileInfo);
+		assertEquals(0, dokanyFileInfo.Context);
+		assertEquals(0, registry.size());
+	}
+
+	@Test
+	public void releaseIgnoresAttachmentWhichIsNotCloseable() {
+		val registry = new FileHandleRegistry();
+		val dokanyFileInfo = new DokanyFileInfo();
+		val handle = registry.open(PATH, dokanyFileInfo);
+		handle.attach("attachment");
+
+		registry.release(dokanyFileInfo);
+		assertNull(handle.getAttachment());
+		assertEquals(0, registry.size());
+	}
+}
@@ -0,0 +1,78 @@
+package com.dokany.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import lombok.val;
+
+public class NegativeLookupCacheTest {
+
+	@Test
+	public void remembersMissingPaths() {
+		val cache = new NegativeLookupCache(16, 60000);
+		assertFalse(cache.isMissing("/a.txt"));
+
+		cache.add("/a.txt");
+		assertTrue(cache.isMissing("/a.txt"));
+		assertFalse(cache.isMissing("/b.txt"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void expiredPathsAreForgotten() {
+		val cache = new NegativeLookupCache(16, 0);
+		cache.add("/a.txt");
+
+		assertFalse(cache.isMissing("/a.txt"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void invalidateForgetsPath() {
+		val cache = new NegativeLookupCache(16, 60000);
+		cache.add("/a.txt");
+		cache.add("/b.txt");
+
+		cache.invalidate("/a.txt");
+		assertFalse(cache.isMissing("/a.txt"));
+		assertTrue(cache.isMissing("/b.txt"));
+	}
+
+	@Test
+	public void invalidateTreeForgetsPathsBelow() {
+		val cache = new NegativeLookupCache(16, 60000);
+		cache.add("/dir");
+		cache.add("/dir/a.txt");
+		cache.add("/dir/sub/b.txt");
+		cache.add("/directory.txt");
+
+		cache.invalidateTree("/dir");
+		assertFalse(cache.isMissing("/dir"));
+		assertFalse(cache.isMissing("/dir/a.txt"));
+		assertFalse(cache.isMissing("/dir/sub/b.txt"));
+		assertTrue(cache.isMissing("/directory.txt"));
+	}
+
+	@Test
+	public void staysWithinCapacity() {
+		val cache = new NegativeLookupCache(100, 60000);
+		for (int i = 0; i < 10000; i++) {
+			cache.add("/file-" + i);
+			assertTrue(cache.size() <= 100);
+		}
+		assertTrue(cache.isMissing("/file-9999"));
+	}
+
+	@Test
+	public void zeroCapacityDisablesCache() {
+		val cache = new NegativeLookupCache(0, 60000);
+		cache.add("/a.txt");
+
+		assertFalse(cache.isMissing("/a.txt"));
+		assertEquals(0, cache.size());
+	}
+}
@@ -0,0 +1,55 @@
+package com.dokany.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.sun.jna.WString;
+
+import lombok.val;
+
+public class PathCacheTest {
+
+	@Test
+	public void normalizesAndCaches() {
+		val cache = new PathCache(16);
+
+		assertEquals("/dir/file.txt", cache.normalize(new WString("\\dir\\sub\\..\\file.txt")));
+		assertEquals("/dir/file.txt", cache.normalize(new WString("\\dir\\sub\\..\\file.txt")));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void invalidateForgetsPath() {
+		val cache = new PathCache(16);
+		val path = new WString("\\file.txt");
+		cache.normalize(path);
+
+		cache.invalidate(path);
+		assertEquals(0, cache.size());
+		assertEquals("/file.txt", cache.normalize(path));
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void staysWithinCapacity() {
+		val cache = new PathCache(100);
+		for (int i = 0; i < 10000; i++) {
+			assertEquals("/file-" + i, cache.normalize(new WString("\\file-" + i)));
+			assertTrue(cache.size() <= 100);
+		}
+	}
+
+	@Test
+	public void zeroCapacityDisablesCache() {
+		val cache = new PathCache(0);
+		cache.normalize(new WString("\\file.txt"));
+		cache.normalize(new WString("\\file.txt"));
+
+		assertEquals(0, cache.size());
+		assertEquals(2, cache.getMissCount());
+	}
+}
@@ -0,0 +1,157 @@
+package com.dokany.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.dokany.java.constants.NtStatus;
+
+import lombok.val;
+
+public class RangeLockManagerTest {
+	static final String PATH = "/file.txt";
+
+	private static void assertStatus(final NtStatus status, final Runnable call) {
+		try {
+			call.run();
+			fail("expected " + status);
+		} catch (final DokanyException e) {
+			assertEquals(status.getMask(), e.getValue());
+		}
+	}
+
+	@Test
+	public void overlappingRangesConflict() {
+		val locks = new RangeLockManager();
+		locks.lock(PATH, 100, 100, 1);
+
+		assertStatus(NtStatus.LOCK_NOT_GRANTED, () -> locks.lock(PATH, 150, 10, 2));
+		assertStatus(NtStatus.LOCK_NOT_GRANTED, () -> locks.lock(PATH, 50, 51, 2));
+		assertStatus(NtStatus.LOCK_NOT_GRANTED, () -> locks.lock(PATH, 199, 10, 2));
+		// the owner itself cannot lock an overlapping range either
+		assertStatus(NtStatus.LOCK_NOT_GRANTED, () -> locks.lock(PATH, 0, 1000, 1));
+
+		locks.lock(PATH, 0, 100, 2);
+		locks.lock(PATH, 200, 100, 2);
+		locks.lock("/other.txt", 100, 100, 2);
+		assertEquals(4, locks.size());
+	}
+
+	@Test
+	public void zeroLengthRangesNeverConflict() {
+		val locks = new RangeLockManager();
+		locks.lock(PATH, 100, 100, 1);
+
+		locks.lock(PATH, 150, 0, 2);
+		locks.unlock(PATH, 150, 0, 2);
+		assertEquals(1, locks.size());
+	}
+
+	@Test
+	public void rangeToEndOfFile() {
+		val locks = new RangeLockManager();
+		locks.lock(PATH, 1L << 32, Long.MAX_VALUE, 1);
+
+		assertStatus(NtStatus.LOCK_NOT_GRANTED, () -> locks.lock(PATH, Long.MAX_VALUE - 1, 1, 2));
+		locks.lock(PATH, 0, 1L << 32, 2);
+		locks.unlock(PATH, 1L << 32, Long.MAX_VALUE, 1);
+	}
+
+	@Test
+	public void negativeRangesAreRejected() {
+		val locks = new RangeLockManager();
+
+		assertStatus(NtStatus.INVALID_PARAMETER, () -> locks.lock(PATH, -1, 10, 1));
+		assertStatus(NtStatus.INVALID_PARAMETER, () -> locks.lock(PATH, 0, -10, 1));
+		assertTrue(locks.isEmpty());
+	}
+
+	@Test
+	public void unlockNeedsOwnerOffsetAndLength() {
+		val locks = new RangeLockManager();
+		locks.lock(PATH, 100, 100, 1);
+
+		assertStatus(NtStatus.RANGE_NOT_LOCKED, () -> locks.unlock(PATH, 100, 100, 2));
+		assertStatus(NtStatus.RANGE_NOT_LOCKED, () -> locks.unlock(PATH, 100, 50, 1));
+		assertStatus(NtStatus.RANGE_NOT_LOCKED, () -> locks.unlock(PATH, 150, 50, 1));
+		assertStatus(NtStatus.RANGE_NOT_LOCKED, () -> locks.unlock("/other.txt", 100, 100, 1));
+		assertTrue(locks.isLocked(PATH));
+
+		locks.unlock(PATH, 100, 100, 1);
+		assertFalse(locks.isLocked(PATH));
+		assertTrue(locks.isEmpty());
+		assertStatus(NtStatus.RANGE_NOT_LOCKED, () -> locks.unlock(PATH, 100, 100, 1));
+	}
+
+	@Test
+	public void unlockAllReleasesOnlyOwner() {
+		val locks = new RangeLockManager();
+		locks.lock(PATH, 0, 10, 1);
+		locks.lock(PATH, 10, 10, 2);
+		locks.lock(PATH, 20, 10, 1);
+
+		assertEquals(2, locks.unlockAll(PATH, 1));
+		assertEquals(1, locks.size());
+		assertEquals(0, locks.unlockAll(PATH, 1));
+
+		locks.lock(PATH, 0, 10, 3);
+		assertEquals(1, locks.unlockAll(PATH, 2));
+		assertEquals(1, locks.unlockAll(PATH, 3));
+		assertTrue(locks.isEmpty());
+		assertEquals(0, locks.unlockAll(PATH, 3));
+	}
+
+	/**
+	 * Threads keep locking the same range while others unlock it, so files are retired and recreated under them; at most one holder at a time may be granted the range.
+	 */
+	@Test
+	public void concurrentLockersAreExclusive() throws InterruptedException {
+		val locks = new RangeLockManager();
+		val threads = 8;
+		val holders = new AtomicInteger();
+		val overlaps = new AtomicInteger();
+		val granted = new AtomicInteger();
+		val start = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		for (int i = 0; i < threads; i++) {
+			final long owner = i;
+			executor.execute(() -> {
+				try {
+					start.await();
+				} catch (final InterruptedException e) {
+					return;
+				}
+				for (int j = 0; j < 10000; j++) {
+					try {
+						locks.lock(PATH, 0, 10, owner);
+					} catch (final DokanyException e) {
+						continue;
+					}
+					if (holders.incrementAndGet() != 1) {
+						overlaps.incrementAndGet();
+					}
+					granted.incrementAndGet();
+					holders.decrementAndGet();
+					locks.unlock(PATH, 0, 10, owner);
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+		assertEquals(0, overlaps.get());
+		assertTrue(granted.get() > 0);
+		assertTrue(locks.isEmpty());
+	}
+}
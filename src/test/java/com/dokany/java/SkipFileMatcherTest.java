@@ -0,0 +1,58 @@
+package com.dokany.java;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.sun.jna.WString;
+
+import lombok.val;
+
+public class SkipFileMatcherTest {
+
+	@Test
+	public void matchesWholeFileNamesIgnoringCase() {
+		val matcher = new SkipFileMatcher(SkipFileMatcher.DEFAULT_SKIP_FILE_NAMES);
+
+		assertTrue(matcher.matches("/desktop.ini"));
+		assertTrue(matcher.matches("/dir/Desktop.INI"));
+		assertTrue(matcher.matches("\\dir\\desktop.ini"));
+		assertTrue(matcher.matches(new WString("\\dir\\AUTORUN.inf")));
+		assertFalse(matcher.matches("/mydesktop.ini"));
+		assertFalse(matcher.matches("/desktop.ini.bak"));
+		assertFalse(matcher.matches("/desktop.ini/file.txt"));
+	}
+
+	@Test
+	public void leadingWildcardMatchesAnySuffix() {
+		val matcher = new SkipFileMatcher(Arrays.asList("*.lnk"));
+
+		assertTrue(matcher.matches("/dir/Shortcut.LNK"));
+		assertTrue(matcher.matches("/.lnk"));
+		assertFalse(matcher.matches("/dir/file.lnk.txt"));
+	}
+
+	@Test
+	public void otherWildcardsMatchTheFileName() {
+		val matcher = new SkipFileMatcher(Arrays.asList("desktop.ini", "~$*.doc?", "thumbs.d?"));
+
+		assertTrue(matcher.matches("/dir/~$report.docx"));
+		assertTrue(matcher.matches(new WString("\\dir\\~$REPORT.DOCM")));
+		assertTrue(matcher.matches("/Thumbs.db"));
+		assertTrue(matcher.matches("/desktop.ini"));
+		assertFalse(matcher.matches("/dir/~$report.doc"));
+		assertFalse(matcher.matches("/~$dir/report.docx"));
+		assertFalse(matcher.matches("/thumbs.db/file"));
+	}
+
+	@Test
+	public void emptyListMatchesNothing() {
+		val matcher = new SkipFileMatcher(Arrays.asList("", "*"));
+
+		assertFalse(matcher.matches("/desktop.ini"));
+		assertFalse(matcher.matches("/"));
+	}
+}
@@ -0,0 +1,90 @@
+package com.dokany.java.examples.memoryfs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import jetbrains.exodus.ByteIterable;
+import lombok.val;
+
+public class BlockCodecTest {
+	static final int BLOCK_SIZE = 4096;
+
+	private static byte[] decode(final BlockCodec codec, final ByteIterable value) {
+		val decoded = codec.decode(value);
+		val bytes = new byte[decoded.remaining()];
+		decoded.get(bytes);
+		return bytes;
+	}
+
+	@Test
+	public void lz4RoundTrip() {
+		val codec = new BlockCodec(Compression.LZ4);
+		val block = new byte[BLOCK_SIZE];
+		Arrays.fill(block, 0, 2000, (byte) 'a');
+		Arrays.fill(block, 2000, BLOCK_SIZE, (byte) 'b');
+
+		val value = codec.encode(block, BLOCK_SIZE);
+		assertTrue(value.getLength() < (BLOCK_SIZE / 2));
+		assertEquals(BLOCK_SIZE, codec.getDecodedLength(value));
+		assertArrayEquals(block, decode(codec, value));
+
+		val stats = codec.getStats();
+		assertEquals(1, stats.getCompressedBlocks());
+		assertEquals(0, stats.getRawBlocks());
+		assertEquals(BLOCK_SIZE, stats.getInputBytes());
+		assertEquals(value.getLength(), stats.getOutputBytes());
+		assertEquals(BLOCK_SIZE, stats.getDecompressedBytes());
+		assertTrue(stats.getCompressNanos() >= 0);
+		assertTrue(stats.getDecompressNanos() >= 0);
+	}
+
+	@Test
+	public void lz4RoundTripOfPartialBlock() {
+		val codec = new BlockCodec(Compression.LZ4);
+		val block = new byte[BLOCK_SIZE];
+		Arrays.fill(block, 0, 1000, (byte) 'a');
+
+		val value = codec.encode(block, 1000);
+		assertEquals(1000, codec.getDecodedLength(value));
+		assertArrayEquals(Arrays.copyOf(block, 1000), decode(codec, value));
+	}
+
+	@Test
+	public void incompressibleBlockIsStoredRaw() {
+		val codec = new BlockCodec(Compression.LZ4);
+		val block = new byte[BLOCK_SIZE];
+		new Random(42).nextBytes(block);
+
+		val value = codec.encode(block, BLOCK_SIZE);
+		assertEquals(1 + BLOCK_SIZE, value.getLength());
+		assertEquals(BLOCK_SIZE, codec.getDecodedLength(value));
+		assertArrayEquals(block, decode(codec, value));
+
+		val stats = codec.getStats();
+		assertEquals(0, stats.getCompressedBlocks());
+		assertEquals(1, stats.getRawBlocks());
+		assertEquals(BLOCK_SIZE, stats.getInputBytes());
+		assertEquals(1 + BLOCK_SIZE, stats.getOutputBytes());
+		// raw blocks are not decompressed
+		assertEquals(0, stats.getDecompressedBytes());
+	}
+
+	@Test
+	public void noneStoresBlockAsIs() {
+		val codec = new BlockCodec(Compression.NONE);
+		val block = new byte[] { 1, 2, 3, 4, 5 };
+
+		val value = codec.encode(block, 3);
+		assertEquals(3, value.getLength());
+		assertEquals(3, codec.getDecodedLength(value));
+		assertEquals(ByteBuffer.wrap(block, 0, 3), codec.decode(value));
+		assertEquals(0, codec.getStats().getInputBytes());
+	}
+}
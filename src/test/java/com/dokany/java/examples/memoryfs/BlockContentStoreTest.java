@@ -0,0 +1,133 @@
+package com.dokany.java.examples.memoryfs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dokany.java.TestVolumes;
+
+import jetbrains.exodus.env.Environment;
+import jetbrains.exodus.env.Environments;
+import jetbrains.exodus.env.Transaction;
+import jetbrains.exodus.vfs.File;
+import jetbrains.exodus.vfs.VirtualFileSystem;
+import lombok.NonNull;
+import lombok.val;
+
+public class BlockContentStoreTest {
+	static final int BLOCK_SIZE = 4096;
+
+	Path storePath;
+	Environment env;
+	VirtualFileSystem vfs;
+	BlockContentStore store;
+	File file;
+
+	@Before
+	public void setUp() throws IOException {
+		storePath = Files.createTempDirectory("dokany-java-test_");
+		env = Environments.newInstance(storePath.toString());
+		vfs = new VirtualFileSystem(env);
+		store = new BlockContentStore(env, BLOCK_SIZE, new BlockCodec(Compression.NONE));
+		file = env.computeInTransaction((@NonNull final Transaction txn) -> vfs.createFile(txn, "/file.bin"));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		vfs.shutdown();
+		env.close();
+		FileUtils.deleteDirectory(storePath.toFile());
+	}
+
+	private void write(final long offset, final byte[] data) {
+		env.executeInTransaction((@NonNull final Transaction txn) -> store.write(txn, file, offset, data, data.length));
+	}
+
+	private byte[] read(final long offset, final int length) {
+		val dst = ByteBuffer.allocate(length);
+		final int read = env.computeInReadonlyTransaction((@NonNull final Transaction txn) -> store.read(txn, file, offset, dst));
+		return Arrays.copyOf(dst.array(), read);
+	}
+
+	private long getLength() {
+		return env.computeInReadonlyTransaction((@NonNull final Transaction txn) -> store.getLength(txn, file));
+	}
+
+	@Test
+	public void writeAndReadAcrossBlocks() {
+		val data = TestVolumes.pattern(3 * BLOCK_SIZE);
+		write(100, data);
+
+		assertArrayEquals(data, read(100, data.length));
+		assertArrayEquals(new byte[100], read(0, 100));
+		assertEquals(100 + data.length, getLength());
+	}
+
+	/**
+	 * The first block only stores its first 10 bytes, so a read starting past them is all zeros.
+	 */
+	@Test
+	public void readPastStoredBytesOfShortBlock() {
+		write(0, TestVolumes.pattern(10));
+		write(5000, TestVolumes.pattern(10));
+
+		assertArrayEquals(new byte[50], read(100, 50));
+
+		val expected = new byte[5010];
+		System.arraycopy(TestVolumes.pattern(10), 0, expected, 0, 10);
+		System.arraycopy(TestVolumes.pattern(10), 0, expected, 5000, 10);
+		assertArrayEquals(expected, read(0, expected.length));
+	}
+
+	@Test
+	public void partialWriteKeepsStoredBytes() {
+		write(0, TestVolumes.pattern(BLOCK_SIZE));
+		write(10, new byte[] { 1, 2, 3 });
+
+		val expected = TestVolumes.pattern(BLOCK_SIZE);
+		expected[10] = 1;
+		expected[11] = 2;
+		expected[12] = 3;
+		assertArrayEquals(expected, read(0, BLOCK_SIZE));
+	}
+
+	@Test
+	public void readStopsAtEndOfFile() {
+		write(0, TestVolumes.pattern(100));
+
+		assertEquals(100, read(0, BLOCK_SIZE).length);
+		assertEquals(50, read(50, BLOCK_SIZE).length);
+		assertEquals(0, read(100, BLOCK_SIZE).length);
+	}
+
+	@Test
+	public void shrinkingThenGrowingExposesZeros() {
+		write(0, TestVolumes.pattern(2 * BLOCK_SIZE));
+		env.executeInTransaction((@NonNull final Transaction txn) -> store.setLength(txn, file, 100));
+		assertEquals(100, getLength());
+
+		env.executeInTransaction((@NonNull final Transaction txn) -> store.setLength(txn, file, 2 * BLOCK_SIZE));
+		val expected = new byte[2 * BLOCK_SIZE];
+		System.arraycopy(TestVolumes.pattern(100), 0, expected, 0, 100);
+		assertArrayEquals(expected, read(0, expected.length));
+	}
+
+	@Test
+	public void sparseRangesAreNotStored() {
+		write(100L * BLOCK_SIZE, TestVolumes.pattern(BLOCK_SIZE));
+
+		val stats = env.computeInReadonlyTransaction((@NonNull final Transaction txn) -> store.getStats(txn));
+		assertEquals(101L * BLOCK_SIZE, stats.getLogicalBytes());
+		assertEquals(BLOCK_SIZE, stats.getStoredBytes());
+	}
+}
@@ -0,0 +1,179 @@
+package com.dokany.java.examples.memoryfs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jetbrains.exodus.env.Environment;
+import jetbrains.exodus.env.Environments;
+import jetbrains.exodus.env.Transaction;
+import jetbrains.exodus.vfs.File;
+import jetbrains.exodus.vfs.VirtualFileSystem;
+import lombok.NonNull;
+import lombok.val;
+
+public class DedupContentStoreTest {
+	static final int SIZE = 1024 * 1024;
+
+	Path storePath;
+	Environment env;
+	VirtualFileSystem vfs;
+	DedupContentStore store;
+
+	@Before
+	public void setUp() throws IOException {
+		storePath = Files.createTempDirectory("dokany-java-test_");
+		env = Environments.newInstance(storePath.toString());
+		vfs = new VirtualFileSystem(env);
+		store = new DedupContentStore(env, DedupContentStore.DEFAULT_CACHE_BYTES, new BlockCodec(Compression.NONE));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		vfs.shutdown();
+		env.close();
+		FileUtils.deleteDirectory(storePath.toFile());
+	}
+
+	/**
+	 * Chunk boundaries depend on the contents, so tests use random bytes rather than a short repeating pattern.
+	 */
+	private static byte[] random(final int length, final long seed) {
+		val bytes = new byte[length];
+		new Random(seed).nextBytes(bytes);
+		return bytes;
+	}
+
+	private File createFile(final String path) {
+		return env.computeInTransaction((@NonNull final Transaction txn) -> vfs.createFile(txn, path));
+	}
+
+	private void write(final File file, final long offset, final byte[] data) {
+		env.executeInTransaction((@NonNull final Transaction txn) -> store.write(txn, file, offset, data, data.length));
+	}
+
+	private byte[] read(final File file, final long offset, final int length) {
+		val dst = ByteBuffer.allocate(length);
+		final int read = env.computeInReadonlyTransaction((@NonNull final Transaction txn) -> store.read(txn, file, offset, dst));
+		return Arrays.copyOf(dst.array(), read);
+	}
+
+	private ContentStats getStats() {
+		return env.computeInReadonlyTransaction((@NonNull final Transaction txn) -> store.getStats(txn));
+	}
+
+	@Test
+	public void sequentialWritesReadBack() {
+		val file = createFile("/a.bin");
+		val data = random(SIZE, 1);
+		for (int offset = 0; offset < SIZE; offset += 4096) {
+			write(file, offset, Arrays.copyOfRange(data, offset, offset + 4096));
+		}
+
+		assertArrayEquals(data, read(file, 0, SIZE));
+		assertArrayEquals(Arrays.copyOfRange(data, 12345, 12345 + 100000), read(file, 12345, 100000));
+		assertEquals(SIZE, getStats().getLogicalBytes());
+	}
+
+	@Test
+	public void identicalFilesShareChunks() {
+		val data = random(SIZE, 2);
+		write(createFile("/a.bin"), 0, data);
+		val storedOnce = getStats().getStoredBytes();
+		write(createFile("/b.bin"), 0, data);
+
+		val stats = getStats();
+		assertEquals(2L * SIZE, stats.getLogicalBytes());
+		assertEquals(storedOnce, stats.getStoredBytes());
+	}
+
+	/**
+	 * Inserting bytes only changes the chunks around the insertion, so the edited copy adds far less than a full copy.
+	 */
+	@Test
+	public void insertionKeepsMostChunks() {
+		val data = random(SIZE, 3);
+		write(createFile("/a.bin"), 0, data);
+		val storedOnce = getStats().getStoredBytes();
+
+		val edited = new byte[SIZE + 10];
+		System.arraycopy(data, 0, edited, 0, SIZE / 2);
+		System.arraycopy(data, SIZE / 2, edited, (SIZE / 2) + 10, SIZE / 2);
+		val file = createFile("/b.bin");
+		write(file, 0, edited);
+
+		assertArrayEquals(edited, read(file, 0, edited.length));
+		assertTrue(getStats().getStoredBytes() - storedOnce < 4 * DedupContentStore.MAX_CHUNK_SIZE);
+	}
+
+	@Test
+	public void overwriteInTheMiddle() {
+		val file = createFile("/a.bin");
+		val data = random(SIZE, 4);
+		write(file, 0, data);
+
+		val patch = random(5000, 5);
+		write(file, 300000, patch);
+		System.arraycopy(patch, 0, data, 300000, patch.length);
+
+		assertArrayEquals(data, read(file, 0, SIZE));
+		assertEquals(SIZE, getStats().getLogicalBytes());
+	}
+
+	@Test
+	public void setLengthCutsAndZeroFills() {
+		val file = createFile("/a.bin");
+		val data = random(SIZE, 6);
+		write(file, 0, data);
+
+		env.executeInTransaction((@NonNull final Transaction txn) -> store.setLength(txn, file, 1000));
+		env.executeInTransaction((@NonNull final Transaction txn) -> store.setLength(txn, file, SIZE));
+
+		val expected = new byte[SIZE];
+		System.arraycopy(data, 0, expected, 0, 1000);
+		assertArrayEquals(expected, read(file, 0, SIZE));
+	}
+
+	@Test
+	public void writePastEndZeroFillsGap() {
+		val file = createFile("/a.bin");
+		val data = random(100, 7);
+		write(file, 10L * DedupContentStore.MAX_CHUNK_SIZE, data);
+
+		assertArrayEquals(new byte[1000], read(file, 5000, 1000));
+		assertArrayEquals(data, read(file, 10L * DedupContentStore.MAX_CHUNK_SIZE, 100));
+		// the zero range is one shared chunk
+		assertTrue(getStats().getStoredBytes() <= DedupContentStore.MAX_CHUNK_SIZE + 100);
+	}
+
+	@Test
+	public void deleteReleasesChunks() {
+		val data = random(SIZE, 8);
+		val a = createFile("/a.bin");
+		val b = createFile("/b.bin");
+		write(a, 0, data);
+		write(b, 0, data);
+		val stored = getStats().getStoredBytes();
+
+		env.executeInTransaction((@NonNull final Transaction txn) -> store.delete(txn, a));
+		assertEquals(stored, getStats().getStoredBytes());
+		assertArrayEquals(data, read(b, 0, SIZE));
+
+		env.executeInTransaction((@NonNull final Transaction txn) -> store.delete(txn, b));
+		val stats = getStats();
+		assertEquals(0, stats.getLogicalBytes());
+		assertEquals(0, stats.getStoredBytes());
+	}
+}
@@ -0,0 +1,248 @@
+package com.dokany.java.examples.memoryfs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.io.FilenameUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dokany.java.DokanyException;
+import com.dokany.java.SimulatedDokany;
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.CreationDisposition;
+import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.structure.ByHandleFileInfo;
+import com.dokany.java.structure.DokanyFileInfo;
+import com.dokany.java.structure.EnumIntegerSet;
+import com.sun.jna.Memory;
+import com.sun.jna.platform.win32.WinBase.WIN32_FIND_DATA;
+
+import lombok.val;
+
+/**
+ * Reads and writes above 4 GB on sparse {@link ContentLayout#BLOCKS} files; only the written blocks are stored.
+ */
+public class MemoryFSTest {
+	static final String PATH = "/sparse.bin";
+	static final long OFFSET = 5L * 1024 * 1024 * 1024 + 123;
+
+	MemoryFS memoryFS;
+	SimulatedDokany dokany;
+
+	@Before
+	public void setUp() throws IOException {
+		val deviceOptions = TestVolumes.deviceOptions();
+		memoryFS = TestVolumes.memoryFS(deviceOptions);
+		dokany = new SimulatedDokany(deviceOptions, memoryFS);
+
+		memoryFS.createEmptyFile(PATH, 0, normal());
+	}
+
+	/**
+	 * Thresholds are high enough that nothing is committed until a flush or cleanup.
+	 */
+	private MemoryFS newWriteBackFS() throws IOException {
+		val writeBack = new MemoryFS(TestVolumes.deviceOptions(), TestVolumes.volumeInfo(), TestVolumes.freeSpace(), new Date(), "/", Durability.WRITE_BACK, Long.MAX_VALUE, Long.MAX_VALUE / 1000000L);
+		writeBack.createEmptyFile(PATH, 0, normal());
+		return writeBack;
+	}
+
+	private static EnumIntegerSet<FileAttribute> normal() {
+		return TestVolumes.attributes(FileAttribute.NORMAL);
+	}
+
+	private static EnumIntegerSet<FileAttribute> directory() {
+		return TestVolumes.attributes(FileAttribute.DIRECTORY);
+	}
+
+	/**
+	 *
+	 * @return sorted names FindFiles returns for directory
+	 */
+	private static List<String> list(final MemoryFS fs, final String directory) {
+		val names = new ArrayList<String>();
+		fs.findFilesWithPattern(directory, new DokanyFileInfo(), null, data -> names.add(FilenameUtils.getName(data.getFileName())));
+		Collections.sort(names);
+		return names;
+	}
+
+	private static long sizeOf(final WIN32_FIND_DATA data) {
+		return ((long) data.nFileSizeHigh << 32) | (data.nFileSizeLow & 0xffffffffL);
+	}
+
+	private static long sizeOf(final ByHandleFileInfo info) {
+		return ((long) info.nFileSizeHigh << 32) | (info.nFileSizeLow & 0xffffffffL);
+	}
+
+	@Test
+	public void writeAndReadAbove4GB() throws IOException {
+		val data = TestVolumes.pattern(3 * MemoryFS.DEFAULT_BLOCK_SIZE);
+
+		assertEquals(data.length, memoryFS.write(PATH, OFFSET, data, data.length));
+		memoryFS.flushFileBuffers(PATH);
+
+		val read = memoryFS.read(PATH, OFFSET, data.length);
+		assertEquals(data.length, read.getLength());
+		assertArrayEquals(data, read.getBytes());
+
+		val gap = memoryFS.read(PATH, OFFSET - 16, 16);
+		assertArrayEquals(new byte[16], gap.getBytes());
+		assertEquals(OFFSET + data.length, sizeOf(memoryFS.getInfo(PATH)));
+	}
+
+	@Test
+	public void setEndOfFileAbove4GB() throws IOException {
+		memoryFS.setEndOfFile(PATH, OFFSET);
+		assertEquals(OFFSET, sizeOf(memoryFS.getInfo(PATH)));
+
+		val read = memoryFS.read(PATH, OFFSET - 100, 4096);
+		assertEquals(100, read.getLength());
+
+		memoryFS.setAllocationSize(PATH, 4096L);
+		assertEquals(4096L, sizeOf(memoryFS.getInfo(PATH)));
+	}
+
+	@Test
+	public void callbacksAbove4GB() {
+		val data = TestVolumes.pattern(8192);
+		val buffer = new Memory(data.length);
+		buffer.write(0, data, 0, data.length);
+
+		val handle = dokany.open(PATH, CreationDisposition.OPEN_EXISTING, false);
+		assertEquals(data.length, dokany.write(PATH, OFFSET, buffer, data.length, handle));
+
+		buffer.clear(data.length);
+		assertEquals(data.length, dokany.read(PATH, OFFSET, buffer, data.length, handle));
+		assertArrayEquals(data, buffer.getByteArray(0, data.length));
+
+		val info = dokany.getFileInformation(PATH, handle);
+		assertEquals(1, info.nFileSizeHigh);
+		assertEquals((int) (OFFSET + data.length), info.nFileSizeLow);
+		dokany.close(PATH, handle);
+	}
+
+	@Test
+	public void getInfoIntoStructure() throws IOException {
+		memoryFS.write(PATH, OFFSET, TestVolumes.pattern(10), 10);
+
+		val info = new ByHandleFileInfo();
+		memoryFS.getInfo(PATH, info);
+		assertEquals(OFFSET + 10, sizeOf(info));
+		assertEquals(memoryFS.getInfo(PATH).dwFileAttributes, info.dwFileAttributes);
+
+		try {
+			memoryFS.getInfo("/missing.bin", info);
+			fail("expected " + DokanyException.FILE_NOT_FOUND);
+		} catch (final DokanyException e) {
+			assertSame(DokanyException.FILE_NOT_FOUND, e);
+		}
+	}
+
+	@Test
+	public void writeBackSizeWithoutCommit() throws IOException {
+		val writeBack = newWriteBackFS();
+		writeBack.write(PATH, OFFSET, TestVolumes.pattern(10), 10);
+
+		assertEquals(OFFSET + 10, sizeOf(writeBack.getInfo(PATH)));
+		val info = new ByHandleFileInfo();
+		writeBack.getInfo(PATH, info);
+		assertEquals(OFFSET + 10, sizeOf(info));
+
+		val listed = writeBack.findFilesWithPattern("/", new DokanyFileInfo(), "*.bin");
+		assertEquals(1, listed.size());
+		assertEquals(OFFSET + 10, sizeOf(listed.iterator().next()));
+
+		assertArrayEquals(TestVolumes.pattern(10), writeBack.read(PATH, OFFSET, 10).getBytes());
+	}
+
+	@Test
+	public void writeBackMoveDirectory() throws IOException {
+		val writeBack = newWriteBackFS();
+		writeBack.createEmptyDirectory("/d", 0, directory());
+		writeBack.createEmptyFile("/d/f", 0, normal());
+		writeBack.write("/d/f", 0L, TestVolumes.pattern(100), 100);
+
+		writeBack.move("/d", "/e", false);
+
+		val read = writeBack.read("/e/f", 0L, 100);
+		assertEquals(100, read.getLength());
+		assertArrayEquals(TestVolumes.pattern(100), read.getBytes());
+		assertEquals(100, sizeOf(writeBack.getInfo("/e/f")));
+	}
+
+	@Test
+	public void writeBackMoveReplacesPendingWrites() throws IOException {
+		val writeBack = newWriteBackFS();
+		writeBack.createEmptyFile("/target.bin", 0, normal());
+		writeBack.write("/target.bin", 0L, TestVolumes.pattern(100), 100);
+
+		writeBack.move(PATH, "/target.bin", true);
+
+		assertEquals(0, sizeOf(writeBack.getInfo("/target.bin")));
+		writeBack.flushFileBuffers("/target.bin");
+		assertEquals(0, sizeOf(writeBack.getInfo("/target.bin")));
+	}
+
+	@Test
+	public void listingFollowsCreateAndDelete() throws IOException {
+		memoryFS.createEmptyDirectory("/d", 0, directory());
+		memoryFS.createEmptyFile("/d/a.txt", 0, normal());
+		memoryFS.createEmptyFile("/d/b.txt", 0, normal());
+		assertEquals(Arrays.asList("a.txt", "b.txt"), list(memoryFS, "/d"));
+		assertTrue(list(memoryFS, "/").containsAll(Arrays.asList("d", "sparse.bin")));
+
+		memoryFS.deleteFile("/d/a.txt", new DokanyFileInfo());
+		assertEquals(Arrays.asList("b.txt"), list(memoryFS, "/d"));
+
+		try {
+			memoryFS.deleteDirectory("/d", new DokanyFileInfo());
+			fail("expected " + DokanyException.DIRECTORY_NOT_EMPTY);
+		} catch (final DokanyException e) {
+			assertSame(DokanyException.DIRECTORY_NOT_EMPTY, e);
+		}
+		assertEquals(Arrays.asList("b.txt"), list(memoryFS, "/d"));
+
+		memoryFS.deleteFile("/d/b.txt", new DokanyFileInfo());
+		memoryFS.deleteDirectory("/d", new DokanyFileInfo());
+		assertFalse(list(memoryFS, "/").contains("d"));
+		assertEquals(Collections.emptyList(), list(memoryFS, "/d"));
+	}
+
+	@Test
+	public void listingFollowsMove() throws IOException {
+		memoryFS.createEmptyDirectory("/d", 0, directory());
+		memoryFS.createEmptyDirectory("/d/sub", 0, directory());
+		memoryFS.createEmptyFile("/d/sub/f.txt", 0, normal());
+		memoryFS.createEmptyFile("/d/g.txt", 0, normal());
+
+		// file
+		memoryFS.move("/d/g.txt", "/d/h.txt", false);
+		assertEquals(Arrays.asList("h.txt", "sub"), list(memoryFS, "/d"));
+
+		// nested directories
+		memoryFS.move("/d", "/e", false);
+		assertFalse(list(memoryFS, "/").contains("d"));
+		assertTrue(list(memoryFS, "/").contains("e"));
+		assertEquals(Collections.emptyList(), list(memoryFS, "/d"));
+		assertEquals(Collections.emptyList(), list(memoryFS, "/d/sub"));
+		assertEquals(Arrays.asList("h.txt", "sub"), list(memoryFS, "/e"));
+		assertEquals(Arrays.asList("f.txt"), list(memoryFS, "/e/sub"));
+
+		// replacing an existing file
+		memoryFS.move("/e/h.txt", "/e/sub/f.txt", true);
+		assertEquals(Arrays.asList("sub"), list(memoryFS, "/e"));
+		assertEquals(Arrays.asList("f.txt"), list(memoryFS, "/e/sub"));
+	}
+}
@@ -0,0 +1,131 @@
+package com.dokany.java.examples.memoryfs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import lombok.val;
+
+public class WriteBackBufferTest {
+
+	private static ByteBuffer bytes(final int length, final int value) {
+		val bytes = new byte[length];
+		Arrays.fill(bytes, (byte) value);
+		return ByteBuffer.wrap(bytes);
+	}
+
+	@Test
+	public void appendsCoalesceIntoOneExtent() {
+		val buffer = new WriteBackBuffer();
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(buffer.add(i * 10L, bytes(10, i)));
+		}
+
+		val extents = buffer.getExtents();
+		assertEquals(1, extents.size());
+		val data = extents.get(0L);
+		assertEquals(10000, data.length);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals((byte) i, data[i * 10]);
+			assertEquals((byte) i, data[(i * 10) + 9]);
+		}
+		assertEquals(10000, buffer.getPendingBytes());
+	}
+
+	@Test
+	public void newerBytesWin() {
+		val buffer = new WriteBackBuffer();
+		buffer.add(0, bytes(100, 1));
+		buffer.add(50, bytes(10, 2));
+		buffer.add(95, bytes(10, 3));
+
+		val data = buffer.getExtents().get(0L);
+		assertEquals(105, data.length);
+		assertEquals(1, data[49]);
+		assertEquals(2, data[50]);
+		assertEquals(2, data[59]);
+		assertEquals(1, data[60]);
+		assertEquals(3, data[95]);
+		assertEquals(3, data[104]);
+		assertEquals(105, buffer.getPendingBytes());
+	}
+
+	@Test
+	public void writeBridgingExtentsMergesThem() {
+		val buffer = new WriteBackBuffer();
+		buffer.add(0, bytes(10, 1));
+		buffer.add(20, bytes(10, 2));
+		buffer.add(40, bytes(10, 3));
+		assertEquals(3, buffer.getExtents().size());
+		assertEquals(30, buffer.getPendingBytes());
+
+		buffer.add(5, bytes(40, 4));
+
+		val extents = buffer.getExtents();
+		assertEquals(1, extents.size());
+		val expected = new byte[50];
+		Arrays.fill(expected, 0, 5, (byte) 1);
+		Arrays.fill(expected, 5, 45, (byte) 4);
+		Arrays.fill(expected, 45, 50, (byte) 3);
+		assertArrayEquals(expected, extents.get(0L));
+		assertEquals(50, buffer.getPendingBytes());
+	}
+
+	@Test
+	public void writeInFrontOfExtentMergesIt() {
+		val buffer = new WriteBackBuffer();
+		buffer.add(10, bytes(10, 1));
+		buffer.add(0, bytes(10, 2));
+
+		val extents = buffer.getExtents();
+		assertEquals(1, extents.size());
+		val data = extents.get(0L);
+		assertEquals(20, data.length);
+		assertEquals(2, data[9]);
+		assertEquals(1, data[10]);
+	}
+
+	@Test
+	public void extentsStayPendingUntilCleared() {
+		val buffer = new WriteBackBuffer();
+		buffer.add(0, bytes(10, 1));
+
+		buffer.getExtents();
+		assertTrue(buffer.isDirty());
+		assertEquals(10, buffer.getPendingBytes());
+
+		buffer.clear();
+		assertFalse(buffer.isDirty());
+		assertEquals(0, buffer.getPendingBytes());
+		assertTrue(buffer.getExtents().isEmpty());
+	}
+
+	@Test
+	public void thresholdOnPendingBytes() {
+		val buffer = new WriteBackBuffer();
+		assertFalse(buffer.isOverThreshold(0, Long.MAX_VALUE));
+
+		buffer.add(0, bytes(10, 1));
+		assertFalse(buffer.isOverThreshold(11, Long.MAX_VALUE));
+		buffer.add(10, bytes(1, 1));
+		assertTrue(buffer.isOverThreshold(11, Long.MAX_VALUE));
+		assertTrue(buffer.isOverThreshold(Long.MAX_VALUE, 0));
+	}
+
+	@Test
+	public void closedBufferRejectsWrites() {
+		val buffer = new WriteBackBuffer();
+		buffer.close();
+
+		val src = bytes(10, 1);
+		assertFalse(buffer.add(0, src));
+		assertEquals(10, src.remaining());
+		assertFalse(buffer.isDirty());
+	}
+}
@@ -0,0 +1,225 @@
+package com.dokany.java.examples.mirrorfs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dokany.java.SimulatedDokany;
+import com.dokany.java.TestVolumes;
+import com.dokany.java.constants.CreationDisposition;
+import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.structure.DokanyFileInfo;
+import com.sun.jna.Memory;
+import com.sun.jna.Platform;
+import com.sun.jna.platform.win32.WinBase.WIN32_FIND_DATA;
+
+import lombok.Cleanup;
+import lombok.val;
+
+/**
+ * Reads and writes above 4 GB on sparse files, so the 64-bit offsets are not truncated anywhere between the callbacks and the host file system, and directory listings of both
+ * {@link ListingMode}s.
+ */
+public class MirrorFSTest {
+	static final String PATH = "/sparse.bin";
+	static final long SIZE = 6L * 1024 * 1024 * 1024;
+	static final long OFFSET = 5L * 1024 * 1024 * 1024 + 123;
+
+	Path root;
+	Path file;
+
+	@Before
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("dokany-java-test_");
+		file = root.resolve(PATH.substring(1));
+		@Cleanup
+		val sparse = new RandomAccessFile(file.toFile(), "rw");
+		sparse.setLength(SIZE);
+	}
+
+	/**
+	 *
+	 * @return file name -> find data FindFiles returns for directory
+	 */
+	private static Map<String, WIN32_FIND_DATA> list(final MirrorFS mirrorFS, final String directory, final String pattern) throws IOException {
+		val files = new TreeMap<String, WIN32_FIND_DATA>();
+		mirrorFS.findFilesWithPattern(directory, new DokanyFileInfo(), pattern, data -> files.put(FilenameUtils.getName(data.getFileName()), data));
+		return files;
+	}
+
+	private static long sizeOf(final WIN32_FIND_DATA data) {
+		return ((long) data.nFileSizeHigh << 32) | (data.nFileSizeLow & 0xffffffffL);
+	}
+
+	private static boolean isDirectory(final WIN32_FIND_DATA data) {
+		return (data.dwFileAttributes & FileAttribute.DIRECTORY.getMask()) != 0;
+	}
+
+	private static void assertSameListing(final Map<String, WIN32_FIND_DATA> expected, final Map<String, WIN32_FIND_DATA> actual) {
+		assertEquals(expected.keySet(), actual.keySet());
+		for (val name : expected.keySet()) {
+			assertEquals(name, sizeOf(expected.get(name)), sizeOf(actual.get(name)));
+			assertEquals(name, expected.get(name).dwFileAttributes, actual.get(name).dwFileAttributes);
+		}
+	}
+
+	/**
+	 * Adds a small file and a subdirectory next to the sparse file.
+	 */
+	private void createListing() throws IOException {
+		Files.write(root.resolve("small.txt"), TestVolumes.pattern(100));
+		Files.createDirectory(root.resolve("sub"));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(root.toFile());
+	}
+
+	@Test
+	public void writeAndReadAbove4GB() throws IOException {
+		val mirrorFS = TestVolumes.mirrorFS(TestVolumes.deviceOptions(), root, ReadMode.CHANNEL);
+		val data = TestVolumes.pattern(4096);
+
+		assertEquals(data.length, mirrorFS.write(PATH, OFFSET, data, data.length));
+
+		val read = mirrorFS.read(PATH, OFFSET, data.length);
+		assertEquals(data.length, read.getLength());
+		assertArrayEquals(data, read.getBytes());
+
+		// only the written range lands in the file
+		val gap = mirrorFS.read(PATH, OFFSET - 16, 16);
+		assertArrayEquals(new byte[16], gap.getBytes());
+		assertEquals(SIZE, Files.size(file));
+	}
+
+	@Test
+	public void readStopsAtEndOfFileAbove4GB() throws IOException {
+		val mirrorFS = TestVolumes.mirrorFS(TestVolumes.deviceOptions(), root, ReadMode.CHANNEL);
+
+		assertEquals(100, mirrorFS.read(PATH, SIZE - 100, 4096).getLength());
+	}
+
+	@Test
+	public void setEndOfFileAbove4GB() throws IOException {
+		val mirrorFS = TestVolumes.mirrorFS(TestVolumes.deviceOptions(), root, ReadMode.CHANNEL);
+
+		mirrorFS.setEndOfFile(PATH, SIZE + 1);
+		assertEquals(SIZE + 1, Files.size(file));
+
+		mirrorFS.setAllocationSize(PATH, OFFSET);
+		assertEquals(OFFSET, Files.size(file));
+	}
+
+	@Test
+	public void callbacksAbove4GB() throws IOException {
+		for (val readMode : ReadMode.values()) {
+			val deviceOptions = TestVolumes.deviceOptions();
+			val dokany = new SimulatedDokany(deviceOptions, TestVolumes.mirrorFS(deviceOptions, root, readMode));
+			val data = TestVolumes.pattern(8192);
+			val offset = OFFSET + readMode.ordinal() * data.length;
+
+			val buffer = new Memory(data.length);
+			buffer.write(0, data, 0, data.length);
+			val handle = dokany.open(PATH, CreationDisposition.OPEN_EXISTING, false);
+			assertEquals(data.length, dokany.write(PATH, offset, buffer, data.length, handle));
+
+			buffer.clear(data.length);
+			assertEquals(readMode.name(), data.length, dokany.read(PATH, offset, buffer, data.length, handle));
+			assertArrayEquals(readMode.name(), data, buffer.getByteArray(0, data.length));
+			dokany.close(PATH, handle);
+		}
+	}
+
+	@Test
+	public void mappedReadAfterSetEndOfFile() throws IOException {
+		val deviceOptions = TestVolumes.deviceOptions();
+		val mirrorFS = TestVolumes.mirrorFS(deviceOptions, root, ReadMode.MEMORY_MAPPED);
+		val dokany = new SimulatedDokany(deviceOptions, mirrorFS);
+		val buffer = new Memory(8192);
+		val handle = dokany.open(PATH, CreationDisposition.OPEN_EXISTING, false);
+		assertEquals(8192, dokany.read(PATH, OFFSET, buffer, 8192, handle));
+
+		// shrunk through the handle, which drops its windows
+		dokany.setEndOfFile(PATH, OFFSET + 100, handle);
+		assertEquals(100, dokany.read(PATH, OFFSET, buffer, 8192, handle));
+
+		dokany.setEndOfFile(PATH, SIZE, handle);
+		assertEquals(8192, dokany.read(PATH, OFFSET, buffer, 8192, handle));
+
+		// shrunk without the handle, so the window mapped above stays and the read is cut at the new end
+		mirrorFS.setEndOfFile(PATH, OFFSET + 200);
+		assertEquals(200, dokany.read(PATH, OFFSET, buffer, 8192, handle));
+		dokany.close(PATH, handle);
+	}
+
+	@Test
+	public void bulkListing() throws IOException {
+		createListing();
+		val mirrorFS = TestVolumes.mirrorFS(TestVolumes.deviceOptions(), root, ReadMode.CHANNEL, ListingMode.BULK, 0);
+
+		val files = list(mirrorFS, "/", null);
+		assertEquals(3, files.size());
+		assertEquals(SIZE, sizeOf(files.get("sparse.bin")));
+		assertEquals(100, sizeOf(files.get("small.txt")));
+		assertEquals(0, sizeOf(files.get("sub")));
+		assertTrue(isDirectory(files.get("sub")));
+		assertTrue(!isDirectory(files.get("sparse.bin")) && !isDirectory(files.get("small.txt")));
+
+		assertEquals(files.keySet(), list(mirrorFS, "/", "*").keySet());
+		assertEquals(1, list(mirrorFS, "/", "*.txt").size());
+		assertSameListing(files, list(mirrorFS, "/", "s*"));
+	}
+
+	/**
+	 * {@link ListingMode#PER_ENTRY} goes through kernel32, so the modes are only compared on Windows.
+	 */
+	@Test
+	public void bulkListingMatchesPerEntry() throws IOException {
+		Assume.assumeTrue(Platform.isWindows());
+		createListing();
+		val deviceOptions = TestVolumes.deviceOptions();
+		val perEntry = TestVolumes.mirrorFS(deviceOptions, root, ReadMode.CHANNEL, ListingMode.PER_ENTRY, 0);
+		val bulk = TestVolumes.mirrorFS(deviceOptions, root, ReadMode.CHANNEL, ListingMode.BULK, 0);
+
+		assertSameListing(list(perEntry, "/", null), list(bulk, "/", null));
+		assertSameListing(list(perEntry, "/", "*.txt"), list(bulk, "/", "*.txt"));
+	}
+
+	@Test
+	public void parallelListingAboveThreshold() throws IOException {
+		val directory = Files.createDirectory(root.resolve("many"));
+		val count = MirrorFS.PARALLEL_LISTING_THRESHOLD + 100;
+		for (int i = 0; i < count; i++) {
+			Files.write(directory.resolve("file" + i), TestVolumes.pattern(i % 512));
+		}
+		val deviceOptions = TestVolumes.deviceOptions();
+		val sequential = TestVolumes.mirrorFS(deviceOptions, root, ReadMode.CHANNEL, ListingMode.BULK, 0);
+		val parallel = TestVolumes.mirrorFS(deviceOptions, root, ReadMode.CHANNEL, ListingMode.BULK, 4);
+
+		try {
+			val files = list(parallel, "/many", null);
+			assertEquals(count, files.size());
+			for (int i = 0; i < count; i++) {
+				assertEquals(i % 512, sizeOf(files.get("file" + i)));
+			}
+			assertSameListing(list(sequential, "/many", null), files);
+		} finally {
+			parallel.unmounted();
+		}
+	}
+}
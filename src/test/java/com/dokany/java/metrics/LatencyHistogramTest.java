@@ -0,0 +1,95 @@
+package com.dokany.java.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import lombok.val;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void smallValuesHaveTheirOwnBucket() {
+		for (int value = 0; value < LatencyHistogram.SUB_BUCKETS; value++) {
+			assertEquals(value, LatencyHistogram.bucketIndex(value));
+			assertEquals(value, LatencyHistogram.bucketUpperBound(value));
+		}
+	}
+
+	@Test
+	public void bucketBoundaries() {
+		assertEquals(8, LatencyHistogram.bucketIndex(8));
+		assertEquals(15, LatencyHistogram.bucketIndex(15));
+		// from 16 on every bucket holds two values, from 32 on four and so on
+		assertEquals(16, LatencyHistogram.bucketIndex(16));
+		assertEquals(16, LatencyHistogram.bucketIndex(17));
+		assertEquals(17, LatencyHistogram.bucketIndex(18));
+		assertEquals(17, LatencyHistogram.bucketUpperBound(16));
+		assertEquals(31, LatencyHistogram.bucketUpperBound(23));
+		assertEquals(24, LatencyHistogram.bucketIndex(32));
+
+		for (int index = 0; index < (LatencyHistogram.BUCKET_COUNT - 1); index++) {
+			val upperBound = LatencyHistogram.bucketUpperBound(index);
+			assertEquals(index, LatencyHistogram.bucketIndex(upperBound));
+			assertEquals(index + 1, LatencyHistogram.bucketIndex(upperBound + 1));
+		}
+	}
+
+	@Test
+	public void upperBoundWithinOneSubBucket() {
+		for (long value = 1; value < (1L << 20); value += 7) {
+			val upperBound = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+			assertTrue(upperBound >= value);
+			assertTrue((upperBound - value) <= (value / LatencyHistogram.SUB_BUCKETS));
+		}
+	}
+
+	@Test
+	public void maxValueFallsIntoLastBucket() {
+		assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.bucketUpperBound(LatencyHistogram.BUCKET_COUNT - 1));
+
+		val histogram = new LatencyHistogram();
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.valueAtPercentile(histogram.copyCounts(), 50));
+	}
+
+	@Test
+	public void negativeValuesCountAsZero() {
+		assertEquals(0, LatencyHistogram.bucketIndex(-1));
+		assertEquals(0, LatencyHistogram.bucketIndex(Long.MIN_VALUE));
+
+		val histogram = new LatencyHistogram();
+		histogram.record(-5);
+		assertEquals(1, histogram.copyCounts()[0]);
+	}
+
+	@Test
+	public void percentilesOfKnownDistribution() {
+		val histogram = new LatencyHistogram();
+		for (int i = 0; i < 90; i++) {
+			histogram.record(5);
+		}
+		for (int i = 0; i < 9; i++) {
+			histogram.record(100);
+		}
+		histogram.record(1000);
+		val counts = histogram.copyCounts();
+
+		assertEquals(5, LatencyHistogram.valueAtPercentile(counts, 0));
+		assertEquals(5, LatencyHistogram.valueAtPercentile(counts, 50));
+		assertEquals(5, LatencyHistogram.valueAtPercentile(counts, 90));
+		// 100 and 1000 are reported as the upper bounds of their buckets
+		assertEquals(103, LatencyHistogram.valueAtPercentile(counts, 91));
+		assertEquals(103, LatencyHistogram.valueAtPercentile(counts, 99));
+		assertEquals(1023, LatencyHistogram.valueAtPercentile(counts, 99.9));
+		assertEquals(1023, LatencyHistogram.valueAtPercentile(counts, 100));
+		assertEquals(1023, LatencyHistogram.valueAtPercentile(counts, 150));
+	}
+
+	@Test
+	public void emptyHistogramReportsZero() {
+		assertEquals(0, LatencyHistogram.valueAtPercentile(new LatencyHistogram().copyCounts(), 99));
+	}
+}
@@ -0,0 +1,159 @@
+package com.dokany.java.structure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.FileNotFoundException;
+
+import org.junit.Test;
+
+import com.dokany.java.constants.FileAttribute;
+import com.sun.jna.platform.win32.WinBase.FILETIME;
+
+import jetbrains.exodus.ArrayByteIterable;
+import jetbrains.exodus.ByteIterable;
+import lombok.val;
+
+public class FullFileInfoCodecTest {
+	static final String PATH = "/dir/file.bin";
+	static final long SIZE = (5L << 32) + 123;
+	static final long INDEX = (7L << 32) + 42;
+	static final long CREATION_TIME = 0x01d2_3456_789a_bcdeL;
+	static final long LAST_ACCESS_TIME = 0x01d2_3456_8000_0001L;
+	static final long LAST_WRITE_TIME = 0x01d2_3456_ffff_ffffL;
+
+	private static FILETIME time(final long raw) {
+		val time = new FILETIME();
+		time.dwHighDateTime = (int) (raw >>> 32);
+		time.dwLowDateTime = (int) raw;
+		return time;
+	}
+
+	private static FullFileInfo newInfo() throws FileNotFoundException {
+		val attributes = new EnumIntegerSet<>(FileAttribute.class);
+		attributes.add(FileAttribute.ARCHIVE, FileAttribute.HIDDEN);
+		val info = new FullFileInfo(PATH, INDEX, attributes, 0x89abcdef, time(CREATION_TIME), time(LAST_ACCESS_TIME), time(LAST_WRITE_TIME));
+		info.setSize(SIZE);
+		info.dwNumberOfLinks = 3;
+		info.dwReserved0 = 0x8000000c;
+		info.dwReserved1 = 17;
+		return info;
+	}
+
+	/**
+	 * Checks every field stored in a record, plus the DWORDs derived from size and index.
+	 */
+	private static void assertDecoded(final ByHandleFileInfo info) {
+		assertEquals(PATH, info.filePath);
+		assertEquals(SIZE, info.getSize());
+		assertEquals(5, info.nFileSizeHigh);
+		assertEquals(123, info.nFileSizeLow);
+		assertEquals(INDEX, info.fileIndex);
+		assertEquals(7, info.nFileIndexHigh);
+		assertEquals(42, info.nFileIndexLow);
+		assertEquals(FileAttribute.ARCHIVE.getMask() | FileAttribute.HIDDEN.getMask(), info.dwFileAttributes);
+		assertEquals(CREATION_TIME, FullFileInfoCodec.toRaw(info.ftCreationTime));
+		assertEquals(LAST_ACCESS_TIME, FullFileInfoCodec.toRaw(info.ftLastAccessTime));
+		assertEquals(LAST_WRITE_TIME, FullFileInfoCodec.toRaw(info.ftLastWriteTime));
+		assertEquals(3, info.dwNumberOfLinks);
+		assertEquals(0x89abcdef, info.dwVolumeSerialNumber);
+	}
+
+	@Test
+	public void encodeWritesVersionTag() throws FileNotFoundException {
+		val record = FullFileInfoCodec.encode(newInfo());
+
+		assertEquals(FullFileInfoCodec.RECORD_LENGTH, record.getLength());
+		assertEquals(FullFileInfoCodec.VERSION, record.getBytesUnsafe()[0]);
+	}
+
+	@Test
+	public void decodeRoundTripsEveryField() throws FileNotFoundException {
+		val decoded = FullFileInfoCodec.decode(PATH, FullFileInfoCodec.encode(newInfo()));
+
+		assertDecoded(decoded);
+		assertEquals(0x8000000c, decoded.dwReserved0);
+		assertEquals(17, decoded.dwReserved1);
+	}
+
+	@Test
+	public void decodeIntoFullFileInfoReusesTimes() throws FileNotFoundException {
+		val record = FullFileInfoCodec.encode(newInfo());
+		val target = new FullFileInfo("/previous");
+		val creationTime = target.ftCreationTime;
+		val lastAccessTime = target.ftLastAccessTime;
+		val lastWriteTime = target.ftLastWriteTime;
+
+		FullFileInfoCodec.decodeInto(PATH, record, target);
+
+		assertDecoded(target);
+		assertEquals(0x8000000c, target.dwReserved0);
+		assertEquals(17, target.dwReserved1);
+		assertSame(creationTime, target.ftCreationTime);
+		assertSame(lastAccessTime, target.ftLastAccessTime);
+		assertSame(lastWriteTime, target.ftLastWriteTime);
+	}
+
+	@Test
+	public void decodeIntoSeparatesSharedTimes() throws FileNotFoundException {
+		val record = FullFileInfoCodec.encode(newInfo());
+		val shared = new FILETIME();
+		val target = new ByHandleFileInfo();
+		target.ftCreationTime = shared;
+		target.ftLastAccessTime = shared;
+		target.ftLastWriteTime = shared;
+
+		FullFileInfoCodec.decodeInto(PATH, record, target);
+
+		assertDecoded(target);
+		assertNotSame(target.ftCreationTime, target.ftLastAccessTime);
+		assertNotSame(target.ftCreationTime, target.ftLastWriteTime);
+		assertNotSame(target.ftLastAccessTime, target.ftLastWriteTime);
+	}
+
+	@Test
+	public void decodeKeepsAtLeastOneLink() throws FileNotFoundException {
+		val info = newInfo();
+		info.dwNumberOfLinks = 0;
+
+		assertEquals(1, FullFileInfoCodec.decode(PATH, FullFileInfoCodec.encode(info)).dwNumberOfLinks);
+	}
+
+	@Test
+	public void sizeAbove4GBWithoutDecoding() throws FileNotFoundException {
+		val record = FullFileInfoCodec.encode(newInfo());
+		assertEquals(SIZE, FullFileInfoCodec.getSize(record));
+
+		val resized = FullFileInfoCodec.withSize(record, SIZE + (1L << 32));
+		assertEquals(SIZE + (1L << 32), FullFileInfoCodec.getSize(resized));
+		val decoded = FullFileInfoCodec.decode(PATH, resized);
+		assertEquals(6, decoded.nFileSizeHigh);
+		assertEquals(123, decoded.nFileSizeLow);
+		assertEquals(INDEX, decoded.fileIndex);
+		assertEquals(LAST_WRITE_TIME, FullFileInfoCodec.toRaw(decoded.ftLastWriteTime));
+	}
+
+	@Test
+	public void rejectsOtherVersionsAndLengths() throws FileNotFoundException {
+		val bytes = FullFileInfoCodec.encode(newInfo()).getBytesUnsafe().clone();
+		bytes[0] = FullFileInfoCodec.VERSION + 1;
+		assertRejected(new ArrayByteIterable(bytes));
+
+		bytes[0] = FullFileInfoCodec.VERSION;
+		assertRejected(new ArrayByteIterable(bytes, FullFileInfoCodec.RECORD_LENGTH - 1));
+
+		// the earlier variable-length layout
+		assertRejected(newInfo().toByteIterable());
+	}
+
+	private static void assertRejected(final ByteIterable record) {
+		try {
+			FullFileInfoCodec.decode(PATH, record);
+			fail("expected IllegalArgumentException");
+		} catch (final IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,278 @@
+package com.dokany.java;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Objects;
+
+import com.dokany.java.constants.CreationDisposition;
+import com.dokany.java.constants.ErrorCode;
+import com.dokany.java.structure.ByHandleFileInfo;
+import com.dokany.java.structure.DeviceOptions;
+import com.dokany.java.structure.DokanyFileInfo;
+import com.sun.jna.Memory;
+import com.sun.jna.WString;
+import com.sun.jna.platform.win32.WinBase;
+import com.sun.jna.platform.win32.WinNT;
+import com.sun.jna.ptr.IntByReference;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drives the callbacks Dokany would invoke against a {@link DokanyFileSystem} without loading dokan1.dll, so the whole callback path can be exercised and measured on any
+ * platform.
+ *
+ * Callbacks are invoked directly on the same {@link DokanyOperationsProxy} {@link DokanyDriver} hands to Dokany, with native {@link Memory} buffers, {@link WString} paths and
+ * synthetic {@link DokanyFileInfo} structures. Unsuccessful statuses are thrown as {@link DokanyException}.
+ *
+ * Traces can be replayed with {@link #replay(Reader)}; see there for the format.
+ */
+@Slf4j
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public final class SimulatedDokany {
+	@NonNull
+	DeviceOptions deviceOptions;
+	@NonNull
+	@Getter
+	DokanyFileSystem fileSystem;
+	@NonNull
+	DokanyOperationsProxy operations;
+	@NonNull
+	WinBase.SECURITY_ATTRIBUTES securityContext = new WinBase.SECURITY_ATTRIBUTES();
+
+	public SimulatedDokany(@NonNull final DeviceOptions deviceOptions, @NonNull final DokanyFileSystem fileSystem) {
+		this.deviceOptions = deviceOptions;
+		this.fileSystem = fileSystem;
+		operations = new DokanyOperationsProxy(deviceOptions, fileSystem);
+	}
+
+	/**
+	 * Sends ZwCreateFile for path and returns the file info Dokany would pass to every following callback on that handle.
+	 *
+	 * @param path
+	 * @param disposition
+	 * @param isDirectory
+	 * @return file info identifying the open handle
+	 */
+	public DokanyFileInfo open(@NonNull final String path, @NonNull final CreationDisposition disposition, final boolean isDirectory) {
+		val dokanyFileInfo = new DokanyFileInfo();
+		dokanyFileInfo.DokanOptions = deviceOptions;
+		dokanyFileInfo.IsDirectory = (byte) (isDirectory ? 1 : 0);
+
+		check("ZwCreateFile", path, operations.ZwCreateFile.callback(
+		        new WString(path),
+		        securityContext,
+		        WinNT.GENERIC_READ | WinNT.GENERIC_WRITE,
+		        WinNT.FILE_ATTRIBUTE_NORMAL,
+		        WinNT.FILE_SHARE_READ | WinNT.FILE_SHARE_WRITE,
+		        toKernelDisposition(disposition),
+		        0,
+		        dokanyFileInfo));
+		return dokanyFileInfo;
+	}
+
+	/**
+	 * Sends ReadFile for up to length bytes into buffer.
+	 *
+	 * @return number of bytes read
+	 */
+	public int read(@NonNull final String path, final long offset, @NonNull final Memory buffer, final int length, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		checkLength(buffer, length);
+		val readLength = new IntByReference();
+		check("ReadFile", path, operations.ReadFile.callback(new WString(path), buffer, length, readLength, offset, dokanyFileInfo));
+		return readLength.getValue();
+	}
+
+	/**
+	 * Sends WriteFile for the first length bytes of buffer.
+	 *
+	 * @return number of bytes written
+	 */
+	public int write(@NonNull final String path, final long offset, @NonNull final Memory buffer, final int length, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		checkLength(buffer, length);
+		val written = new IntByReference();
+		check("WriteFile", path, operations.WriteFile.callback(new WString(path), buffer, length, written, offset, dokanyFileInfo));
+		return written.getValue();
+	}
+
+	public ByHandleFileInfo getFileInformation(@NonNull final String path, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		val info = new ByHandleFileInfo();
+		check("GetFileInformation", path, operations.GetFileInformation.callback(new WString(path), info, dokanyFileInfo));
+		return info;
+	}
+
+	/**
+	 * Sends FindFilesWithPattern, or FindFiles if pattern is null.
+	 *
+	 * @return number of entries the file system returned
+	 */
+	public int findFiles(@NonNull final String path, final String pattern, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		val count = new int[1];
+		final DokanyOperations.FillWin32FindData fill = (findData, info) -> count[0]++;
+
+		val status = Objects.isNull(pattern)
+		        ? operations.FindFiles.callback(new WString(path), fill, dokanyFileInfo)
+		        : operations.FindFilesWithPattern.callback(new WString(path), new WString(pattern), fill, dokanyFileInfo);
+		check("FindFiles", path, status);
+		return count[0];
+	}
+
+	public void setEndOfFile(@NonNull final String path, final long offset, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		check("SetEndOfFile", path, operations.SetEndOfFile.callback(new WString(path), offset, dokanyFileInfo));
+	}
+
+	public void flush(@NonNull final String path, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		check("FlushFileBuffers", path, operations.FlushFileBuffers.callback(new WString(path), dokanyFileInfo));
+	}
+
+	/**
+	 * Sends LockFile, as Dokany does with {@link com.dokany.java.constants.MountOption#FILELOCK_USER_MODE}.
+	 */
+	public void lock(@NonNull final String path, final long offset, final long length, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		check("LockFile", path, operations.LockFile.callback(new WString(path), offset, length, dokanyFileInfo));
+	}
+
+	public void unlock(@NonNull final String path, final long offset, final long length, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		check("UnlockFile", path, operations.UnlockFile.callback(new WString(path), offset, length, dokanyFileInfo));
+	}
+
+	/**
+	 * Sends Cleanup then CloseFile, as Dokany does when the last handle goes away.
+	 */
+	public void close(@NonNull final String path, @NonNull final DokanyFileInfo dokanyFileInfo) {
+		val rawPath = new WString(path);
+		operations.Cleanup.callback(rawPath, dokanyFileInfo);
+		operations.CloseFile.callback(rawPath, dokanyFileInfo);
+	}
+
+	/**
+	 * Replays a recorded trace. Each line holds tab separated fields; empty lines and lines starting with # are ignored.
+	 *
+	 * <pre>
+	 * OPEN   path [dir]
+	 * READ   path offset length
+	 * WRITE  path offset length
+	 * INFO   path
+	 * FIND   path [pattern]
+	 * FLUSH  path
+	 * CLOSE  path
+	 * </pre>
+	 *
+	 * Operations other than OPEN and CLOSE use the handle opened for their path, opening one if needed. Written bytes are zeros; handles still open at the end of the trace are
+	 * closed.
+	 *
+	 * @param trace
+	 * @return number of operations replayed
+	 * @throws IOException if trace cannot be read or is malformed
+	 */
+	public long replay(@NonNull final Reader trace) throws IOException {
+		val reader = (trace instanceof BufferedReader) ? (BufferedReader) trace : new BufferedReader(trace);
+		val openHandles = new HashMap<String, DokanyFileInfo>();
+		Memory buffer = null;
+		long count = 0;
+		int lineNumber = 0;
+
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+
+				val fields = line.split("\t");
+				try {
+					val path = fields[1];
+					switch (fields[0]) {
+					case "OPEN": {
+						val isDirectory = (fields.length > 2) && "dir".equals(fields[2]);
+						openHandles.put(path, open(path, CreationDisposition.OPEN_ALWAYS, isDirectory));
+						break;
+					}
+					case "READ":
+					case "WRITE": {
+						val offset = Long.parseLong(fields[2]);
+						val length = Integer.parseInt(fields[3]);
+						if (Objects.isNull(buffer) || (buffer.size() < length)) {
+							buffer = new Memory(Math.max(length, 1));
+						}
+						val dokanyFileInfo = openHandles.computeIfAbsent(path, p -> open(p, CreationDisposition.OPEN_ALWAYS, false));
+						if ("READ".equals(fields[0])) {
+							read(path, offset, buffer, length, dokanyFileInfo);
+						} else {
+							buffer.clear(length);
+							write(path, offset, buffer, length, dokanyFileInfo);
+						}
+						break;
+					}
+					case "INFO":
+						getFileInformation(path, openHandles.computeIfAbsent(path, p -> open(p, CreationDisposition.OPEN_EXISTING, false)));
+						break;
+					case "FIND":
+						findFiles(path, (fields.length > 2) ? fields[2] : null, openHandles.computeIfAbsent(path, p -> open(p, CreationDisposition.OPEN_EXISTING, true)));
+						break;
+					case "FLUSH":
+						flush(path, openHandles.computeIfAbsent(path, p -> open(p, CreationDisposition.OPEN_EXISTING, false)));
+						break;
+					case "CLOSE": {
+						val dokanyFileInfo = openHandles.remove(path);
+						if (Objects.nonNull(dokanyFileInfo)) {
+							close(path, dokanyFileInfo);
+						}
+						break;
+					}
+					default:
+						throw new IOException("Unknown operation " + fields[0] + " at line " + lineNumber);
+					}
+				} catch (final IndexOutOfBoundsException | NumberFormatException e) {
+					throw new IOException("Malformed trace line " + lineNumber + ": " + line, e);
+				}
+				count++;
+			}
+		} finally {
+			openHandles.forEach((path, dokanyFileInfo) -> close(path, dokanyFileInfo));
+		}
+
+		log.debug("Replayed {} operations", count);
+		return count;
+	}
+
+	/**
+	 * Dokany passes ZwCreateFile the kernel disposition, not the Win32 one.
+	 */
+	private static int toKernelDisposition(final CreationDisposition disposition) {
+		switch (disposition) {
+		case CREATE_NEW:
+			return DokanyOperationsProxy.FILE_CREATE;
+		case CREATE_ALWAYS:
+			return DokanyOperationsProxy.FILE_OVERWRITE_IF;
+		case OPEN_EXISTING:
+			return DokanyOperationsProxy.FILE_OPEN;
+		case OPEN_ALWAYS:
+			return DokanyOperationsProxy.FILE_OPEN_IF;
+		case TRUNCATE_EXISTING:
+			return DokanyOperationsProxy.FILE_OVERWRITE;
+		default:
+			throw new IllegalArgumentException("Unknown disposition: " + disposition);
+		}
+	}
+
+	private static void checkLength(final Memory buffer, final int length) {
+		if ((length < 0) || (length > buffer.size())) {
+			throw new IllegalArgumentException("length " + length + " does not fit in buffer of " + buffer.size() + " bytes");
+		}
+	}
+
+	private static void check(final String operation, final String path, final long status) {
+		if (status != ErrorCode.SUCCESS.getMask()) {
+			log.trace("{} on {} returned {}", operation, path, status);
+			throw DokanyException.withoutStackTrace(status);
+		}
+	}
+}
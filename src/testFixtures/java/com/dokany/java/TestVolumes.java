@@ -0,0 +1,116 @@
+package com.dokany.java;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Date;
+
+import com.dokany.java.constants.FileAttribute;
+import com.dokany.java.constants.FileSystemFeature;
+import com.dokany.java.constants.MountOption;
+import com.dokany.java.examples.memoryfs.Compression;
+import com.dokany.java.examples.memoryfs.ContentLayout;
+import com.dokany.java.examples.memoryfs.Durability;
+import com.dokany.java.examples.memoryfs.MemoryFS;
+import com.dokany.java.examples.mirrorfs.ListingMode;
+import com.dokany.java.examples.mirrorfs.MirrorFS;
+import com.dokany.java.examples.mirrorfs.ReadMode;
+import com.dokany.java.structure.DeviceOptions;
+import com.dokany.java.structure.EnumIntegerSet;
+import com.dokany.java.structure.FreeSpace;
+import com.dokany.java.structure.VolumeInformation;
+
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Volumes for tests and benchmarks which are never mounted, so device options, volume information and free space are the same everywhere. File systems are created with
+ * {@link #deviceOptions()} unless the caller needs to tune the options first, for example the path or negative lookup cache.
+ */
+@UtilityClass
+public class TestVolumes {
+	public final long TOTAL_BYTES = 1024L * 1024L * 1024L;
+
+	public DeviceOptions deviceOptions() {
+		return new DeviceOptions("B:\\", (short) 1, new EnumIntegerSet<>(MountOption.class), "", 10000, 4096, 4096);
+	}
+
+	public VolumeInformation volumeInfo() {
+		val fsFeatures = new EnumIntegerSet<>(FileSystemFeature.class);
+		fsFeatures.add(FileSystemFeature.CASE_PRESERVED_NAMES, FileSystemFeature.UNICODE_ON_DISK);
+		return new VolumeInformation(VolumeInformation.DEFAULT_MAX_COMPONENT_LENGTH, "Test", 0x12345678, "Dokany Test", fsFeatures);
+	}
+
+	public FreeSpace freeSpace() {
+		return new FreeSpace(TOTAL_BYTES, TOTAL_BYTES);
+	}
+
+	/**
+	 * {@link MemoryFS} rooted at / with its defaults.
+	 */
+	public MemoryFS memoryFS(@NonNull final DeviceOptions deviceOptions) throws IOException {
+		return new MemoryFS(deviceOptions, volumeInfo(), freeSpace(), new Date(), "/");
+	}
+
+	/**
+	 * {@link MemoryFS} rooted at / with the default write-back thresholds and block size and no compression.
+	 */
+	public MemoryFS memoryFS(@NonNull final DeviceOptions deviceOptions, @NonNull final Durability durability, @NonNull final ContentLayout contentLayout) throws IOException {
+		return memoryFS(deviceOptions, durability, contentLayout, Compression.NONE);
+	}
+
+	/**
+	 * {@link MemoryFS} rooted at / with the default write-back thresholds and block size.
+	 */
+	public MemoryFS memoryFS(
+	        @NonNull final DeviceOptions deviceOptions,
+	        @NonNull final Durability durability,
+	        @NonNull final ContentLayout contentLayout,
+	        @NonNull final Compression compression) throws IOException {
+		return new MemoryFS(deviceOptions, volumeInfo(), freeSpace(), new Date(), "/", durability, MemoryFS.DEFAULT_WRITE_BACK_MAX_BYTES,
+		        MemoryFS.DEFAULT_WRITE_BACK_MAX_AGE_MILLIS, contentLayout, MemoryFS.DEFAULT_BLOCK_SIZE, compression);
+	}
+
+	/**
+	 * {@link MirrorFS} of root with the default mapped windows and listing.
+	 */
+	public MirrorFS mirrorFS(@NonNull final DeviceOptions deviceOptions, @NonNull final Path root, @NonNull final ReadMode readMode) throws IOException {
+		return new MirrorFS(deviceOptions, volumeInfo(), freeSpace(), new Date(), root.toString(), readMode, MirrorFS.DEFAULT_MAP_WINDOW_SIZE,
+		        MirrorFS.DEFAULT_MAX_MAPPED_WINDOWS);
+	}
+
+	/**
+	 * {@link MirrorFS} of root with the default mapped windows.
+	 */
+	public MirrorFS mirrorFS(
+	        @NonNull final DeviceOptions deviceOptions,
+	        @NonNull final Path root,
+	        @NonNull final ReadMode readMode,
+	        @NonNull final ListingMode listingMode,
+	        final int listingParallelism) throws IOException {
+		return new MirrorFS(deviceOptions, volumeInfo(), freeSpace(), new Date(), root.toString(), readMode, MirrorFS.DEFAULT_MAP_WINDOW_SIZE,
+		        MirrorFS.DEFAULT_MAX_MAPPED_WINDOWS, listingMode, listingParallelism);
+	}
+
+	/**
+	 *
+	 * @return set holding only attribute
+	 */
+	public EnumIntegerSet<FileAttribute> attributes(@NonNull final FileAttribute attribute) {
+		val attributes = new EnumIntegerSet<>(FileAttribute.class);
+		attributes.add(attribute);
+		return attributes;
+	}
+
+	/**
+	 *
+	 * @return length bytes which differ from their neighbours and from zero at most offsets, so misplaced or dropped ranges show up in comparisons
+	 */
+	public byte[] pattern(final int length) {
+		val bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = (byte) (i * 31 + 7);
+		}
+		return bytes;
+	}
+}